@@ -0,0 +1,70 @@
+"""
+export_java_fixture.py - Parity fixture for the Java tree scorer.
+
+Trains a small XGBoost model on history.csv using only the features the Java
+side can compute itself (product, weather, temp_avg and the calendar features
+from features.add_calendar_features), then writes into the Java test resources:
+
+- model.json             the model, exactly as save_model() writes it
+- model.categories.json  category order for product / weather
+- expected.csv           every history.csv row with XGBoost's own prediction
+
+TreeEnsembleParityTest (thebaker/src/test/java/.../service) rebuilds each row
+from product/date/weather/temp_avg and checks it scores the same.
+
+Usage: python export_java_fixture.py [--out ../thebaker/src/test/resources/gbt/parity]
+"""
+
+import os
+import argparse
+import pandas as pd
+import xgboost as xgb
+from features import add_calendar_features
+from train_xgb import save_xgb_model
+
+FEATURES = [
+    'product', 'weather', 'temp_avg',
+    'day_of_week', 'is_weekend', 'week_of_year', 'month', 'day_of_month',
+    'dow_sin', 'dow_cos', 'month_sin', 'month_cos',
+]
+
+RAW_COLUMNS = {'No.': 'date', '상품명': 'product', '수량': 'qty', 'weather': 'weather', 'temp_avg': 'temp_avg'}
+
+def load_history(path: str) -> pd.DataFrame:
+    """history.csv rows (No. is the sale date, 수량 the signed qty) with the columns the Java side can rebuild."""
+    df = pd.read_csv(path, encoding='utf-8-sig')
+    missing = set(RAW_COLUMNS) - set(df.columns)
+    if missing:
+        raise ValueError(f"Missing columns in {path}: {sorted(missing)}")
+    df = df[list(RAW_COLUMNS)].rename(columns=RAW_COLUMNS)
+    df['date'] = pd.to_datetime(df['date'])
+    df['sold_qty'] = df['qty'].abs()
+    df = add_calendar_features(df)
+    df['product'] = df['product'].astype('category')
+    df['weather'] = df['weather'].astype('category')
+    return df
+
+if __name__ == "__main__":
+    parser = argparse.ArgumentParser(description="Export a Java parity fixture from history.csv.")
+    parser.add_argument("--history", default="history.csv")
+    parser.add_argument("--out", default="../thebaker/src/test/resources/gbt/parity")
+    args = parser.parse_args()
+
+    df = load_history(args.history)
+    X = df[FEATURES]
+    model = xgb.XGBRegressor(
+        n_estimators=60, max_depth=4, learning_rate=0.1,
+        objective='reg:squarederror', enable_categorical=True,
+        tree_method='hist', random_state=42,
+    )
+    model.fit(X, df['sold_qty'], verbose=False)
+
+    os.makedirs(args.out, exist_ok=True)
+    save_xgb_model(model, os.path.join(args.out, "model.json"), X)
+
+    # Raw model output (no clamping), float32 as XGBoost computes it
+    out = df[['product', 'date', 'weather', 'temp_avg']].copy()
+    out['date'] = out['date'].dt.strftime('%Y-%m-%d')
+    out['expected'] = [repr(float(p)) for p in model.predict(X)]
+    out.to_csv(os.path.join(args.out, "expected.csv"), index=False)
+    print(f"Wrote {len(out)} rows to {args.out}")
@@ -0,0 +1,30 @@
+import pandas as pd
+import pytest
+from export_java_fixture import load_history
+
+HEADER = "No.,상품명,수량,실매출,weather,temp_avg,temp_max,temp_min\n"
+
+def test_load_history_reads_raw_schema(tmp_path):
+    """The raw 8-column history.csv layout maps onto the fixture columns."""
+    path = tmp_path / "history.csv"
+    path.write_text(
+        HEADER
+        + '2026-01-19,잠봉 베이글 샌드위치,12,"96,000",Snow,0.3,1.2,-0.6\n'
+        + '2026-01-20,잠봉 베이글 샌드위치,-2,"-16,000",Sunny,2.1,4.0,0.2\n',
+        encoding='utf-8-sig',
+    )
+
+    df = load_history(str(path))
+
+    assert list(df['product']) == ['잠봉 베이글 샌드위치'] * 2
+    assert list(df['sold_qty']) == [12, 2]
+    assert df['date'].iloc[0] == pd.Timestamp('2026-01-19')
+    assert df['day_of_week'].iloc[0] == 0  # Monday
+    assert list(df['temp_avg']) == [0.3, 2.1]
+
+def test_load_history_rejects_missing_columns(tmp_path):
+    path = tmp_path / "history.csv"
+    path.write_text("No.,상품명,수량\n2026-01-19,A,1\n", encoding='utf-8-sig')
+
+    with pytest.raises(ValueError):
+        load_history(str(path))
@@ -6,7 +6,8 @@ from train_xgb import (
     temporal_split,
     calculate_metrics,
     train_xgb_model,
-    predict_xgb
+    predict_xgb,
+    save_xgb_model
 )
 
 @pytest.fixture
@@ -85,3 +86,16 @@ def test_train_and_predict(mock_operational_features):
     
     assert len(preds) == len(X)
     assert np.all(preds >= 0)
+
+def test_save_xgb_model_writes_category_maps(mock_operational_features, tmp_path):
+    X, y, _ = prepare_xgb_data(mock_operational_features, target_col='sold_qty')
+    model = train_xgb_model(X, y, hyperparameters={'n_estimators': 2, 'max_depth': 2})
+
+    path = str(tmp_path / "models" / "xgb_sold_qty.json")
+    save_xgb_model(model, path, X)
+
+    import json
+    with open(str(tmp_path / "models" / "xgb_sold_qty.categories.json"), encoding="utf-8") as f:
+        categories = json.load(f)
+    # Code order the Java scorer relies on
+    assert categories == {'product': ['A', 'B'], 'weather': ['Sunny']}
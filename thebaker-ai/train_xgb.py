@@ -14,6 +14,7 @@ Design Constraints:
 """
 
 import os
+import json
 import argparse
 import pandas as pd
 import numpy as np
@@ -110,10 +111,29 @@ def predict_xgb(model: xgb.XGBRegressor, X: pd.DataFrame) -> np.ndarray:
     preds = model.predict(X)
     return np.clip(preds, a_min=0, a_max=None)
 
-def save_xgb_model(model: xgb.XGBRegressor, filepath: str) -> None:
-    """Saves the XGBoost model to disk."""
+def save_xgb_model(model: xgb.XGBRegressor, filepath: str, X: Optional[pd.DataFrame] = None) -> None:
+    """
+    Saves the XGBoost model to disk.
+    With the training frame, also writes <name>.categories.json: the category
+    order behind each categorical column's codes, which the Java scorer
+    (TreeForecastService) needs to encode product and weather the same way.
+    """
     os.makedirs(os.path.dirname(filepath), exist_ok=True)
     model.save_model(filepath)
+    if X is not None:
+        save_category_maps(X, filepath)
+
+def save_category_maps(X: pd.DataFrame, filepath: str) -> str:
+    """Writes {column: [categories in code order]} next to the model file."""
+    categories = {
+        col: [str(c) for c in X[col].cat.categories]
+        for col in X.columns
+        if isinstance(X[col].dtype, pd.CategoricalDtype)
+    }
+    path = os.path.splitext(filepath)[0] + ".categories.json"
+    with open(path, "w", encoding="utf-8") as f:
+        json.dump(categories, f, ensure_ascii=False, indent=2)
+    return path
 
 def load_xgb_model(filepath: str) -> xgb.XGBRegressor:
     """Loads an XGBoost model from disk."""
@@ -238,5 +258,5 @@ if __name__ == "__main__":
     
     save_path = f"models/xgb_{args.target}.json"
     print(f"Saving to {save_path}...")
-    save_xgb_model(model, save_path)
+    save_xgb_model(model, save_path, X_train)
     print("Done.")
@@ -0,0 +1,62 @@
+package com.hong.thebaker.service;
+
+import com.hong.thebaker.dto.ForecastGrid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The planning grid from /api/staff/forecast/grid: 7 days x 3 weathers x 30
+ * temperatures over the whole menu, on one thread and on every core.
+ * Run with: ./gradlew jmh -PjmhIncludes=ForecastGridBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ForecastGridBenchmark {
+
+    private static final List<String> WEATHERS = List.of("Sunny", "Rain", "Snow");
+
+    @Param({"1", "0"}) // 0 = one thread per core
+    public int parallelism;
+
+    private ForecastGridService service;
+    private LocalDate from;
+    private ForecastGrid grid;
+
+    @Setup
+    public void setUp() throws Exception {
+        ModelRegistry registry = new ModelRegistry(false, "./build/no-models", 1, 0);
+        registry.start();
+        service = new ForecastGridService(registry, 20000, parallelism);
+        from = PredictionService.forecastDate();
+        grid = service.simulate(from, 7, WEATHERS, 0, 29, 1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    @Benchmark
+    public ForecastGrid simulate() {
+        return service.simulate(from, 7, WEATHERS, 0, 29, 1);
+    }
+
+    // Serialising the same grid, without the network
+    @Benchmark
+    public void writeJson() throws Exception {
+        service.writeJson(grid, OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,70 @@
+package com.hong.thebaker.service;
+
+import com.hong.thebaker.entity.OrderStatus;
+import com.hong.thebaker.event.OrderStatusChangedEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One committed transition fanned out to N open streams, measured until the
+ * last emitter has it. Set against polling: N pages each asking for their
+ * status every few seconds is a steady N / interval status reads, with or
+ * without any change; here the cost is one pass per actual transition.
+ * Emitters only build the event, so this is the broadcaster's own cost,
+ * not the network's.
+ * Run with: ./gradlew jmh -PjmhIncludes=OrderEventFanOutBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrderEventFanOutBenchmark {
+
+    @Param({"100", "1000", "5000"})
+    public int subscribers;
+
+    private OrderEventBroadcaster broadcaster;
+    private volatile CountDownLatch delivered;
+    private long orderId;
+
+    // Stands in for a response stream
+    private final class CountingEmitter extends SseEmitter {
+        @Override
+        public void send(SseEventBuilder builder) {
+            builder.build();
+            CountDownLatch latch = delivered;
+            if (latch != null) latch.countDown();
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        broadcaster = new OrderEventBroadcaster(subscribers, 3_600_000, 3_600_000, 8, 64);
+        for (int i = 0; i < subscribers; i++) {
+            broadcaster.register(new CountingEmitter(), null, null, null);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        broadcaster.stop();
+    }
+
+    @Benchmark
+    public void fanOut() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(subscribers);
+        delivered = latch;
+        broadcaster.onStatusChanged(new OrderStatusChangedEvent(++orderId, OrderStatus.PENDING, OrderStatus.CONFIRMED));
+        latch.await();
+    }
+}
@@ -0,0 +1,135 @@
+package com.hong.thebaker.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scoring the whole menu for the staff page: the old map-based path against
+ * the compiled model, per product and as one batch.
+ * Run with: ./gradlew jmh -PjmhIncludes=PredictionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PredictionBenchmark {
+
+    private static final String WEATHER = "Light Rain";
+    private static final double TEMP = 18.5;
+
+    private PredictionService service;
+    private MapModel mapModel;
+    private List<String> menu;
+    private LocalDate date;
+    private double[] scores;
+
+    @Setup
+    public void setUp() throws Exception {
+        ModelRegistry registry = new ModelRegistry(false, "./build/no-models", 1, 0);
+        registry.start();
+        service = new PredictionService(registry, new TreeForecastService("./build/no-tree.json"),
+                512, 36, 1.0, -10, 35);
+        mapModel = new MapModel();
+        // Names the way the product table has them, one per modelled product
+        menu = new ArrayList<>(List.of(service.model().names));
+        date = PredictionService.forecastDate();
+        scores = new double[service.model().size()];
+    }
+
+    @Benchmark
+    public void mapPerProduct(Blackhole bh) {
+        for (String name : menu) bh.consume(mapModel.getPrediction(name, WEATHER, TEMP));
+    }
+
+    @Benchmark
+    public void compiledPerProduct(Blackhole bh) {
+        for (String name : menu) bh.consume(service.getPrediction(name, WEATHER, TEMP));
+    }
+
+    @Benchmark
+    public List<PredictionService.PredictionResult> compiledBatch() {
+        return service.predictAll(menu, date, WEATHER, TEMP);
+    }
+
+    // What a /staff render costs now: a forecast cache read
+    @Benchmark
+    public List<PredictionService.PredictionResult> cachedForecast() {
+        return service.forecast(menu, date, WEATHER, TEMP);
+    }
+
+    // Just the arithmetic, without building result objects
+    @Benchmark
+    public double[] compiledScoreOnly() {
+        service.model().scoreAll(date.getDayOfWeek().ordinal(), CompiledModel.isRain(WEATHER), TEMP, scores);
+        return scores;
+    }
+
+    // The lookup PredictionService did before the model was compiled, kept here as the baseline
+    static final class MapModel {
+        private final Map<String, Entry> models = new HashMap<>();
+
+        private static final class Entry {
+            double baseBias;
+            Map<String, Double> weights = new HashMap<>();
+            double wasteRisk;
+            double avgMade;
+        }
+
+        MapModel() throws Exception {
+            InputStream is = new ClassPathResource("ml_model.json").getInputStream();
+            JsonNode root = new ObjectMapper().readTree(is);
+            root.fields().forEachRemaining(entry -> {
+                JsonNode data = entry.getValue();
+                Entry model = new Entry();
+                model.baseBias = data.get("base_bias").asDouble();
+                model.wasteRisk = data.has("waste_risk") ? data.get("waste_risk").asDouble() : 0.0;
+                model.avgMade = data.has("avg_made") ? data.get("avg_made").asDouble() : 0.0;
+                data.get("weights").fields().forEachRemaining(w -> model.weights.put(w.getKey(), w.getValue().asDouble()));
+                models.put(entry.getKey().replace(" ", "").trim(), model);
+            });
+        }
+
+        PredictionService.PredictionResult getPrediction(String productName, String weather, double temp) {
+            Entry model = models.get(productName.replace(" ", "").trim());
+            if (model == null) return new PredictionService.PredictionResult(productName, 0, 0, "No Data", 0, 0, 0, 0, 0);
+
+            String dayName = LocalDate.now().plusDays(1).getDayOfWeek().getDisplayName(TextStyle.FULL, Locale.ENGLISH);
+            String dayKey = "day_" + dayName;
+            boolean isRain = weather.toLowerCase().contains("rain") || weather.toLowerCase().contains("snow");
+
+            double dayEffect = model.weights.getOrDefault(dayKey, 0.0);
+            double rainImpact = isRain ? model.weights.getOrDefault("is_rain", 0.0) : 0.0;
+            double tempImpact = temp * model.weights.getOrDefault("temp", 0.0);
+            double predictedSales = model.baseBias + dayEffect + rainImpact + tempImpact;
+            int recommended = (int) Math.max(0, Math.round(predictedSales));
+
+            String status = "";
+            if (dayEffect >= 1.0) status = dayName + " Boost";
+            else if (dayEffect <= -1.0) status = dayName + " Drop";
+            if (rainImpact <= -1.0) status = "Rain Drop";
+            if (temp > 25 && tempImpact >= 1.0) status = "Heat Spike";
+            if (status.isEmpty()) status = "Stable";
+
+            return new PredictionService.PredictionResult(productName, model.baseBias, recommended, status,
+                    dayEffect, rainImpact, tempImpact, model.wasteRisk, model.avgMade);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.hong.thebaker.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tree-model throughput: one product per call, and the whole menu as one batch.
+ * The forest is synthetic but shaped like train_xgb.py's defaults (up to 500
+ * trees of depth 6) over the 12 features the Java side fills in.
+ * Run with: ./gradlew jmh -PjmhIncludes=TreeEnsembleBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TreeEnsembleBenchmark {
+
+    private static final int FEATURES = 12;
+    private static final int DEPTH = 6;
+    private static final int MENU = 58;
+
+    @Param({"100", "500"})
+    public int trees;
+
+    private TreeEnsemble model;
+    private float[] menu;
+    private float[] one;
+    private float[] out;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        model = TreeEnsemble.parse(forest(random));
+        menu = new float[MENU * FEATURES];
+        for (int i = 0; i < menu.length; i++) {
+            // About one value in ten missing, like the history features the app can't fill
+            menu[i] = random.nextInt(10) == 0 ? Float.NaN : random.nextFloat() * 30;
+        }
+        one = new float[FEATURES];
+        System.arraycopy(menu, 0, one, 0, FEATURES);
+        out = new float[MENU];
+    }
+
+    @Benchmark
+    public float oneProduct() {
+        return model.predict(one);
+    }
+
+    @Benchmark
+    public float[] wholeMenu() {
+        model.predictAll(menu, MENU, out);
+        return out;
+    }
+
+    // Full binary trees in save_model layout, node i's children at 2i+1 and 2i+2
+    private ObjectNode forest(Random random) {
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode root = mapper.createObjectNode();
+        ObjectNode learner = root.putObject("learner");
+        ObjectNode params = learner.putObject("learner_model_param");
+        params.put("base_score", "1.2E1");
+        params.put("num_feature", String.valueOf(FEATURES));
+        learner.putObject("objective").put("name", "reg:squarederror");
+
+        ObjectNode booster = learner.putObject("gradient_booster");
+        booster.put("name", "gbtree");
+        ArrayNode treeArray = booster.putObject("model").putArray("trees");
+        int nodes = (1 << (DEPTH + 1)) - 1;
+        int inner = (1 << DEPTH) - 1;
+        for (int t = 0; t < trees; t++) {
+            ObjectNode tree = treeArray.addObject();
+            ArrayNode lefts = tree.putArray("left_children");
+            ArrayNode rights = tree.putArray("right_children");
+            ArrayNode indices = tree.putArray("split_indices");
+            ArrayNode conditions = tree.putArray("split_conditions");
+            ArrayNode defaults = tree.putArray("default_left");
+            for (int i = 0; i < nodes; i++) {
+                boolean leaf = i >= inner;
+                lefts.add(leaf ? -1 : 2 * i + 1);
+                rights.add(leaf ? -1 : 2 * i + 2);
+                indices.add(leaf ? 0 : random.nextInt(FEATURES));
+                conditions.add(leaf ? (random.nextFloat() - 0.5f) * 0.2f : random.nextFloat() * 30);
+                defaults.add(random.nextInt(2));
+            }
+        }
+        return root;
+    }
+}
@@ -27,7 +27,8 @@ public class SecurityConfig {
                         // Public APIs (customer-facing)
                         .requestMatchers("/api/products/**").permitAll()
                         .requestMatchers("/api/shop/**").permitAll()
-                        .requestMatchers("/api/orders", "/api/orders/search", "/api/orders/*/status").permitAll()
+                        .requestMatchers("/api/orders", "/api/orders/search", "/api/orders/*/status", "/api/orders/*/events", "/api/orders/accepted/*", "/api/orders/slots",
+                                "/api/orders/queue/*", "/api/orders/queue/*/events").permitAll()
 
                         // Protected APIs (staff only)
                         .requestMatchers("/api/staff/**").hasRole("STAFF")
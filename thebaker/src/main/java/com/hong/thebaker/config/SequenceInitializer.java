@@ -0,0 +1,42 @@
+package com.hong.thebaker.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Tables that used to be IDENTITY keep their old rows when they move to a pooled
+ * sequence, but ddl-auto creates the sequence starting at 1. Push each sequence
+ * past the highest existing id (plus one allocation block) before the first insert.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SequenceInitializer {
+
+    // sequence name -> table name; allocation size must match the entity's @SequenceGenerator
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "order_item_seq", "order_item",
+            "orders_seq", "orders"
+    );
+    private static final int ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    // Depending on the EntityManagerFactory guarantees the schema update has already run
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void alignSequences() {
+        SEQUENCES.forEach((sequence, table) -> {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            long restartWith = (maxId == null ? 0 : maxId) + ALLOCATION_SIZE + 1;
+            jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + restartWith);
+            log.info("Sequence {} restarted at {}", sequence, restartWith);
+        });
+    }
+}
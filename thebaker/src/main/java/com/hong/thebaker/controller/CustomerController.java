@@ -1,6 +1,6 @@
 package com.hong.thebaker.controller;
 
-import com.hong.thebaker.repository.CustomerRepository;
+import com.hong.thebaker.service.CustomerCache;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -10,16 +10,24 @@ import java.util.Map;
 @RequestMapping("/api/customers")
 public class CustomerController {
 
-    private final CustomerRepository customerRepository;
+    private final CustomerCache customerCache;
 
-    public CustomerController(CustomerRepository customerRepository) {
-        this.customerRepository = customerRepository;
+    public CustomerController(CustomerCache customerCache) {
+        this.customerCache = customerCache;
     }
 
     @GetMapping("/{phone}")
     public ResponseEntity<?> getCustomerPoints(@PathVariable String phone) {
-        return customerRepository.findByPhone(phone)
+        return customerCache.findByPhone(phone)
                 .map(customer -> ResponseEntity.ok((Object) customer))
                 .orElse(ResponseEntity.ok(Map.of("points", 0)));
     }
-}
\ No newline at end of file
+
+    // Membership card scan at the counter
+    @GetMapping("/qr/{code}")
+    public ResponseEntity<?> getCustomerByQrCode(@PathVariable String code) {
+        return customerCache.findByQrCode(code)
+                .map(customer -> ResponseEntity.ok((Object) customer))
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,45 @@
+package com.hong.thebaker.controller;
+
+import com.hong.thebaker.dto.ForecastGrid;
+import com.hong.thebaker.service.ForecastGridService;
+import com.hong.thebaker.service.PredictionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Production planning: recommended quantities over a what-if grid
+@RestController
+@RequestMapping("/api/staff/forecast")
+@RequiredArgsConstructor
+public class ForecastController {
+
+    private final ForecastGridService forecastGridService;
+
+    // e.g. /grid?days=7&weather=Sunny,Rain,Snow&minTemp=0&maxTemp=29 (from defaults to tomorrow)
+    @GetMapping("/grid")
+    public ResponseEntity<StreamingResponseBody> grid(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(defaultValue = "7") int days,
+            @RequestParam(defaultValue = "Sunny,Cloudy,Rain,Snow") List<String> weather,
+            @RequestParam(defaultValue = "0") double minTemp,
+            @RequestParam(defaultValue = "30") double maxTemp,
+            @RequestParam(defaultValue = "1") double step) {
+        // Computed up front so a bad range is a 400, not a broken stream
+        ForecastGrid grid = forecastGridService.simulate(
+                from != null ? from : PredictionService.forecastDate(), days, weather, minTemp, maxTemp, step);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> forecastGridService.writeJson(grid, out));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> badRange(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
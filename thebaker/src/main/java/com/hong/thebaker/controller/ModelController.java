@@ -0,0 +1,43 @@
+package com.hong.thebaker.controller;
+
+import com.hong.thebaker.dto.ModelVersionInfo;
+import com.hong.thebaker.service.ModelRegistry;
+import com.hong.thebaker.service.PredictionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Prediction model versions; new models are picked up from app.model.dir on their own
+@RestController
+@RequestMapping("/api/staff/model")
+@RequiredArgsConstructor
+public class ModelController {
+
+    private final ModelRegistry modelRegistry;
+    private final PredictionService predictionService;
+
+    @GetMapping
+    public Map<String, Object> versions() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("versions", modelRegistry.versions());
+        body.put("lastError", modelRegistry.lastError()); // last rejected file, if any
+        body.put("forecastCache", Map.of("hits", predictionService.forecastCacheHits(),
+                "misses", predictionService.forecastCacheMisses()));
+        return body;
+    }
+
+    // Without a version: back to the model loaded before the current one
+    @PostMapping("/rollback")
+    public ModelVersionInfo rollback(@RequestParam(required = false) String version) {
+        return modelRegistry.rollback(version);
+    }
+
+    @ExceptionHandler(ModelRegistry.UnknownVersionException.class)
+    public ResponseEntity<String> unknownVersion(ModelRegistry.UnknownVersionException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+    }
+}
@@ -1,14 +1,33 @@
 package com.hong.thebaker.controller;
 
+import com.hong.thebaker.dto.IngestionStats;
+import com.hong.thebaker.dto.OrderFilter;
+import com.hong.thebaker.dto.OrderPage;
 import com.hong.thebaker.dto.OrderRequest;
-import com.hong.thebaker.entity.Order;
+import com.hong.thebaker.dto.OrderSummary;
+import com.hong.thebaker.dto.OrderTicket;
+import com.hong.thebaker.dto.QueuePosition;
+import com.hong.thebaker.dto.SlotAvailability;
+import com.hong.thebaker.entity.OrderStatus;
+import com.hong.thebaker.service.AdmissionService;
+import com.hong.thebaker.service.IdempotencyService;
+import com.hong.thebaker.service.OrderEventBroadcaster;
+import com.hong.thebaker.service.OrderIngestionService;
 import com.hong.thebaker.service.OrderService;
+import com.hong.thebaker.service.PickupSlotService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @Slf4j
@@ -18,16 +37,74 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderIngestionService orderIngestionService;
+    private final OrderEventBroadcaster orderEventBroadcaster;
+    private final IdempotencyService idempotencyService;
+    private final PickupSlotService pickupSlotService;
+    private final AdmissionService admissionService;
 
+    // Admission first (rate, concurrency, waiting room); a retry with the same Idempotency-Key
+    // gets the first response back instead of a second order
     @PostMapping
-    public Order createOrder(@Valid @RequestBody OrderRequest request) {
+    public ResponseEntity<?> createOrder(@Valid @RequestBody OrderRequest request,
+                                         @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                         @RequestHeader(value = AdmissionService.TICKET_HEADER, required = false) String queueTicket,
+                                         HttpServletRequest http) {
+        return admissionService.admit(AdmissionService.clientOf(http), queueTicket,
+                () -> idempotencyService.execute("orders", idempotencyKey, () -> placeOrder(request)));
+    }
+
+    // Place in the waiting room; once ADMITTED, send the order again with the ticket header
+    @GetMapping("/queue/{ticket}")
+    public QueuePosition getQueuePosition(@PathVariable String ticket) {
+        return admissionService.status(ticket);
+    }
+
+    @GetMapping(value = "/queue/{ticket}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamQueuePosition(@PathVariable String ticket) {
+        return admissionService.subscribe(ticket);
+    }
+
+    private ResponseEntity<?> placeOrder(OrderRequest request) {
         log.info("Creating order for phone: {}", request.getPhoneNumber());
-        return orderService.createOrder(request);
+        if (orderIngestionService.isEnabled()) {
+            // Write-behind mode: 202 + ticket now, the order row lands with the next group commit
+            try {
+                return ResponseEntity.accepted().body(orderIngestionService.accept(request));
+            } catch (OrderIngestionService.QueueFullException e) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body(e.getMessage());
+            }
+        }
+        return ResponseEntity.ok(orderService.createOrder(request));
     }
 
+    // Pickup slots with places left; served from memory once the day's counters are seeded
+    @GetMapping("/slots")
+    public List<SlotAvailability> getPickupSlots(@RequestParam(required = false)
+                                                 @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return pickupSlotService.availability(date != null ? date : PickupSlotService.today());
+    }
+
+    @GetMapping("/accepted/{ticket}")
+    public ResponseEntity<OrderTicket> getAcceptedOrder(@PathVariable String ticket) {
+        return ResponseEntity.ok(orderIngestionService.getTicket(ticket));
+    }
+
+    @GetMapping("/ingestion-stats")
+    public ResponseEntity<IngestionStats> getIngestionStats() {
+        return ResponseEntity.ok(orderIngestionService.getStats());
+    }
+
+    // Staff board: newest first, keyset-paginated; dates are inclusive days
     @GetMapping
-    public List<Order> getAllOrders() {
-        return orderService.getAllOrders();
+    public OrderPage getOrders(@RequestParam(required = false) OrderStatus status,
+                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                               @RequestParam(required = false) String cursor,
+                               @RequestParam(defaultValue = "50") int limit) {
+        return orderService.getOrders(OrderFilter.of(status, from, to, null), cursor, limit);
     }
 
     @PutMapping("/{id}/archive")
@@ -50,7 +127,7 @@ public class OrderController {
     }
 
     @GetMapping("/search")
-    public List<Order> findMyOrders(@RequestParam String phone) {
+    public List<OrderSummary> findMyOrders(@RequestParam String phone) {
         return orderService.findMyOrders(phone);
     }
 
@@ -77,4 +154,60 @@ public class OrderController {
     public ResponseEntity<String> getOrderStatus(@PathVariable Long id) {
         return ResponseEntity.ok(orderService.getOrderStatus(id));
     }
+
+    // SSE: current status first, then every transition of this order
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrderStatus(@PathVariable Long id,
+                                        @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return orderEventBroadcaster.subscribeOrder(id, parseEventId(lastEventId), () -> orderService.getOrderStatus(id));
+    }
+
+    // SSE for the staff dashboard: every order transition
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAllOrders(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return orderEventBroadcaster.subscribeStaff(parseEventId(lastEventId));
+    }
+
+    // EventSource gives up on 503; the pages fall back to polling
+    @ExceptionHandler(OrderEventBroadcaster.TooManySubscribersException.class)
+    public ResponseEntity<String> tooManySubscribers(OrderEventBroadcaster.TooManySubscribersException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "30")
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(AdmissionService.RateLimitedException.class)
+    public ResponseEntity<String> rateLimited(AdmissionService.RateLimitedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(AdmissionService.WaitingRoomFullException.class)
+    public ResponseEntity<String> waitingRoomFull(AdmissionService.WaitingRoomFullException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "10")
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(e.getMessage());
+    }
+
+    // A duplicate of a request that is still running and didn't finish in time
+    @ExceptionHandler(IdempotencyService.KeyInUseException.class)
+    public ResponseEntity<String> keyInUse(IdempotencyService.KeyInUseException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(e.getMessage());
+    }
+
+    private static Long parseEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) return null;
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
 }
@@ -1,19 +1,31 @@
 package com.hong.thebaker.controller;
 
+import com.hong.thebaker.dto.BulkPaymentRequest;
+import com.hong.thebaker.dto.BulkPaymentResult;
 import com.hong.thebaker.dto.PaymentRequest;
 import com.hong.thebaker.entity.Customer;
 import com.hong.thebaker.entity.Order;
 import com.hong.thebaker.entity.OrderStatus;
+import com.hong.thebaker.entity.PointReason;
+import com.hong.thebaker.event.OrderStatusChangedEvent;
 import com.hong.thebaker.repository.CustomerRepository;
 import com.hong.thebaker.repository.OrderRepository;
+import com.hong.thebaker.service.CustomerCache;
+import com.hong.thebaker.service.IdempotencyService;
+import com.hong.thebaker.service.PointLedger;
+import com.hong.thebaker.service.PosPaymentService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Slf4j
 @RestController
@@ -23,16 +35,30 @@ public class PointController {
 
     private final CustomerRepository customerRepo;
     private final OrderRepository orderRepo;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CustomerCache customerCache;
+    private final PointLedger pointLedger;
+    private final PosPaymentService posPaymentService;
+    private final IdempotencyService idempotencyService;
+    private final TransactionTemplate transactionTemplate;
 
+    // Runs in one transaction (the order row and its ledger entries commit together); a retry with
+    // the same Idempotency-Key gets the first response back
     @PostMapping("/pay")
-    public ResponseEntity<?> processPayment(@Valid @RequestBody PaymentRequest request) {
+    public ResponseEntity<?> processPayment(@Valid @RequestBody PaymentRequest request,
+                                            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("points-pay", idempotencyKey,
+                () -> transactionTemplate.execute(status -> pay(request)));
+    }
+
+    private ResponseEntity<?> pay(PaymentRequest request) {
         log.info("Processing payment for phone: {}", request.getPhoneNumber());
 
         String phone = request.getPhoneNumber();
         BigDecimal totalAmount = request.getTotalAmount();
         int pointsToUse = request.getPointsToUse();
 
-        Customer customer = customerRepo.findByPhone(phone)
+        Customer customer = customerCache.loadByPhone(phone)
                 .orElseGet(() -> {
                     Customer newCustomer = new Customer();
                     String lastFour = phone.length() > 4 ? phone.substring(phone.length() - 4) : phone;
@@ -56,10 +82,6 @@ public class PointController {
 
         int pointsToAdd = request.getPaymentMethod().calculatePoints(realPaidAmount);
 
-        int newBalance = customer.getPoints() - pointsToUse + pointsToAdd;
-        customer.setPoints(newBalance);
-        customerRepo.save(customer);
-
         Order order = new Order();
         order.setCustomer(customer);
         order.setOrderDate(LocalDateTime.now());
@@ -68,6 +90,10 @@ public class PointController {
         order.setPointsEarned(pointsToAdd);
         order.setStatus(OrderStatus.COMPLETED);
         orderRepo.save(order);
+        // The check above read a snapshot; this guarded update is what actually decides
+        pointLedger.settle(customer, pointsToUse, pointsToAdd, PointReason.EARN, order.getId());
+        int newBalance = pointLedger.balance(customer.getId());
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(order.getId(), null, OrderStatus.COMPLETED));
 
         log.info("Payment completed for {}: used {}P, earned {}P, balance {}P",
                 phone, pointsToUse, pointsToAdd, newBalance);
@@ -75,4 +101,22 @@ public class PointController {
         return ResponseEntity.ok(String.format("사용: %dP | 적립: %dP | 잔액: %dP",
                 pointsToUse, pointsToAdd, newBalance));
     }
-}
+
+    // Offline backlog from the counter tablet; safe to replay, results come back in request order
+    @PostMapping("/pay/bulk")
+    public List<BulkPaymentResult> importPayments(@Valid @RequestBody BulkPaymentRequest request) {
+        log.info("Importing {} POS payments", request.getPayments().size());
+        return posPaymentService.importPayments(request.getPayments());
+    }
+
+    // A concurrent payment spent the points first; the transaction has rolled back
+    @ExceptionHandler(PointLedger.InsufficientPointsException.class)
+    public ResponseEntity<?> insufficientPoints(PointLedger.InsufficientPointsException e) {
+        return ResponseEntity.badRequest().body("포인트 부족! (보유: " + e.getAvailable() + "P)");
+    }
+
+    @ExceptionHandler(IdempotencyService.KeyInUseException.class)
+    public ResponseEntity<?> keyInUse(IdempotencyService.KeyInUseException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+}
\ No newline at end of file
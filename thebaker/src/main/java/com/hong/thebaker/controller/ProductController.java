@@ -1,21 +1,27 @@
 package com.hong.thebaker.controller;
 
+import com.hong.thebaker.dto.DayAvailability;
+import com.hong.thebaker.entity.ImageStatus;
 import com.hong.thebaker.entity.Product;
+import com.hong.thebaker.event.ProductChangedEvent;
 import com.hong.thebaker.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-import com.hong.thebaker.service.CloudinaryService;
+import com.hong.thebaker.service.ImageUploadService;
+import com.hong.thebaker.service.MenuSnapshotService;
+import com.hong.thebaker.service.StockCalendar;
+import com.hong.thebaker.service.StockLedger;
 
 import java.math.BigDecimal;
-import java.time.DayOfWeek;
+import java.nio.file.Path;
 import java.time.LocalDate;
-import java.util.Base64;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Slf4j
 @RestController
@@ -24,11 +30,14 @@ import java.util.stream.Collectors;
 public class ProductController {
 
     private final ProductRepository productRepository;
+    private final StockLedger stockLedger;
+    private final StockCalendar stockCalendar;
+    private final ImageUploadService imageUploadService;
+    private final MenuSnapshotService menuSnapshotService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @GetMapping
-    public List<Product> getMenuByDate(@RequestParam(required = false) String date) {
-        List<Product> allProducts = productRepository.findAll();
-
+    public ResponseEntity<byte[]> getMenuByDate(@RequestParam(required = false) String date) {
         LocalDate targetDate;
         if (date == null || date.isEmpty()) {
             targetDate = LocalDate.now();
@@ -41,33 +50,19 @@ public class ProductController {
             }
         }
 
-        DayOfWeek dayOfWeek = targetDate.getDayOfWeek();
-
-        return allProducts.stream()
-                .filter(product -> isAvailableOnDay(product, dayOfWeek))
-                .collect(Collectors.toList());
+        // Spring answers If-None-Match with 304 when the ETag matches
+        MenuSnapshotService.MenuSnapshot snapshot = menuSnapshotService.get(targetDate.getDayOfWeek());
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .eTag(snapshot.getEtag())
+                .body(snapshot.getJson());
     }
 
-    private boolean isAvailableOnDay(Product product, DayOfWeek day) {
-        String type = product.getCategory();
-
-        if (type == null || type.equals("ALL")) return true;
-
-        // HARD BREAD: Thu, Fri, Sat
-        if (type.equals("HARD")) {
-            return day == DayOfWeek.THURSDAY ||
-                    day == DayOfWeek.FRIDAY ||
-                    day == DayOfWeek.SATURDAY;
-        }
-
-        // SOFT BREAD: Sun, Mon, Wed
-        if (type.equals("SOFT")) {
-            return day == DayOfWeek.SUNDAY ||
-                    day == DayOfWeek.MONDAY ||
-                    day == DayOfWeek.WEDNESDAY;
-        }
-
-        return false;
+    // Units still orderable per product for today and the following days; read from memory
+    @GetMapping("/availability")
+    public List<DayAvailability> getAvailability(@RequestParam(defaultValue = "7") int days) {
+        return stockCalendar.availability(days);
     }
 
     @PostMapping
@@ -76,6 +71,7 @@ public class ProductController {
             @RequestParam("price") BigDecimal price,
             @RequestParam("category") String category,
             @RequestParam("stockQuantity") int stockQuantity,
+            @RequestParam(value = "dailyStock", required = false) Integer dailyStock,
             @RequestParam(value = "image", required = false) MultipartFile imageFile
     ) {
         log.info("Creating product: {}", name);
@@ -85,20 +81,19 @@ public class ProductController {
             product.setPrice(price);
             product.setCategory(category);
             product.setStockQuantity(stockQuantity);
-
-            if (imageFile != null && !imageFile.isEmpty()) {
-                String base64Image = Base64.getEncoder().encodeToString(imageFile.getBytes());
-                product.setImageBase64("data:image/jpeg;base64," + base64Image);
-            }
-
-            return ResponseEntity.ok(productRepository.save(product));
+            product.setDailyStock(dailyStock);
+
+            Path image = spoolImage(product, imageFile);
+            Product saved = productRepository.save(product);
+            if (image != null) imageUploadService.submit(saved.getId(), image);
+            stockLedger.seed(saved.getId(), saved.getStockQuantity());
+            eventPublisher.publishEvent(new ProductChangedEvent(saved.getId()));
+            return ResponseEntity.ok(saved);
         } catch (Exception e) {
             log.error("Failed to create product: {}", e.getMessage());
             return ResponseEntity.internalServerError().build();
         }
     }
-    @Autowired
-    private CloudinaryService cloudinaryService;
 
     @PutMapping("/{id}")
     public ResponseEntity<Product> updateProduct(
@@ -107,6 +102,7 @@ public class ProductController {
             @RequestParam("price") BigDecimal price,
             @RequestParam("category") String category,
             @RequestParam("stockQuantity") int stockQuantity,
+            @RequestParam(value = "dailyStock", required = false) Integer dailyStock,
             @RequestParam(value = "image", required = false) MultipartFile imageFile
     ) {
         log.info("Updating product: {}", id);
@@ -115,28 +111,31 @@ public class ProductController {
             product.setPrice(price);
             product.setCategory(category);
             product.setStockQuantity(stockQuantity);
-
-            if (imageFile != null && !imageFile.isEmpty()) {
-                try {
-                    // 1. Upload to Cloudinary (Get the short URL)
-                    String imageUrl = cloudinaryService.uploadFile(imageFile);
-                    // 2. Save the URL to the new column
-                    product.setImageUrl(imageUrl);
-                    // 3. Set the heavy Blob to NULL (This stops the billing bloat!)
-                    product.setImageBase64(null);
-                } catch (Exception e) {
-                    log.error("Failed to process ima    ge for product {}: {}", id, e.getMessage());
-                    throw new RuntimeException("Image upload failed");
-                }
-            }
-            return ResponseEntity.ok(productRepository.save(product));
+            // Older admin forms don't send it; leave the plan alone then
+            if (dailyStock != null) product.setDailyStock(dailyStock);
+
+            // The upload finishes in the background; until then the old image keeps showing
+            Path image = spoolImage(product, imageFile);
+            Product saved = productRepository.save(product);
+            if (image != null) imageUploadService.submit(id, image);
+            stockLedger.reset(id, stockQuantity);
+            eventPublisher.publishEvent(new ProductChangedEvent(id));
+            return ResponseEntity.ok(saved);
         }).orElse(ResponseEntity.notFound().build());
     }
 
+    private Path spoolImage(Product product, MultipartFile imageFile) {
+        if (imageFile == null || imageFile.isEmpty()) return null;
+        product.setImageStatus(ImageStatus.PENDING);
+        return imageUploadService.spool(imageFile);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
         log.info("Deleting product: {}", id);
         productRepository.deleteById(id);
+        stockLedger.evict(id);
+        eventPublisher.publishEvent(new ProductChangedEvent(id));
         return ResponseEntity.ok().build();
     }
 }
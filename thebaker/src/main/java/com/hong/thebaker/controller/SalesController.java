@@ -1,8 +1,10 @@
 package com.hong.thebaker.controller;
 
 import com.hong.thebaker.entity.Product;
+import com.hong.thebaker.event.ProductChangedEvent;
 import com.hong.thebaker.repository.ProductRepository;
 import com.hong.thebaker.service.PredictionService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
@@ -15,11 +17,14 @@ public class SalesController {
 
     private final ProductRepository productRepo;
     private final PredictionService predictionService;
+    private final ApplicationEventPublisher eventPublisher;
 
     // Inject the AI Service and Database
-    public SalesController(ProductRepository productRepo, PredictionService predictionService) {
+    public SalesController(ProductRepository productRepo, PredictionService predictionService,
+                           ApplicationEventPublisher eventPublisher) {
         this.productRepo = productRepo;
         this.predictionService = predictionService;
+        this.eventPublisher = eventPublisher;
     }
 
 
@@ -43,6 +48,7 @@ public class SalesController {
         // We don't update image/stock here to keep it simple
 
         productRepo.save(existing);
+        eventPublisher.publishEvent(new ProductChangedEvent(id));
         return "redirect:/staff"; // Go back to dashboard
     }
 }
\ No newline at end of file
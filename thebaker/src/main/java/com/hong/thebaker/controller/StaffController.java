@@ -1,29 +1,49 @@
 package com.hong.thebaker.controller;
 
 import com.hong.thebaker.dto.AddPointsRequest;
+import com.hong.thebaker.dto.OrderFilter;
+import com.hong.thebaker.dto.OrderLogEvent;
+import com.hong.thebaker.dto.OrderPage;
+import com.hong.thebaker.dto.OrderSummary;
+import com.hong.thebaker.dto.PointHistoryEntry;
 import com.hong.thebaker.dto.ShopStatusRequest;
 import com.hong.thebaker.dto.StockUpdateRequest;
 import com.hong.thebaker.entity.Customer;
 import com.hong.thebaker.entity.Order;
 import com.hong.thebaker.entity.OrderStatus;
+import com.hong.thebaker.entity.PointReason;
+import com.hong.thebaker.event.OrderStatusChangedEvent;
 import com.hong.thebaker.repository.CustomerRepository;
 import com.hong.thebaker.repository.OrderRepository;
 import com.hong.thebaker.repository.ProductRepository;
+import com.hong.thebaker.service.CustomerCache;
+import com.hong.thebaker.service.ImageMigrationJob;
+import com.hong.thebaker.service.OrderActivityProjection;
+import com.hong.thebaker.service.OrderEventLog;
+import com.hong.thebaker.service.OrderService;
+import com.hong.thebaker.service.PickupSlotService;
+import com.hong.thebaker.service.PinnedThreadMonitor;
+import com.hong.thebaker.service.PointLedger;
+import com.hong.thebaker.service.StockCalendar;
+import com.hong.thebaker.service.StockLedger;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
 import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Slf4j
 @RestController
@@ -34,6 +54,17 @@ public class StaffController {
     private final CustomerRepository customerRepo;
     private final OrderRepository orderRepo;
     private final ProductRepository productRepo;
+    private final StockLedger stockLedger;
+    private final StockCalendar stockCalendar;
+    private final ImageMigrationJob imageMigrationJob;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OrderService orderService;
+    private final CustomerCache customerCache;
+    private final PointLedger pointLedger;
+    private final PickupSlotService pickupSlotService;
+    private final PinnedThreadMonitor pinnedThreadMonitor;
+    private final OrderEventLog orderEventLog;
+    private final OrderActivityProjection orderActivityProjection;
 
     // Shop configuration (in production, this should be in database)
     private static final LocalTime OPEN_TIME = LocalTime.of(9, 0);
@@ -80,18 +111,21 @@ public class StaffController {
     }
 
     @GetMapping("/search")
-    public List<Order> findMyOrders(@RequestParam(required = false) String phone) {
-        if (phone != null && !phone.isEmpty()) {
-            return orderRepo.findByCustomerPhoneOrderByOrderDateDesc(phone);
-        }
-        return orderRepo.findAll(Sort.by(Sort.Direction.DESC, "orderDate"));
+    public OrderPage findMyOrders(@RequestParam(required = false) String phone,
+                                  @RequestParam(required = false) OrderStatus status,
+                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                  @RequestParam(required = false) String cursor,
+                                  @RequestParam(defaultValue = "50") int limit) {
+        return orderService.getOrders(OrderFilter.of(status, from, to, phone), cursor, limit);
     }
 
+    @Transactional
     @PostMapping("/points")
     public ResponseEntity<?> addPointsManually(@Valid @RequestBody AddPointsRequest request) {
         log.info("Adding points manually for phone: {}", request.getPhoneNumber());
 
-        Customer customer = customerRepo.findByPhone(request.getPhoneNumber()).orElseGet(() -> {
+        Customer customer = customerCache.loadByPhone(request.getPhoneNumber()).orElseGet(() -> {
             Customer newCustomer = new Customer();
             newCustomer.setName("Walk-in " + request.getPhoneNumber());
             newCustomer.setPhone(request.getPhoneNumber());
@@ -108,14 +142,15 @@ public class StaffController {
         int pointsToAdd = request.getAmount().multiply(BigDecimal.valueOf(0.05)).intValue();
         order.setPointsEarned(pointsToAdd);
 
-        customer.setPoints(customer.getPoints() + pointsToAdd);
-        customerRepo.save(customer);
         orderRepo.save(order);
+        pointLedger.earn(customer, pointsToAdd, PointReason.MANUAL, order.getId());
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(order.getId(), null, OrderStatus.COMPLETED));
+        int balance = pointLedger.balance(customer.getId());
 
         log.info("Points added for {}: {} points, new balance: {}",
-                request.getPhoneNumber(), pointsToAdd, customer.getPoints());
+                request.getPhoneNumber(), pointsToAdd, balance);
 
-        return ResponseEntity.ok(Map.of("message", "Points Added", "currentPoints", customer.getPoints()));
+        return ResponseEntity.ok(Map.of("message", "Points Added", "currentPoints", balance));
     }
 
     @PostMapping("/stock")
@@ -123,27 +158,72 @@ public class StaffController {
         log.info("Updating stock for product {}: quantity {}", request.getProductId(), request.getQuantity());
 
         return productRepo.findById(request.getProductId()).map(product -> {
+            if (stockCalendar.isFuture(request.getDate())) {
+                stockCalendar.set(product.getId(), request.getDate(), request.getQuantity());
+                return ResponseEntity.ok(Map.of("message", "Stock planned for " + request.getDate()));
+            }
             product.setStockQuantity(request.getQuantity());
             productRepo.save(product);
+            stockLedger.reset(product.getId(), request.getQuantity());
             return ResponseEntity.ok(Map.of("message", "Stock updated"));
         }).orElse(ResponseEntity.badRequest().body(Map.of("error", "Product not found")));
     }
 
+    @PostMapping("/images/migrate")
+    public ResponseEntity<?> migrateImages() {
+        int migrated = imageMigrationJob.migrate();
+        return ResponseEntity.ok(Map.of("migrated", migrated));
+    }
+
+    // Tail of the order event log for dashboards and exports: pass the last sequence seen as `after`;
+    // waitSeconds > 0 long-polls until something new is appended
+    @GetMapping("/order-log")
+    public List<OrderLogEvent> readOrderLog(@RequestParam(defaultValue = "0") long after,
+                                            @RequestParam(defaultValue = "500") int limit,
+                                            @RequestParam(defaultValue = "0") int waitSeconds) throws InterruptedException {
+        int size = Math.max(1, Math.min(limit, 5000));
+        return orderEventLog.poll(after, size, Duration.ofSeconds(Math.max(0, Math.min(waitSeconds, 25))));
+    }
+
+    @GetMapping("/order-log/activity")
+    public Map<LocalDate, Map<OrderStatus, Long>> orderActivity(@RequestParam(defaultValue = "7") int days) {
+        return orderActivityProjection.lastDays(days);
+    }
+
+    // Virtual-thread mode: where threads got pinned to a carrier, per call site
+    @GetMapping("/diagnostics/pinned-threads")
+    public ResponseEntity<?> pinnedThreads() {
+        return ResponseEntity.ok(Map.of(
+                "jdk", Runtime.version().toString(),
+                "monitoring", pinnedThreadMonitor.isRunning(),
+                "pinned", pinnedThreadMonitor.counts()));
+    }
+
     @GetMapping("/history")
-    public List<Order> getStaffHistory(@RequestParam String phone) {
-        return orderRepo.findByCustomerPhoneOrderByOrderDateDesc(phone);
+    public List<OrderSummary> getStaffHistory(@RequestParam String phone) {
+        return orderService.findMyOrders(phone);
+    }
+
+    // Places per day for one pickup slot (index = half-hours since midnight); 0 stops taking reservations for it
+    @PutMapping("/pickup-slots/{slot}")
+    public ResponseEntity<?> updatePickupSlot(@PathVariable int slot, @RequestParam int capacity) {
+        log.info("Setting pickup slot {} capacity to {}", slot, capacity);
+        return ResponseEntity.ok(pickupSlotService.setCapacity(slot, capacity));
     }
 
+    @Transactional
     @PostMapping("/orders/{id}/revert")
     public ResponseEntity<?> revertMistake(@PathVariable Long id) {
         log.info("Reverting order: {}", id);
 
         return orderRepo.findById(id).map(order -> {
             Customer customer = order.getCustomer();
-            customer.setPoints(Math.max(0, customer.getPoints() - order.getPointsEarned()));
-            customerRepo.save(customer);
+            pointLedger.clawBack(customer, id, order.getPointsEarned());
+            OrderStatus previous = order.getStatus();
             order.setStatus(OrderStatus.CANCELLED);
             orderRepo.save(order);
+            if (previous != OrderStatus.CANCELLED) pickupSlotService.releaseAfterCommit(order);
+            eventPublisher.publishEvent(new OrderStatusChangedEvent(id, previous, OrderStatus.CANCELLED));
 
             log.info("Order {} reverted, customer {} points adjusted", id, customer.getPhone());
             return ResponseEntity.ok(Map.of("message", "Reverted"));
@@ -152,18 +232,10 @@ public class StaffController {
 
     @GetMapping("/customer/my-points")
     public ResponseEntity<?> getCustomerPoints(@RequestParam String phone) {
-        return customerRepo.findByPhone(phone).map(customer -> {
-            List<Map<String, Object>> history = orderRepo.findByCustomerPhoneOrderByOrderDateDesc(phone)
-                    .stream()
-                    .filter(o -> o.getStatus() != OrderStatus.CANCELLED)
-                    .limit(5)
-                    .map(o -> {
-                        Map<String, Object> map = new HashMap<>();
-                        map.put("date", o.getOrderDate());
-                        map.put("points", o.getPointsEarned());
-                        map.put("used", o.getPointsUsed());
-                        return map;
-                    }).collect(Collectors.toList());
+        // Unknown numbers are answered from the cache without touching either table
+        return customerCache.findByPhone(phone).map(customer -> {
+            // Filter and top-5 happen in SQL
+            List<PointHistoryEntry> history = orderRepo.findPointHistory(phone, OrderStatus.CANCELLED, Limit.of(5));
 
             return ResponseEntity.ok(Map.of("totalPoints", customer.getPoints(), "history", history));
         }).orElse(ResponseEntity.badRequest().body(Map.of("error", "Customer not found")));
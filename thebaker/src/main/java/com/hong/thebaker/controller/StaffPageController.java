@@ -9,7 +9,6 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Controller
 public class StaffPageController {
@@ -32,10 +31,10 @@ public class StaffPageController {
         // 3. FETCH REAL PRODUCTS FROM DB
         List<Product> products = productRepo.findAll();
 
-        // 4. PREDICT FOR EACH REAL PRODUCT
-        List<PredictionService.PredictionResult> report = products.stream()
-                .map(product -> predictionService.getPrediction(product.getName(), weather, temp))
-                .collect(Collectors.toList());
+        // 4. PREDICT FOR EACH REAL PRODUCT (linear + XGBoost, served from the forecast cache)
+        List<String> names = products.stream().map(Product::getName).toList();
+        List<PredictionService.PredictionResult> report = predictionService.forecast(
+                names, PredictionService.forecastDate(), weather, temp);
 
         model.addAttribute("report", report);
 
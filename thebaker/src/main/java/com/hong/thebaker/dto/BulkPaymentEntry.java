@@ -0,0 +1,15 @@
+package com.hong.thebaker.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+// One payment replayed by the counter tablet; the key makes a second replay a no-op
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class BulkPaymentEntry extends PaymentRequest {
+    @NotBlank(message = "Idempotency key is required")
+    @Size(max = 64, message = "Idempotency key is too long")
+    private String idempotencyKey;
+}
@@ -0,0 +1,15 @@
+package com.hong.thebaker.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkPaymentRequest {
+    @NotEmpty(message = "No payments to import")
+    @Size(max = 500, message = "At most 500 payments per import")
+    private List<@Valid BulkPaymentEntry> payments;
+}
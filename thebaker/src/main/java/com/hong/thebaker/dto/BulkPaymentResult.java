@@ -0,0 +1,18 @@
+package com.hong.thebaker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkPaymentResult {
+    private String idempotencyKey;
+    private String status; // APPLIED, DUPLICATE or REJECTED
+    private Long orderId;
+    private int pointsUsed;
+    private int pointsEarned;
+    private Integer balance; // after this entry; null unless APPLIED
+    private String error;
+}
@@ -0,0 +1,16 @@
+package com.hong.thebaker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// What a phone / QR lookup needs, without the orders relationship
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerSnapshot {
+    private Long id;
+    private String name;
+    private String phone;
+    private int points;
+}
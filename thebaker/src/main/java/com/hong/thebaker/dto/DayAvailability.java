@@ -0,0 +1,17 @@
+package com.hong.thebaker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+// Units still orderable per product id for one pickup date; products not sold that day are left out
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DayAvailability {
+    private LocalDate date;
+    private Map<Long, Integer> available;
+}
@@ -0,0 +1,29 @@
+package com.hong.thebaker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Recommended quantities for every product over dates x weathers x temperatures.
+ * Scenario s = (date * weathers + weather) * temps + temp; its quantities sit at
+ * recommended[s * products.size() ..] in product order.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ForecastGrid {
+    private String modelVersion;
+    private List<String> products;
+    private List<LocalDate> dates;
+    private List<String> weathers;
+    private double[] temps;
+    private int[] recommended;
+
+    public int scenarioCount() {
+        return dates.size() * weathers.size() * temps.length;
+    }
+}
@@ -0,0 +1,19 @@
+package com.hong.thebaker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestionStats {
+    private int queueDepth;
+    private long acceptedOrders;
+    private long rejectedOrders;
+    private long commits;
+    private double avgBatchSize;
+    private long maxBatchSize;
+    private double avgCommitMillis;
+    private double maxCommitMillis;
+}
@@ -0,0 +1,19 @@
+package com.hong.thebaker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// A prediction model the registry has loaded, for GET /api/staff/model
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ModelVersionInfo {
+    private String version; // first 12 hex chars of the file's SHA-256
+    private String source;
+    private int products;
+    private LocalDateTime loadedAt;
+    private boolean active;
+}
@@ -0,0 +1,28 @@
+package com.hong.thebaker.dto;
+
+import com.hong.thebaker.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Optional filters for order listings; null means "any"
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderFilter {
+    private OrderStatus status;
+    private LocalDateTime from; // inclusive
+    private LocalDateTime to;   // exclusive
+    private String phone;
+
+    // Request params are whole days; "to" includes that day
+    public static OrderFilter of(OrderStatus status, LocalDate from, LocalDate to, String phone) {
+        return new OrderFilter(status,
+                from == null ? null : from.atStartOfDay(),
+                to == null ? null : to.plusDays(1).atStartOfDay(),
+                phone == null || phone.isEmpty() ? null : phone);
+    }
+}
@@ -0,0 +1,16 @@
+package com.hong.thebaker.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderLine {
+    @JsonIgnore
+    private Long orderId;
+    private String productName;
+    private int quantity;
+}
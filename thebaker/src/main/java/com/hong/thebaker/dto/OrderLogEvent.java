@@ -0,0 +1,18 @@
+package com.hong.thebaker.dto;
+
+import com.hong.thebaker.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One committed order transition as read back from the order event log
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderLogEvent {
+    private long sequence;
+    private long orderId;
+    private long timestamp; // epoch millis at commit
+    private OrderStatus previousStatus; // null for a new order
+    private OrderStatus status;
+}
@@ -0,0 +1,16 @@
+package com.hong.thebaker.dto;
+
+import com.hong.thebaker.entity.Order;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPage {
+    private List<Order> orders;
+    private String nextCursor; // pass back as ?cursor= for the next page; null on the last one
+}
@@ -6,6 +6,7 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.*;
 import lombok.Data;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @Data
@@ -30,6 +31,7 @@ public class OrderRequest {
     private int pointsToUse;
 
     private String pickupTime;
+    private LocalDate pickupDate; // Defaults to today (Seoul)
     private PaymentMethod paymentMethod;
 
     @JsonProperty("Takeaway")
@@ -0,0 +1,35 @@
+package com.hong.thebaker.dto;
+
+import com.hong.thebaker.entity.OrderStatus;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Order as the customer history screens show it, built by JPQL constructor expression
+@Data
+@NoArgsConstructor
+public class OrderSummary {
+    private Long id;
+    private LocalDateTime orderDate;
+    private OrderStatus status;
+    private BigDecimal totalAmount;
+    private String pickupTime;
+    private int pointsEarned;
+    private int pointsUsed;
+    private List<OrderLine> items = new ArrayList<>();
+
+    public OrderSummary(Long id, LocalDateTime orderDate, OrderStatus status, BigDecimal totalAmount,
+                        String pickupTime, int pointsEarned, int pointsUsed) {
+        this.id = id;
+        this.orderDate = orderDate;
+        this.status = status;
+        this.totalAmount = totalAmount;
+        this.pickupTime = pickupTime;
+        this.pointsEarned = pointsEarned;
+        this.pointsUsed = pointsUsed;
+    }
+}
@@ -0,0 +1,15 @@
+package com.hong.thebaker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderTicket {
+    private String ticket;
+    private String status; // QUEUED, COMMITTED, REJECTED, UNKNOWN
+    private Long orderId;
+    private String message;
+}
@@ -0,0 +1,16 @@
+package com.hong.thebaker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PointHistoryEntry {
+    private LocalDateTime date;
+    private int points;
+    private int used;
+}
@@ -0,0 +1,15 @@
+package com.hong.thebaker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueuePosition {
+    private String ticket;
+    private String status; // WAITING, ADMITTED, UNKNOWN
+    private int position; // 0 once admitted; approximate when people ahead leave the line
+    private int estimatedWaitSeconds;
+}
@@ -0,0 +1,16 @@
+package com.hong.thebaker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotAvailability {
+    private int slot;
+    private String label;
+    private int capacity;
+    private int remaining;
+    private boolean past; // Today's slots that have already started
+}
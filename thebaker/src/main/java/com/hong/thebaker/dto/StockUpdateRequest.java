@@ -3,6 +3,8 @@ package com.hong.thebaker.dto;
 import jakarta.validation.constraints.*;
 import lombok.Data;
 
+import java.time.LocalDate;
+
 @Data
 public class StockUpdateRequest {
     @NotNull(message = "Product ID is required")
@@ -10,4 +12,7 @@ public class StockUpdateRequest {
 
     @Min(value = 0, message = "Quantity cannot be negative")
     private int quantity;
+
+    // Empty or today sets the shelf; a later date sets that day's bucket
+    private LocalDate date;
 }
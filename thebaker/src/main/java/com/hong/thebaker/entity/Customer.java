@@ -1,6 +1,7 @@
 package com.hong.thebaker.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.hong.thebaker.service.CustomerCacheListener;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -11,6 +12,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners(CustomerCacheListener.class) // Near-cache eviction after commit
 @Getter @Setter @NoArgsConstructor
 public class Customer {
 
@@ -21,6 +23,9 @@ public class Customer {
 
     @Column(unique = true) // No two people can have the same phone
     private String phone;
+
+    // Balance maintained by PointLedger with atomic UPDATEs; JPA only writes it on insert
+    @Column(updatable = false)
     private int points;
 
     @Column(unique = true)
@@ -0,0 +1,29 @@
+package com.hong.thebaker.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Response stored for an Idempotency-Key, so a retry after a restart still gets it back. Written by IdempotencyService.
+@Entity
+@Table(name = "idempotency_key", indexes = @Index(name = "idx_idempotency_key_created", columnList = "created_at"))
+@Getter @NoArgsConstructor
+public class IdempotencyRecord {
+
+    @Id
+    @Column(name = "idem_key", length = 120)
+    private String key;
+
+    private int status;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Column(columnDefinition = "TEXT")
+    private String body;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,7 @@
+package com.hong.thebaker.entity;
+
+public enum ImageStatus {
+    PENDING, // upload queued, imageUrl still shows the previous image
+    READY,
+    FAILED
+}
@@ -6,24 +6,40 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        // Keyset pagination: newest first, optionally within one status
+        @Index(name = "idx_orders_date_id", columnList = "order_date, id"),
+        @Index(name = "idx_orders_status_date_id", columnList = "status, order_date, id"),
+        // Customer history: newest orders of one customer without a sort
+        @Index(name = "idx_orders_customer_date", columnList = "customer_id, order_date"),
+        // Seeds the pickup slot counters for one day
+        @Index(name = "idx_orders_pickup", columnList = "pickup_date, pickup_slot")
+})
 @Getter @Setter @NoArgsConstructor
 public class Order {
 
+    // Pooled sequence (not IDENTITY) so group commits can batch order inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
+    // Set by the write-behind pipeline so a replay can tell the order already committed
+    @Column(name = "request_key", unique = true)
+    private String requestKey;
+
     // Link to Customer
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "customer_id")
     private Customer customer;
 
+    @Column(name = "order_date")
     private LocalDateTime orderDate;
     private LocalDateTime cancelledDate;
     private BigDecimal totalAmount;
@@ -34,6 +50,12 @@ public class Order {
     @Column(name = "pickup_time")
     private String pickupTime; // Stores "12:00 PM", "1:00 PM" etc.
 
+    @Column(name = "pickup_date")
+    private LocalDate pickupDate;
+
+    @Column(name = "pickup_slot")
+    private Integer pickupSlot; // pickupTime as half-hours since midnight, see PickupSlotService
+
     @Column(name = "is_takeaway")
     private Boolean isTakeaway; // true = To Go
 
@@ -12,8 +12,10 @@ import java.math.BigDecimal;
 @Getter @Setter @NoArgsConstructor
 public class OrderItem {
 
+    // Pooled sequence (not IDENTITY) so Hibernate can batch item inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq")
+    @SequenceGenerator(name = "order_item_seq", sequenceName = "order_item_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
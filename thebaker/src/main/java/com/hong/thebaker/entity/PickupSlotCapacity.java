@@ -0,0 +1,27 @@
+package com.hong.thebaker.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// How many reservations one pickup slot takes per day; slots without a row can't be booked
+@Entity
+@Table(name = "pickup_slot_capacity")
+@Getter @Setter @NoArgsConstructor
+public class PickupSlotCapacity {
+
+    @Id
+    @Column(name = "slot_index")
+    private Integer slotIndex; // half-hours since midnight, e.g. 24 = 12:00 PM
+
+    private String label; // As shown on reservation.html and stored in Order.pickupTime
+
+    private int capacity;
+
+    public PickupSlotCapacity(Integer slotIndex, String label, int capacity) {
+        this.slotIndex = slotIndex;
+        this.label = label;
+        this.capacity = capacity;
+    }
+}
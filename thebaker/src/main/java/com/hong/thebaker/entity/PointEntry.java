@@ -0,0 +1,32 @@
+package com.hong.thebaker.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One row per points movement; never updated. Written by PointLedger through JDBC.
+@Entity
+@Table(name = "point_ledger", indexes = @Index(name = "idx_point_ledger_customer", columnList = "customer_id, id"))
+@Getter @NoArgsConstructor
+public class PointEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    private int delta;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16, nullable = false)
+    private PointReason reason;
+
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,9 @@
+package com.hong.thebaker.entity;
+
+public enum PointReason {
+    OPENING, // Balance carried over from before the ledger existed
+    EARN,
+    SPEND,
+    MANUAL,
+    REVERT
+}
@@ -3,10 +3,12 @@ package com.hong.thebaker.entity; // PACKAGED AS ENTITY
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 
 @Entity
+@DynamicUpdate // background writers (stock flush, image upload) own single columns; don't clobber them
 @Getter @Setter
 public class Product {
 
@@ -19,6 +21,10 @@ public class Product {
     private int stockQuantity;
     private String category; // "HARD", "SOFT", "ALL"
 
+    // Units baked on a normal day; future days start from it (see StockCalendar). Null = today only.
+    @Column(name = "daily_stock")
+    private Integer dailyStock;
+
     public Product() {}
 
     public Product(String name, BigDecimal price, int stockQuantity, String category) {
@@ -28,22 +34,13 @@ public class Product {
         this.category = category;
     }
 
-    @Lob // Large Object
-    @Column(columnDefinition = "TEXT") // Allows larger base64 strings
-    private String imageBase64;
-
-    // Getter and Setter
-    public String getImageBase64() {
-        return imageBase64;
-    }
-
-    public void setImageBase64(String imageBase64) {
-        this.imageBase64 = imageBase64;
-    }
-
-    @Column(name = "image_url") // Matches the SQL column
+    // Images live in ImageStore (or a CDN); the row only points at them
+    @Column(name = "image_url")
     private String imageUrl;
 
+    @Enumerated(EnumType.STRING)
+    private ImageStatus imageStatus;
+
     public String getImageUrl() {
         return imageUrl;
     }
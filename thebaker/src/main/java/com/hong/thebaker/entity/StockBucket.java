@@ -0,0 +1,35 @@
+package com.hong.thebaker.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+// Units left for one product on one future day; today's count stays on Product.stockQuantity
+@Entity
+@Table(name = "stock_bucket", indexes = @Index(name = "idx_stock_bucket_date", columnList = "stock_date"))
+@IdClass(StockBucket.Key.class)
+@Getter @Setter @NoArgsConstructor
+public class StockBucket {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Id
+    @Column(name = "stock_date")
+    private LocalDate stockDate;
+
+    private int quantity;
+
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private Long productId;
+        private LocalDate stockDate;
+    }
+}
@@ -0,0 +1,14 @@
+package com.hong.thebaker.event;
+
+import com.hong.thebaker.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Published inside the transaction that moves an order; previousStatus is null for a new order
+@Getter
+@AllArgsConstructor
+public class OrderStatusChangedEvent {
+    private final Long orderId;
+    private final OrderStatus previousStatus;
+    private final OrderStatus status;
+}
@@ -0,0 +1,11 @@
+package com.hong.thebaker.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Published whenever a product's details or stock change; productId is null when several changed at once
+@Getter
+@AllArgsConstructor
+public class ProductChangedEvent {
+    private final Long productId;
+}
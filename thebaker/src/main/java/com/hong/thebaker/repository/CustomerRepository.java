@@ -4,6 +4,8 @@ import com.hong.thebaker.entity.Customer;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +14,6 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
     Optional<Customer> findByPhone(String phone);
 
     Optional<Customer> findByQrCode(String qrCode);
+
+    List<Customer> findByPhoneIn(Collection<String> phones);
 }
\ No newline at end of file
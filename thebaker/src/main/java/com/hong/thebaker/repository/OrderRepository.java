@@ -1,14 +1,22 @@
 package com.hong.thebaker.repository;
 
+import com.hong.thebaker.dto.OrderLine;
+import com.hong.thebaker.dto.OrderSummary;
+import com.hong.thebaker.dto.PointHistoryEntry;
 import com.hong.thebaker.entity.Order;
 import com.hong.thebaker.entity.OrderStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderRepositoryCustom {
 
     // 1. By Customer ID
     List<Order> findByCustomerId(Long customerId);
@@ -16,9 +24,38 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     // 🔴 NO ARCHIVED METHOD HERE.
     // It is gone. StaffController now uses findAll() instead.
 
-    // 2. By Phone
-    List<Order> findByCustomerPhoneOrderByOrderDateDesc(String phone);
+    // 2. By Phone: newest first, top-N in SQL, DTOs instead of the EAGER graph
+    @Query("SELECT new com.hong.thebaker.dto.OrderSummary(o.id, o.orderDate, o.status, o.totalAmount, " +
+            "o.pickupTime, o.pointsEarned, o.pointsUsed) " +
+            "FROM Order o WHERE o.customer.phone = :phone ORDER BY o.orderDate DESC, o.id DESC")
+    List<OrderSummary> findSummariesByPhone(@Param("phone") String phone, Limit limit);
+
+    @Query("SELECT new com.hong.thebaker.dto.OrderLine(i.order.id, p.name, i.quantity) " +
+            "FROM OrderItem i JOIN i.product p WHERE i.order.id IN :orderIds")
+    List<OrderLine> findLines(@Param("orderIds") Collection<Long> orderIds);
+
+    @Query("SELECT new com.hong.thebaker.dto.PointHistoryEntry(o.orderDate, o.pointsEarned, o.pointsUsed) " +
+            "FROM Order o WHERE o.customer.phone = :phone AND o.status <> :excluded " +
+            "ORDER BY o.orderDate DESC, o.id DESC")
+    List<PointHistoryEntry> findPointHistory(@Param("phone") String phone,
+                                             @Param("excluded") OrderStatus excluded,
+                                             Limit limit);
 
     // 3. For Alarm
     long countByStatus(OrderStatus status);
+
+    // Rows of {status, count}; seeds and reconciles OrderStatusCounters
+    @Query("SELECT o.status, COUNT(o) FROM Order o GROUP BY o.status")
+    List<Object[]> countGroupedByStatus();
+
+    // Status column only; the entity would drag in customer, items and products
+    @Query("SELECT o.status FROM Order o WHERE o.id = :id")
+    Optional<OrderStatus> findStatusById(@Param("id") Long id);
+
+    // 4. Write-behind replay
+    Optional<Order> findByRequestKey(String requestKey);
+
+    // Rows of {requestKey, id} for the keys that already have an order
+    @Query("SELECT o.requestKey, o.id FROM Order o WHERE o.requestKey IN :keys")
+    List<Object[]> findIdsByRequestKeys(@Param("keys") Collection<String> keys);
 }
\ No newline at end of file
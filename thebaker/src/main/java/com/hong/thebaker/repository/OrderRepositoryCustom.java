@@ -0,0 +1,13 @@
+package com.hong.thebaker.repository;
+
+import com.hong.thebaker.dto.OrderCursor;
+import com.hong.thebaker.dto.OrderFilter;
+import com.hong.thebaker.entity.Order;
+
+import java.util.List;
+
+public interface OrderRepositoryCustom {
+
+    // Newest first on (orderDate, id), starting after the cursor; customer, items and products come fetched
+    List<Order> findPage(OrderFilter filter, OrderCursor after, int limit);
+}
@@ -0,0 +1,77 @@
+package com.hong.thebaker.repository;
+
+import com.hong.thebaker.dto.OrderCursor;
+import com.hong.thebaker.dto.OrderFilter;
+import com.hong.thebaker.entity.Order;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keyset pagination in two statements: the page's ids from the
+ * (order_date, id) index, then one fetch-join for those ids. Limiting the id
+ * query keeps Hibernate from paging a collection fetch in memory, and the
+ * cursor means page 1000 costs the same as page 1.
+ */
+class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Order> findPage(OrderFilter filter, OrderCursor after, int limit) {
+        // Only the predicates in use, so the planner sees a plain range scan
+        StringBuilder jpql = new StringBuilder("SELECT o.id FROM Order o WHERE 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+        if (filter != null) {
+            if (filter.getStatus() != null) {
+                jpql.append(" AND o.status = :status");
+                params.put("status", filter.getStatus());
+            }
+            if (filter.getFrom() != null) {
+                jpql.append(" AND o.orderDate >= :from");
+                params.put("from", filter.getFrom());
+            }
+            if (filter.getTo() != null) {
+                jpql.append(" AND o.orderDate < :to");
+                params.put("to", filter.getTo());
+            }
+            if (filter.getPhone() != null) {
+                jpql.append(" AND o.customer.phone = :phone");
+                params.put("phone", filter.getPhone());
+            }
+        }
+        if (after != null) {
+            jpql.append(" AND (o.orderDate < :afterDate OR (o.orderDate = :afterDate AND o.id < :afterId))");
+            params.put("afterDate", after.getOrderDate());
+            params.put("afterId", after.getId());
+        }
+        jpql.append(" ORDER BY o.orderDate DESC, o.id DESC");
+
+        TypedQuery<Long> idQuery = entityManager.createQuery(jpql.toString(), Long.class);
+        params.forEach(idQuery::setParameter);
+        List<Long> ids = idQuery.setMaxResults(limit).getResultList();
+        if (ids.isEmpty()) return List.of();
+
+        Map<Long, Order> byId = new LinkedHashMap<>();
+        entityManager.createQuery(
+                        "SELECT o FROM Order o LEFT JOIN FETCH o.customer " +
+                        "LEFT JOIN FETCH o.items i LEFT JOIN FETCH i.product WHERE o.id IN :ids", Order.class)
+                .setParameter("ids", ids)
+                .getResultList()
+                .forEach(order -> byId.put(order.getId(), order));
+
+        List<Order> page = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Order order = byId.get(id);
+            if (order != null) page.add(order);
+        }
+        return page;
+    }
+}
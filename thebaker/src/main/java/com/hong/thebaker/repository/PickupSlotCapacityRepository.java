@@ -0,0 +1,9 @@
+package com.hong.thebaker.repository;
+
+import com.hong.thebaker.entity.PickupSlotCapacity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PickupSlotCapacityRepository extends JpaRepository<PickupSlotCapacity, Integer> {
+}
@@ -0,0 +1,345 @@
+package com.hong.thebaker.service;
+
+import com.hong.thebaker.dto.QueuePosition;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Admission control in front of POST /api/orders.
+ *
+ * Three gates, cheapest first: a token bucket per client (429 when empty), a
+ * limit on orders running at once sized below the connection pool, and a FIFO
+ * waiting room for whatever that limit turns away. A queued client gets a
+ * ticket and polls or streams its position. When a place frees up the head of
+ * the line is admitted and the place is held for it for a short while; the
+ * client then sends the order again with the ticket in {@value #TICKET_HEADER}.
+ * Newcomers never pass a non-empty line, so the opening rush waits here in
+ * order instead of piling onto the pool.
+ */
+@Slf4j
+@Service
+public class AdmissionService {
+
+    public static final String TICKET_HEADER = "X-Queue-Ticket";
+
+    private final boolean enabled;
+    private final int maxConcurrent;
+    private final int queueCapacity;
+    private final int clientBurst;
+    private final double clientRate;
+    private final long admitTtlNanos;
+    private final long abandonNanos;
+    private final LongSupplier clock;
+    private final ExpiringLruCache<String, TokenBucket> buckets;
+
+    // Everything below is guarded by this
+    private int free;
+    private final LinkedHashMap<String, Ticket> waiting = new LinkedHashMap<>();
+    private final Map<String, Ticket> admitted = new HashMap<>();
+    private long issued;
+    private long served;
+    private double averageMs = 200; // moving average of an admitted order, for wait estimates
+
+    private ScheduledExecutorService sweeper;
+
+    public AdmissionService(@Value("${app.admission.enabled:true}") boolean enabled,
+                            @Value("${app.admission.max-concurrent:8}") int maxConcurrent,
+                            @Value("${app.admission.queue-capacity:2000}") int queueCapacity,
+                            @Value("${app.admission.client-burst:5}") int clientBurst,
+                            @Value("${app.admission.client-rate-per-second:1}") double clientRate,
+                            @Value("${app.admission.admit-ttl-seconds:30}") long admitTtlSeconds,
+                            @Value("${app.admission.abandon-seconds:30}") long abandonSeconds) {
+        this(enabled, maxConcurrent, queueCapacity, clientBurst, clientRate,
+                Duration.ofSeconds(admitTtlSeconds), Duration.ofSeconds(abandonSeconds), System::nanoTime);
+    }
+
+    AdmissionService(boolean enabled, int maxConcurrent, int queueCapacity, int clientBurst, double clientRate,
+                     Duration admitTtl, Duration abandonAfter, LongSupplier clock) {
+        this.enabled = enabled;
+        this.maxConcurrent = maxConcurrent;
+        this.queueCapacity = queueCapacity;
+        this.clientBurst = clientBurst;
+        this.clientRate = clientRate;
+        this.admitTtlNanos = admitTtl.toNanos();
+        this.abandonNanos = abandonAfter.toNanos();
+        this.clock = clock;
+        this.free = maxConcurrent;
+        this.buckets = new ExpiringLruCache<>(10_000, Duration.ofMinutes(10), clock);
+    }
+
+    public static class RateLimitedException extends RuntimeException {
+        private final long retryAfterSeconds;
+
+        public RateLimitedException(long retryAfterSeconds) {
+            super("요청이 너무 많습니다. 잠시 후 다시 시도해주세요.");
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+
+    public static class WaitingRoomFullException extends RuntimeException {
+        public WaitingRoomFullException() {
+            super("대기 인원이 너무 많습니다. 잠시 후 다시 시도해주세요.");
+        }
+    }
+
+    private static final class Ticket {
+        final String id;
+        final long sequence;
+        long lastSeen;
+        long admittedUntil;
+        volatile SseEmitter emitter;
+
+        Ticket(String id, long sequence, long now) {
+            this.id = id;
+            this.sequence = sequence;
+            this.lastSeen = now;
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) return;
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "admission-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweepQuietly, 1, 1, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (sweeper != null) sweeper.shutdownNow();
+    }
+
+    // The socket address; behind a proxy, server.forward-headers-strategy rewrites it from trusted hops only.
+    // Reading X-Forwarded-For here would let any client pick a fresh bucket per request.
+    public static String clientOf(HttpServletRequest request) {
+        return request.getRemoteAddr();
+    }
+
+    /**
+     * Runs {@code handler} if the client is within its rate and a place is free
+     * (or was held for {@code ticketId}); otherwise answers 202 with a place in line.
+     */
+    public ResponseEntity<?> admit(String client, String ticketId, Supplier<ResponseEntity<?>> handler) {
+        if (!enabled) return handler.get();
+
+        long now = clock.getAsLong();
+        TokenBucket bucket = bucket(client, now);
+        if (!bucket.tryTake(now)) {
+            throw new RateLimitedException(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(bucket.nanosUntilNext(now)) + 1));
+        }
+
+        Ticket ticket = enter(ticketId, now);
+        if (ticket != null) return queued(ticket);
+
+        long start = clock.getAsLong();
+        try {
+            return handler.get();
+        } finally {
+            leave(clock.getAsLong() - start);
+        }
+    }
+
+    public QueuePosition status(String ticketId) {
+        synchronized (this) {
+            Ticket ticket = waiting.get(ticketId);
+            if (ticket != null) ticket.lastSeen = clock.getAsLong();
+        }
+        return positionOf(ticketId);
+    }
+
+    // Pushes the position every second until the ticket is admitted
+    public SseEmitter subscribe(String ticketId) {
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(30));
+        Ticket ticket;
+        synchronized (this) {
+            ticket = waiting.get(ticketId);
+            if (ticket != null) ticket.emitter = emitter;
+        }
+        if (ticket != null) {
+            Runnable detach = () -> detach(ticket, emitter);
+            emitter.onCompletion(detach);
+            emitter.onTimeout(detach);
+            emitter.onError(e -> detach.run());
+        }
+        push(emitter, positionOf(ticketId));
+        return emitter;
+    }
+
+    // Null means the caller holds a place now; otherwise it waits behind the returned ticket
+    private synchronized Ticket enter(String ticketId, long now) {
+        if (ticketId != null) {
+            if (admitted.remove(ticketId) != null) return null; // place was held for it
+            Ticket queued = waiting.get(ticketId);
+            if (queued != null) {
+                queued.lastSeen = now;
+                return queued;
+            }
+            // Unknown or expired ticket: back of the line like anyone else
+        }
+        if (waiting.isEmpty() && free > 0) {
+            free--;
+            return null;
+        }
+        if (waiting.size() >= queueCapacity) {
+            throw new WaitingRoomFullException();
+        }
+        Ticket ticket = new Ticket(UUID.randomUUID().toString(), ++issued, now);
+        waiting.put(ticket.id, ticket);
+        return ticket;
+    }
+
+    private void leave(long elapsedNanos) {
+        List<Ticket> promoted;
+        synchronized (this) {
+            averageMs = averageMs * 0.9 + elapsedNanos / 1_000_000d * 0.1;
+            free++;
+            promoted = promote(clock.getAsLong());
+        }
+        promoted.forEach(this::notifyAdmitted);
+    }
+
+    // Hands free places to the head of the line; caller holds the lock
+    private List<Ticket> promote(long now) {
+        List<Ticket> promoted = new ArrayList<>();
+        Iterator<Ticket> line = waiting.values().iterator();
+        while (free > 0 && line.hasNext()) {
+            Ticket ticket = line.next();
+            line.remove();
+            served++;
+            free--;
+            ticket.admittedUntil = now + admitTtlNanos;
+            admitted.put(ticket.id, ticket);
+            promoted.add(ticket);
+        }
+        return promoted;
+    }
+
+    /**
+     * Takes back places held for clients that never returned, drops waiting
+     * tickets nobody polls or streams any more, and moves the line along.
+     */
+    void sweep() {
+        List<Ticket> promoted;
+        List<Ticket> streaming = new ArrayList<>();
+        synchronized (this) {
+            long now = clock.getAsLong();
+            Iterator<Ticket> held = admitted.values().iterator();
+            while (held.hasNext()) {
+                if (now - held.next().admittedUntil > 0) {
+                    held.remove();
+                    free++;
+                }
+            }
+            Iterator<Ticket> line = waiting.values().iterator();
+            while (line.hasNext()) {
+                Ticket ticket = line.next();
+                if (ticket.emitter != null) {
+                    streaming.add(ticket);
+                } else if (now - ticket.lastSeen > abandonNanos) {
+                    line.remove();
+                    served++;
+                }
+            }
+            promoted = promote(now);
+        }
+        promoted.forEach(this::notifyAdmitted);
+        for (Ticket ticket : streaming) {
+            SseEmitter emitter = ticket.emitter;
+            if (emitter != null && !promoted.contains(ticket)) push(emitter, positionOf(ticket.id));
+        }
+    }
+
+    private void sweepQuietly() {
+        try {
+            sweep();
+        } catch (Exception e) {
+            log.error("Admission sweep failed: {}", e.getMessage());
+        }
+    }
+
+    private synchronized QueuePosition positionOf(String ticketId) {
+        if (admitted.containsKey(ticketId)) {
+            return new QueuePosition(ticketId, "ADMITTED", 0, 0);
+        }
+        Ticket ticket = waiting.get(ticketId);
+        if (ticket == null) {
+            return new QueuePosition(ticketId, "UNKNOWN", 0, 0);
+        }
+        int position = (int) Math.max(1, ticket.sequence - served);
+        int waitSeconds = (int) Math.ceil(position * averageMs / maxConcurrent / 1000);
+        return new QueuePosition(ticketId, "WAITING", position, waitSeconds);
+    }
+
+    private ResponseEntity<?> queued(Ticket ticket) {
+        QueuePosition position = positionOf(ticket.id);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .header(TICKET_HEADER, ticket.id)
+                .header(HttpHeaders.LOCATION, "/api/orders/queue/" + ticket.id)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, Math.min(position.getEstimatedWaitSeconds(), 5))))
+                .body(position);
+    }
+
+    private void notifyAdmitted(Ticket ticket) {
+        SseEmitter emitter = ticket.emitter;
+        if (emitter != null) push(emitter, positionOf(ticket.id));
+    }
+
+    private void push(SseEmitter emitter, QueuePosition position) {
+        try {
+            emitter.send(SseEmitter.event().name("queue").data(position, MediaType.APPLICATION_JSON));
+            if (!"WAITING".equals(position.getStatus())) emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; it can still poll
+            emitter.complete();
+        }
+    }
+
+    private synchronized void detach(Ticket ticket, SseEmitter emitter) {
+        if (ticket.emitter == emitter) {
+            ticket.emitter = null;
+            ticket.lastSeen = clock.getAsLong();
+        }
+    }
+
+    private TokenBucket bucket(String client, long now) {
+        synchronized (buckets) {
+            TokenBucket bucket = buckets.get(client);
+            if (bucket == null) {
+                bucket = new TokenBucket(clientBurst, clientRate, now);
+                buckets.put(client, bucket);
+            }
+            return bucket;
+        }
+    }
+}
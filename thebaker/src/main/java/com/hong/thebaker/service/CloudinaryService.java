@@ -2,30 +2,50 @@ package com.hong.thebaker.service;
 
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
+
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
-public class CloudinaryService {
-
-    // Securing keys via Environment Variables (12-Factor App methodology)
-    private final Cloudinary cloudinary = new Cloudinary(ObjectUtils.asMap(
-            "cloud_name", System.getenv("CLOUDINARY_CLOUD_NAME"),
-            "api_key", System.getenv("CLOUDINARY_API_KEY"),
-            "api_secret", System.getenv("CLOUDINARY_API_SECRET")
-    ));
-
-    public String uploadFile(MultipartFile file) {
-        try {
-            // This sends the file bytes directly to Cloudinary
-            Map uploadResult = cloudinary.uploader().upload(file.getBytes(), ObjectUtils.emptyMap());
-
-            // Return the secure URL (https)
-            return (String) uploadResult.get("secure_url");
-        } catch (IOException e) {
-            throw new RuntimeException("Cloudinary upload failed: " + e.getMessage());
+@ConditionalOnProperty(name = "app.images.backend", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryService implements ImageUploadClient {
+
+    private final Cloudinary cloudinary;
+    private final int timeoutSeconds;
+
+    @Autowired
+    public CloudinaryService(@Value("${app.images.cloudinary.upload-prefix:}") String uploadPrefix,
+                             @Value("${app.images.upload-timeout-seconds:30}") int timeoutSeconds) {
+        // Securing keys via Environment Variables (12-Factor App methodology)
+        this(ObjectUtils.asMap(
+                "cloud_name", System.getenv("CLOUDINARY_CLOUD_NAME"),
+                "api_key", System.getenv("CLOUDINARY_API_KEY"),
+                "api_secret", System.getenv("CLOUDINARY_API_SECRET")
+        ), uploadPrefix, timeoutSeconds);
+    }
+
+    // upload_prefix points the SDK at another host, e.g. a stub server in tests
+    CloudinaryService(Map<String, Object> credentials, String uploadPrefix, int timeoutSeconds) {
+        Map<String, Object> config = new HashMap<>(credentials);
+        if (uploadPrefix != null && !uploadPrefix.isEmpty()) {
+            config.put("upload_prefix", uploadPrefix);
         }
+        this.cloudinary = new Cloudinary(config);
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    @Override
+    public String upload(Path file) throws IOException {
+        // Given a File the SDK streams it from disk instead of buffering it in the heap
+        Map uploadResult = cloudinary.uploader().upload(file.toFile(), ObjectUtils.asMap("timeout", timeoutSeconds));
+
+        // Return the secure URL (https)
+        return (String) uploadResult.get("secure_url");
     }
-}
\ No newline at end of file
+}
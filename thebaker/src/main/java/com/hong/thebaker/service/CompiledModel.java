@@ -0,0 +1,164 @@
+package com.hong.thebaker.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ml_model.json compiled into flat arrays.
+ *
+ * Products get an ordinal (their order in the JSON) and every feature a fixed
+ * id: day_Monday..day_Sunday are 0..6 (the DayOfWeek ordinal), then is_rain and
+ * temp. All weights live in one row-major {@code double[]}, so scoring is a few
+ * array reads per product with no string keys, boxing or allocation.
+ * Immutable once compiled; a new model file means a new instance, which
+ * {@link ModelRegistry} swaps in whole.
+ */
+final class CompiledModel {
+
+    static final int IS_RAIN = 7;
+    static final int TEMP = 8;
+    static final int FEATURES = 9;
+
+    // "Monday".."Sunday", indexed by DayOfWeek ordinal
+    static final String[] DAY_NAMES = new String[7];
+    private static final Map<String, Integer> FEATURE_IDS = new HashMap<>();
+
+    static {
+        for (DayOfWeek day : DayOfWeek.values()) {
+            DAY_NAMES[day.ordinal()] = day.getDisplayName(TextStyle.FULL, Locale.ENGLISH);
+            FEATURE_IDS.put("day_" + DAY_NAMES[day.ordinal()], day.ordinal());
+        }
+        FEATURE_IDS.put("is_rain", IS_RAIN);
+        FEATURE_IDS.put("temp", TEMP);
+    }
+
+    static final CompiledModel EMPTY = new CompiledModel("none", "none",
+            new String[0], new double[0], new double[0], new double[0], new double[0]);
+
+    final String version;
+    final String source;
+    final LocalDateTime loadedAt = LocalDateTime.now();
+    final String[] names; // as written in the model file
+    final double[] bias;
+    final double[] wasteRisk;
+    final double[] avgMade;
+    final double[] weights; // [product * FEATURES + feature]
+
+    private final Map<String, Integer> byKey = new HashMap<>();
+    // Product names as the DB spells them, resolved once
+    private final Map<String, Integer> resolved = new ConcurrentHashMap<>();
+
+    private CompiledModel(String version, String source, String[] names,
+                          double[] bias, double[] wasteRisk, double[] avgMade, double[] weights) {
+        this.version = version;
+        this.source = source;
+        this.names = names;
+        this.bias = bias;
+        this.wasteRisk = wasteRisk;
+        this.avgMade = avgMade;
+        this.weights = weights;
+        for (int i = 0; i < names.length; i++) {
+            byKey.put(key(names[i]), i);
+        }
+    }
+
+    /**
+     * Compiles and validates a parsed model file.
+     *
+     * @throws IllegalArgumentException when the file is empty, a product lacks
+     *         base_bias or weights, or any number is not finite
+     */
+    static CompiledModel compile(JsonNode root, String version, String source) {
+        if (root == null || !root.isObject() || root.isEmpty()) {
+            throw new IllegalArgumentException("model has no products");
+        }
+        List<Map.Entry<String, JsonNode>> entries = new ArrayList<>();
+        root.fields().forEachRemaining(entries::add);
+
+        int n = entries.size();
+        String[] names = new String[n];
+        double[] bias = new double[n];
+        double[] wasteRisk = new double[n];
+        double[] avgMade = new double[n];
+        double[] weights = new double[n * FEATURES];
+
+        for (int i = 0; i < n; i++) {
+            String name = entries.get(i).getKey();
+            JsonNode data = entries.get(i).getValue();
+            if (!data.path("base_bias").isNumber() || !data.path("weights").isObject()) {
+                throw new IllegalArgumentException(name + ": base_bias and weights are required");
+            }
+            names[i] = name;
+            bias[i] = finite(name, "base_bias", data.get("base_bias"));
+            wasteRisk[i] = data.has("waste_risk") ? finite(name, "waste_risk", data.get("waste_risk")) : 0.0;
+            avgMade[i] = data.has("avg_made") ? finite(name, "avg_made", data.get("avg_made")) : 0.0;
+
+            int row = i * FEATURES;
+            data.get("weights").fields().forEachRemaining(w -> {
+                Integer feature = FEATURE_IDS.get(w.getKey());
+                if (feature != null) weights[row + feature] = finite(name, w.getKey(), w.getValue());
+            });
+        }
+        return new CompiledModel(version, source, names, bias, wasteRisk, avgMade, weights);
+    }
+
+    private static double finite(String product, String field, JsonNode value) {
+        double d = value.asDouble(Double.NaN);
+        if (!value.isNumber() || !Double.isFinite(d)) {
+            throw new IllegalArgumentException(product + ": " + field + " is not a number");
+        }
+        return d;
+    }
+
+    // Same normalisation the map-based lookup used: "SANDWICH A" and "SANDWICHA" are one product
+    static String key(String productName) {
+        return productName.replace(" ", "").trim();
+    }
+
+    static boolean isRain(String weather) {
+        String w = weather.toLowerCase();
+        return w.contains("rain") || w.contains("snow");
+    }
+
+    int size() {
+        return names.length;
+    }
+
+    /** Product ordinal for a name, or -1 when the model doesn't know it. */
+    int indexOf(String productName) {
+        Integer index = resolved.get(productName);
+        if (index == null) {
+            index = byKey.getOrDefault(key(productName), -1);
+            // Bounded by the product table; unknown names are cached as -1 too
+            resolved.put(productName, index);
+        }
+        return index;
+    }
+
+    double weight(int product, int feature) {
+        return weights[product * FEATURES + feature];
+    }
+
+    // Summed in the same order as before so results match to the last bit
+    double score(int product, int day, boolean rain, double temp) {
+        int row = product * FEATURES;
+        return bias[product] + weights[row + day] + (rain ? weights[row + IS_RAIN] : 0.0) + temp * weights[row + TEMP];
+    }
+
+    /** Scores every product into {@code out}, which must hold {@link #size()} values. */
+    void scoreAll(int day, boolean rain, double temp, double[] out) {
+        double[] w = weights;
+        for (int p = 0, row = 0; p < out.length; p++, row += FEATURES) {
+            out[p] = bias[p] + w[row + day] + (rain ? w[row + IS_RAIN] : 0.0) + temp * w[row + TEMP];
+        }
+    }
+}
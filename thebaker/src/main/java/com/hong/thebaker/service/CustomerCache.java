@@ -0,0 +1,116 @@
+package com.hong.thebaker.service;
+
+import com.hong.thebaker.dto.CustomerSnapshot;
+import com.hong.thebaker.entity.Customer;
+import com.hong.thebaker.repository.CustomerRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Phone / QR code -> customer id and points, in front of the unique-key lookups.
+ *
+ * Unknown keys are cached too (for a shorter time), so a POS retrying a number
+ * that isn't registered stops reaching the DB. Entries are dropped only after
+ * the transaction that changed the customer commits ({@link CustomerCacheListener}),
+ * so a rolled-back points change never shows up here.
+ */
+@Service
+public class CustomerCache {
+
+    // Identity marker for "no such customer"
+    private static final CustomerSnapshot MISSING = new CustomerSnapshot();
+
+    private final CustomerRepository customerRepository;
+    private final ExpiringLruCache<String, CustomerSnapshot> byPhone;
+    private final ExpiringLruCache<String, CustomerSnapshot> byQrCode;
+    private final Duration missTtl;
+    // Bumped on every eviction; a load that overlapped one doesn't cache what it read
+    private final AtomicLong generation = new AtomicLong();
+
+    public CustomerCache(CustomerRepository customerRepository,
+                         @Value("${app.customers.cache.max-entries:5000}") int maxEntries,
+                         @Value("${app.customers.cache.ttl-seconds:300}") long ttlSeconds,
+                         @Value("${app.customers.cache.miss-ttl-seconds:30}") long missTtlSeconds) {
+        this.customerRepository = customerRepository;
+        this.byPhone = new ExpiringLruCache<>(maxEntries, Duration.ofSeconds(ttlSeconds));
+        this.byQrCode = new ExpiringLruCache<>(maxEntries, Duration.ofSeconds(ttlSeconds));
+        this.missTtl = Duration.ofSeconds(missTtlSeconds);
+    }
+
+    public Optional<CustomerSnapshot> findByPhone(String phone) {
+        return lookup(byPhone, phone, customerRepository::findByPhone);
+    }
+
+    public Optional<CustomerSnapshot> findByQrCode(String qrCode) {
+        return lookup(byQrCode, qrCode, customerRepository::findByQrCode);
+    }
+
+    /**
+     * The managed entity for a write path. A cached miss skips the query; a hit
+     * loads by primary key, which the persistence context may already hold.
+     */
+    public Optional<Customer> loadByPhone(String phone) {
+        if (phone == null) return Optional.empty();
+        CustomerSnapshot cached = byPhone.get(phone);
+        if (cached == MISSING) return Optional.empty();
+        if (cached != null) {
+            Optional<Customer> customer = customerRepository.findById(cached.getId());
+            if (customer.isPresent()) return customer;
+        }
+        return customerRepository.findByPhone(phone);
+    }
+
+    /** Drops both keys once the current transaction commits; right away when there is none. */
+    public void evictAfterCommit(String phone, String qrCode) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(phone, qrCode);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(phone, qrCode);
+            }
+        });
+    }
+
+    public long hits() {
+        return byPhone.hits() + byQrCode.hits();
+    }
+
+    public long misses() {
+        return byPhone.misses() + byQrCode.misses();
+    }
+
+    private void evict(String phone, String qrCode) {
+        generation.incrementAndGet();
+        if (phone != null) byPhone.remove(phone);
+        if (qrCode != null) byQrCode.remove(qrCode);
+    }
+
+    private Optional<CustomerSnapshot> lookup(ExpiringLruCache<String, CustomerSnapshot> cache, String key,
+                                              Function<String, Optional<Customer>> loader) {
+        if (key == null) return Optional.empty();
+        CustomerSnapshot cached = cache.get(key);
+        if (cached != null) return cached == MISSING ? Optional.empty() : Optional.of(cached);
+
+        long before = generation.get();
+        Optional<CustomerSnapshot> loaded = loader.apply(key).map(CustomerCache::snapshot);
+        if (generation.get() == before) {
+            if (loaded.isPresent()) cache.put(key, loaded.get());
+            else cache.put(key, MISSING, missTtl);
+        }
+        return loaded;
+    }
+
+    private static CustomerSnapshot snapshot(Customer customer) {
+        return new CustomerSnapshot(customer.getId(), customer.getName(), customer.getPhone(), customer.getPoints());
+    }
+}
@@ -0,0 +1,30 @@
+package com.hong.thebaker.service;
+
+import com.hong.thebaker.entity.Customer;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Evicts a customer's cache entries whenever JPA writes the row, whichever
+ * service or controller did it. Hibernate creates this through Spring; the
+ * cache is resolved lazily because it needs the repositories this listener
+ * is created alongside.
+ */
+public class CustomerCacheListener {
+
+    private final ObjectProvider<CustomerCache> customerCache;
+
+    public CustomerCacheListener(ObjectProvider<CustomerCache> customerCache) {
+        this.customerCache = customerCache;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onWrite(Customer customer) {
+        CustomerCache cache = customerCache.getIfAvailable();
+        if (cache != null) cache.evictAfterCommit(customer.getPhone(), customer.getQrCode());
+    }
+}
@@ -0,0 +1,163 @@
+package com.hong.thebaker.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.hong.thebaker.dto.ForecastGrid;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * What-if planning: the compiled model scored over a grid of target dates,
+ * weathers and temperatures for every product at once.
+ *
+ * Scenarios are split across a dedicated fork-join pool in chunks; each
+ * chunk scores with {@link CompiledModel#scoreAll} into one reused buffer, so
+ * a 7 x 3 x 30 grid over the whole menu is a few hundred array passes.
+ * The result is written out as JSON one scenario at a time.
+ */
+@Service
+public class ForecastGridService {
+
+    private static final int CHUNK = 32; // scenarios per leaf task
+
+    private final ModelRegistry registry;
+    private final int maxScenarios;
+    private final ForkJoinPool pool;
+    // The servlet container owns the response stream
+    private final JsonFactory json = JsonFactory.builder().disable(StreamWriteFeature.AUTO_CLOSE_TARGET).build();
+
+    public ForecastGridService(ModelRegistry registry,
+                               @Value("${app.forecast.grid.max-scenarios:20000}") int maxScenarios,
+                               @Value("${app.forecast.grid.parallelism:0}") int parallelism) {
+        this.registry = registry;
+        this.maxScenarios = maxScenarios;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Scores every product for each (date, weather, temp) combination.
+     * Temperatures run from {@code minTemp} to {@code maxTemp} inclusive in {@code step}s.
+     */
+    public ForecastGrid simulate(LocalDate from, int days, List<String> weathers,
+                                 double minTemp, double maxTemp, double step) {
+        if (days < 1 || weathers.isEmpty() || !Double.isFinite(minTemp) || !Double.isFinite(maxTemp)
+                || !Double.isFinite(step) || step <= 0 || maxTemp < minTemp) {
+            throw new IllegalArgumentException("시뮬레이션 범위가 올바르지 않습니다.");
+        }
+        // In doubles until checked, so a huge range can't wrap around an int
+        double scenarioCount = (double) days * weathers.size() * (Math.floor((maxTemp - minTemp) / step + 1e-9) + 1);
+        if (scenarioCount > maxScenarios) {
+            throw new IllegalArgumentException("시뮬레이션 범위가 너무 큽니다: " + (long) scenarioCount + "개 (최대 " + maxScenarios + "개)");
+        }
+        int tempCount = (int) (Math.floor((maxTemp - minTemp) / step + 1e-9) + 1);
+        int scenarios = days * weathers.size() * tempCount;
+
+        List<LocalDate> dates = new ArrayList<>(days);
+        for (int d = 0; d < days; d++) dates.add(from.plusDays(d));
+        List<String> labels = new ArrayList<>(weathers.size());
+        for (String weather : weathers) labels.add(PredictionService.WeatherClass.of(weather).label());
+        double[] temps = new double[tempCount];
+        for (int t = 0; t < tempCount; t++) {
+            temps[t] = Math.round((minTemp + t * step) * 1000) / 1000.0; // 0.1 steps print as 0.3, not 0.30000000000000004
+        }
+
+        // One model for the whole grid, even if a new one is swapped in meanwhile
+        CompiledModel m = registry.current();
+        ForecastGrid grid = new ForecastGrid(m.version, List.of(m.names), dates, labels, temps,
+                new int[Math.multiplyExact(scenarios, m.size())]);
+        pool.invoke(new Fill(m, grid, 0, scenarios));
+        return grid;
+    }
+
+    private static final class Fill extends RecursiveAction {
+        private final CompiledModel m;
+        private final ForecastGrid grid;
+        private final int from;
+        private final int to;
+
+        Fill(CompiledModel m, ForecastGrid grid, int from, int to) {
+            this.m = m;
+            this.grid = grid;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CHUNK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Fill(m, grid, from, mid), new Fill(m, grid, mid, to));
+                return;
+            }
+            int products = m.size();
+            int weathers = grid.getWeathers().size();
+            int temps = grid.getTemps().length;
+            int[] out = grid.getRecommended();
+            double[] scores = new double[products];
+            for (int s = from; s < to; s++) {
+                int t = s % temps;
+                int w = (s / temps) % weathers;
+                int d = s / (temps * weathers);
+                m.scoreAll(grid.getDates().get(d).getDayOfWeek().ordinal(),
+                        CompiledModel.isRain(grid.getWeathers().get(w)), grid.getTemps()[t], scores);
+                for (int p = 0; p < products; p++) {
+                    // Same rounding as PredictionService's recommended
+                    out[s * products + p] = (int) Math.max(0, Math.round(scores[p]));
+                }
+            }
+        }
+    }
+
+    /**
+     * {"modelVersion", "products": [...], "scenarios": [{"date", "weather", "temp",
+     * "recommended": [...]}, ...]}, written straight to {@code out}.
+     */
+    public void writeJson(ForecastGrid grid, OutputStream out) throws IOException {
+        try (JsonGenerator gen = json.createGenerator(out, JsonEncoding.UTF8)) {
+            int products = grid.getProducts().size();
+            int[] recommended = grid.getRecommended();
+
+            gen.writeStartObject();
+            gen.writeStringField("modelVersion", grid.getModelVersion());
+            gen.writeArrayFieldStart("products");
+            for (String product : grid.getProducts()) gen.writeString(product);
+            gen.writeEndArray();
+
+            gen.writeArrayFieldStart("scenarios");
+            int s = 0;
+            for (LocalDate date : grid.getDates()) {
+                String day = date.toString();
+                for (String weather : grid.getWeathers()) {
+                    for (double temp : grid.getTemps()) {
+                        gen.writeStartObject();
+                        gen.writeStringField("date", day);
+                        gen.writeStringField("weather", weather);
+                        gen.writeNumberField("temp", temp);
+                        gen.writeFieldName("recommended");
+                        gen.writeArray(recommended, s * products, products);
+                        gen.writeEndObject();
+                        s++;
+                    }
+                }
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+    }
+}
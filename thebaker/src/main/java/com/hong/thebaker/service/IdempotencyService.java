@@ -0,0 +1,208 @@
+package com.hong.thebaker.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key handling for POSTs that clients retry.
+ *
+ * The first request with a key runs the handler, which owns its own
+ * transaction, and then stores the response in a short transaction of its
+ * own. Requests without a key never touch a connection here. Retries get
+ * that response back from a bounded in-memory store without touching the
+ * database; after a restart or eviction, from the idempotency_key table.
+ * Duplicates that arrive while the first is still running wait for its result
+ * instead of running the handler again. 5xx responses and exceptions are not
+ * stored, so those can be retried for real.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonMapper jsonMapper;
+    private final ExpiringLruCache<String, Stored> responses;
+    private final Duration retention;
+    private final long waitMs;
+
+    private final Map<String, CompletableFuture<Stored>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              JsonMapper jsonMapper,
+                              @Value("${app.idempotency.max-entries:10000}") int maxEntries,
+                              @Value("${app.idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${app.idempotency.wait-ms:30000}") long waitMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.jsonMapper = jsonMapper;
+        this.retention = Duration.ofHours(ttlHours);
+        this.responses = new ExpiringLruCache<>(maxEntries, retention);
+        this.waitMs = waitMs;
+    }
+
+    public static class KeyInUseException extends RuntimeException {
+        public KeyInUseException() {
+            super("같은 요청을 처리 중입니다. 잠시 후 다시 시도해주세요.");
+        }
+    }
+
+    // What a replay needs; body is the original object in memory, or the stored JSON/text from the table
+    private static final class Stored {
+        final int status;
+        final HttpHeaders headers;
+        final Object body;
+
+        Stored(int status, HttpHeaders headers, Object body) {
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        static Stored of(ResponseEntity<?> response) {
+            return new Stored(response.getStatusCode().value(), HttpHeaders.readOnlyHttpHeaders(response.getHeaders()), response.getBody());
+        }
+
+        ResponseEntity<Object> replay() {
+            return ResponseEntity.status(status).headers(headers).header(REPLAYED_HEADER, "true").body(body);
+        }
+    }
+
+    /**
+     * Runs {@code handler} at most once per {@code scope} and key.
+     * Without a key it simply runs it.
+     */
+    public ResponseEntity<?> execute(String scope, String key, Supplier<ResponseEntity<?>> handler) {
+        if (key == null || key.isBlank()) {
+            return handler.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(HEADER + " is too long");
+        }
+        String storeKey = scope + ":" + key;
+
+        Stored cached = responses.get(storeKey);
+        if (cached != null) return cached.replay();
+
+        CompletableFuture<Stored> mine = new CompletableFuture<>();
+        CompletableFuture<Stored> running = inFlight.putIfAbsent(storeKey, mine);
+        if (running != null) return await(running);
+
+        try {
+            Stored stored = findStored(storeKey);
+            if (stored != null) {
+                mine.complete(stored);
+                return stored.replay();
+            }
+            ResponseEntity<?> response = run(storeKey, handler);
+            mine.complete(Stored.of(response));
+            return response;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(storeKey, mine);
+        }
+    }
+
+    // The handler commits (or queues) on its own; only the key record is written here
+    private ResponseEntity<?> run(String storeKey, Supplier<ResponseEntity<?>> handler) {
+        ResponseEntity<?> response = handler.get();
+        if (response.getStatusCode().is5xxServerError()) return response;
+        try {
+            transactionTemplate.execute(status -> {
+                persist(storeKey, response);
+                return null;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another instance ran the same key at the same moment; both handlers already went through
+            log.warn("Idempotency key {} was stored by another instance first", storeKey);
+        }
+        responses.put(storeKey, Stored.of(response));
+        return response;
+    }
+
+    private ResponseEntity<?> await(CompletableFuture<Stored> running) {
+        try {
+            return running.get(waitMs, TimeUnit.MILLISECONDS).replay();
+        } catch (TimeoutException e) {
+            throw new KeyInUseException();
+        } catch (ExecutionException e) {
+            // The first attempt failed; the duplicate reports the same failure
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KeyInUseException();
+        }
+    }
+
+    private void persist(String storeKey, ResponseEntity<?> response) {
+        String body;
+        MediaType contentType = response.getHeaders().getContentType();
+        if (response.getBody() == null || response.getBody() instanceof String) {
+            body = (String) response.getBody();
+            if (contentType == null && body != null) contentType = MediaType.TEXT_PLAIN;
+        } else {
+            try {
+                body = jsonMapper.writeValueAsString(response.getBody());
+                contentType = MediaType.APPLICATION_JSON;
+            } catch (JacksonException e) {
+                // Still deduplicated in memory, just not across a restart
+                log.warn("Could not store response for {}: {}", storeKey, e.getMessage());
+                return;
+            }
+        }
+        jdbcTemplate.update("INSERT INTO idempotency_key (idem_key, status, content_type, body, created_at) VALUES (?, ?, ?, ?, ?)",
+                storeKey, response.getStatusCode().value(), contentType == null ? null : contentType.toString(), body,
+                Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    private Stored findStored(String storeKey) {
+        List<Stored> rows = jdbcTemplate.query(
+                "SELECT status, content_type, body FROM idempotency_key WHERE idem_key = ? AND created_at > ?",
+                (rs, i) -> {
+                    HttpHeaders headers = new HttpHeaders();
+                    if (rs.getString(2) != null) headers.setContentType(MediaType.parseMediaType(rs.getString(2)));
+                    return new Stored(rs.getInt(1), headers, rs.getString(3));
+                },
+                storeKey, Timestamp.valueOf(LocalDateTime.now().minus(retention)));
+        if (rows.isEmpty()) return null;
+        responses.put(storeKey, rows.get(0));
+        return rows.get(0);
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-ms:3600000}")
+    public void purge() {
+        int purged = jdbcTemplate.update("DELETE FROM idempotency_key WHERE created_at < ?",
+                Timestamp.valueOf(LocalDateTime.now().minus(retention)));
+        if (purged > 0) log.info("Purged {} expired idempotency keys", purged);
+    }
+}
@@ -0,0 +1,149 @@
+package com.hong.thebaker.service;
+
+import com.hong.thebaker.event.ProductChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves legacy base64 images out of product.image_base64 into {@link ImageStore}.
+ *
+ * Rows are handled one at a time and each blob is decoded from a character
+ * stream straight into the store, so memory stays flat however large the table is.
+ * The column is only emptied here; dropping it is left to a manual migration once
+ * every environment has run this.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageMigrationJob {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ImageStore imageStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Value("${app.images.migrate-on-startup:true}")
+    private boolean migrateOnStartup;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (!migrateOnStartup) return;
+        Thread worker = new Thread(this::migrate, "image-migration");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // One run at a time; a lock so a staff request waiting here doesn't pin a virtual thread
+    public int migrate() {
+        lock.lock();
+        try {
+            return migrateRows();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int migrateRows() {
+        List<Map<String, Object>> rows;
+        try {
+            rows = jdbcTemplate.queryForList("SELECT id, image_url FROM product WHERE image_base64 IS NOT NULL");
+        } catch (DataAccessException e) {
+            // Fresh schemas never had the column
+            log.debug("No legacy image column: {}", e.getMessage());
+            return 0;
+        }
+
+        int migrated = 0;
+        for (Map<String, Object> row : rows) {
+            Long id = ((Number) row.get("id")).longValue();
+            try {
+                if (row.get("image_url") == null) {
+                    String url = copyToStore(id);
+                    if (url == null) continue;
+                    jdbcTemplate.update("UPDATE product SET image_url = ?, image_base64 = NULL WHERE id = ?", url, id);
+                } else {
+                    // Already re-uploaded elsewhere; the blob is dead weight
+                    jdbcTemplate.update("UPDATE product SET image_base64 = NULL WHERE id = ?", id);
+                }
+                migrated++;
+            } catch (RuntimeException e) {
+                log.warn("Image migration failed for product {}: {}", id, e.getMessage());
+            }
+        }
+
+        if (migrated > 0) {
+            log.info("Migrated {} product images to the image store", migrated);
+            eventPublisher.publishEvent(new ProductChangedEvent(null));
+        }
+        return migrated;
+    }
+
+    private String copyToStore(Long id) {
+        return jdbcTemplate.query("SELECT image_base64 FROM product WHERE id = ?", rs -> {
+            if (!rs.next()) return null;
+            Reader reader = rs.getCharacterStream(1);
+            if (reader == null) return null;
+            try (InputStream decoded = Base64.getMimeDecoder().wrap(payload(reader))) {
+                return imageStore.store(decoded);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, id);
+    }
+
+    // Skips a "data:image/jpeg;base64," prefix and exposes the base64 text as ASCII bytes
+    static InputStream payload(Reader source) throws IOException {
+        PushbackReader reader = new PushbackReader(new BufferedReader(source), 5);
+        char[] head = new char[5];
+        int n = reader.read(head);
+        if (n == 5 && "data:".equals(new String(head))) {
+            int c;
+            do {
+                c = reader.read();
+            } while (c != -1 && c != ',');
+        } else if (n > 0) {
+            reader.unread(head, 0, n);
+        }
+
+        return new InputStream() {
+            private final char[] buffer = new char[8192];
+
+            @Override
+            public int read() throws IOException {
+                return reader.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int count = reader.read(buffer, 0, Math.min(len, buffer.length));
+                for (int i = 0; i < count; i++) {
+                    b[off + i] = (byte) buffer[i];
+                }
+                return count;
+            }
+
+            @Override
+            public void close() throws IOException {
+                reader.close();
+            }
+        };
+    }
+}
@@ -0,0 +1,132 @@
+package com.hong.thebaker.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Product images on local disk, named by the SHA-256 of their bytes.
+ *
+ * A name never points at different content, so files can be cached forever and
+ * the same upload twice costs one file. Each original gets a "-thumb.jpg" sibling
+ * for list views.
+ */
+@Slf4j
+@Service
+public class ImageStore {
+
+    public static final String URL_PREFIX = "/images/p/";
+    private static final Pattern FILE_NAME = Pattern.compile("[0-9a-f]{64}(-thumb)?\\.(jpg|png|gif|webp)");
+    private static final int THUMB_WIDTH = 320;
+
+    private final Path root;
+
+    public ImageStore(@Value("${app.images.dir:./data/images}") String dir) throws IOException {
+        this.root = Paths.get(dir).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+    }
+
+    /**
+     * Streams the image to disk while hashing it and returns its public URL.
+     * The bytes are never held in memory as a whole.
+     */
+    public String store(InputStream in) throws IOException {
+        Path tmp = Files.createTempFile(root, "upload-", ".tmp");
+        try {
+            MessageDigest sha = sha256();
+            try (InputStream digestIn = new DigestInputStream(in, sha);
+                 OutputStream out = Files.newOutputStream(tmp)) {
+                digestIn.transferTo(out);
+            }
+
+            String hash = HexFormat.of().formatHex(sha.digest());
+            Path target = root.resolve(hash + "." + extensionOf(tmp));
+            if (!Files.exists(target)) {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+                writeThumbnail(target, root.resolve(hash + "-thumb.jpg"));
+            }
+            return URL_PREFIX + target.getFileName();
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    // Only names this store could have produced, so a request can't walk out of the directory
+    public Optional<Path> resolve(String fileName) {
+        if (fileName == null || !FILE_NAME.matcher(fileName).matches()) return Optional.empty();
+        Path file = root.resolve(fileName);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    public static String contentType(String fileName) {
+        if (fileName.endsWith(".png")) return "image/png";
+        if (fileName.endsWith(".gif")) return "image/gif";
+        if (fileName.endsWith(".webp")) return "image/webp";
+        return "image/jpeg";
+    }
+
+    // Trusts the magic bytes, not the upload's file name or content type
+    private static String extensionOf(Path file) throws IOException {
+        byte[] head = new byte[12];
+        int n;
+        try (InputStream in = Files.newInputStream(file)) {
+            n = in.readNBytes(head, 0, head.length);
+        }
+        if (n >= 3 && (head[0] & 0xff) == 0xFF && (head[1] & 0xff) == 0xD8 && (head[2] & 0xff) == 0xFF) return "jpg";
+        if (n >= 4 && (head[0] & 0xff) == 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G') return "png";
+        if (n >= 4 && head[0] == 'G' && head[1] == 'I' && head[2] == 'F' && head[3] == '8') return "gif";
+        if (n >= 12 && head[0] == 'R' && head[1] == 'I' && head[2] == 'F' && head[3] == 'F'
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') return "webp";
+        throw new IOException("Unsupported image type");
+    }
+
+    private void writeThumbnail(Path source, Path target) {
+        try {
+            BufferedImage image = ImageIO.read(source.toFile());
+            if (image == null) return; // e.g. webp without a plugin; the original still serves
+
+            int width = Math.min(THUMB_WIDTH, image.getWidth());
+            int height = Math.max(1, image.getHeight() * width / image.getWidth());
+            BufferedImage thumb = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = thumb.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setColor(Color.WHITE); // JPEG has no alpha, flatten transparent PNGs onto white
+                g.fillRect(0, 0, width, height);
+                g.drawImage(image, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            ImageIO.write(thumb, "jpg", target.toFile());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Thumbnail failed for {}: {}", source.getFileName(), e.getMessage());
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.hong.thebaker.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Backend that takes a spooled image file and returns the URL it is served from.
+ * Pick one with {@code app.images.backend}: cloudinary (the default) or local.
+ */
+public interface ImageUploadClient {
+
+    String upload(Path file) throws IOException;
+}
@@ -0,0 +1,165 @@
+package com.hong.thebaker.service;
+
+import com.hong.thebaker.event.ProductChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Uploads product images off the request thread.
+ *
+ * The controller spools the multipart file to disk (a rename of the container's
+ * temp file), saves the product as PENDING and returns. A small bounded pool
+ * then hands the file to the {@link ImageUploadClient}, retrying with backoff,
+ * and writes image_url/image_status when it is done.
+ */
+@Slf4j
+@Service
+public class ImageUploadService {
+
+    private final ImageUploadClient client;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Path spoolDir;
+    private final int maxAttempts;
+    private final long backoffMs;
+    private final ThreadPoolExecutor executor;
+
+    // Newest spooled file per product; an older upload that finishes late must not overwrite it
+    private final Map<Long, Path> latest = new ConcurrentHashMap<>();
+
+    public ImageUploadService(ImageUploadClient client,
+                              JdbcTemplate jdbcTemplate,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${app.images.spool-dir:./data/uploads}") String spoolDir,
+                              @Value("${app.images.upload-threads:2}") int threads,
+                              @Value("${app.images.upload-queue:50}") int queueCapacity,
+                              @Value("${app.images.upload-attempts:3}") int maxAttempts,
+                              @Value("${app.images.upload-backoff-ms:1000}") long backoffMs) throws IOException {
+        this.client = client;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.spoolDir = Paths.get(spoolDir).toAbsolutePath().normalize();
+        this.maxAttempts = maxAttempts;
+        this.backoffMs = backoffMs;
+        Files.createDirectories(this.spoolDir);
+
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+            Thread t = new Thread(r, "image-upload-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // Spooled files don't survive a restart in a usable state; let staff re-upload
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        int stale = jdbcTemplate.update("UPDATE product SET image_status = 'FAILED' WHERE image_status = 'PENDING'");
+        if (stale > 0) log.warn("{} image uploads were lost on restart", stale);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(spoolDir, "*.img")) {
+            for (Path file : files) deleteQuietly(file);
+        } catch (IOException e) {
+            log.warn("Could not clean image spool: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /** Moves the multipart temp file into the spool before the request ends and the container deletes it. */
+    public Path spool(MultipartFile file) {
+        Path target = spoolDir.resolve(UUID.randomUUID() + ".img");
+        try {
+            file.transferTo(target);
+            return target;
+        } catch (IOException e) {
+            log.error("Failed to spool image: {}", e.getMessage());
+            throw new RuntimeException("Image upload failed");
+        }
+    }
+
+    public void submit(Long productId, Path file) {
+        latest.put(productId, file);
+        try {
+            executor.execute(() -> upload(productId, file));
+        } catch (RejectedExecutionException e) {
+            log.warn("Image upload queue full, product {} left without a new image", productId);
+            finish(productId, file, null);
+        }
+    }
+
+    private void upload(Long productId, Path file) {
+        String url = null;
+        for (int attempt = 1; attempt <= maxAttempts && url == null; attempt++) {
+            if (!file.equals(latest.get(productId))) break; // superseded by a newer upload
+            try {
+                url = client.upload(file);
+            } catch (Exception e) {
+                log.warn("Image upload for product {} failed (attempt {}/{}): {}",
+                        productId, attempt, maxAttempts, e.getMessage());
+                if (attempt < maxAttempts && !sleep(backoffMs * attempt)) break;
+            }
+        }
+        finish(productId, file, url);
+    }
+
+    private void finish(Long productId, Path file, String url) {
+        try {
+            if (!latest.remove(productId, file)) return;
+            // Column-level update so a concurrent edit of name/price/stock is not overwritten
+            if (url != null) {
+                jdbcTemplate.update("UPDATE product SET image_url = ?, image_status = 'READY' WHERE id = ?", url, productId);
+            } else {
+                jdbcTemplate.update("UPDATE product SET image_status = 'FAILED' WHERE id = ?", productId);
+            }
+            eventPublisher.publishEvent(new ProductChangedEvent(productId));
+        } catch (RuntimeException e) {
+            log.error("Failed to record image upload for product {}: {}", productId, e.getMessage());
+        } finally {
+            deleteQuietly(file);
+        }
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete spooled image {}: {}", file, e.getMessage());
+        }
+    }
+}
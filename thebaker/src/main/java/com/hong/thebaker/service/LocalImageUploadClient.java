@@ -0,0 +1,25 @@
+package com.hong.thebaker.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.images.backend", havingValue = "local")
+public class LocalImageUploadClient implements ImageUploadClient {
+
+    private final ImageStore imageStore;
+
+    @Override
+    public String upload(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return imageStore.store(in);
+        }
+    }
+}
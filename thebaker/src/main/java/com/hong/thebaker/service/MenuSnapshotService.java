@@ -0,0 +1,161 @@
+package com.hong.thebaker.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hong.thebaker.entity.Product;
+import com.hong.thebaker.event.ProductChangedEvent;
+import com.hong.thebaker.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.DayOfWeek;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Pre-serialized GET /api/products responses, one per day of the week.
+ *
+ * Snapshots are rebuilt off the request path after any product change commits,
+ * so menu reads are a map lookup and never touch the database once warm.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MenuSnapshotService {
+
+    private final ProductRepository productRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final ReentrantLock buildLock = new ReentrantLock();
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "menu-snapshot");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile Map<DayOfWeek, MenuSnapshot> snapshots;
+
+    @Getter
+    @AllArgsConstructor
+    public static class MenuSnapshot {
+        private final byte[] json;
+        private final String etag;
+    }
+
+    public MenuSnapshot get(DayOfWeek day) {
+        Map<DayOfWeek, MenuSnapshot> current = snapshots;
+        if (current == null) current = firstBuild();
+        return current.get(day);
+    }
+
+    // A burst of orders collapses into one rebuild: events that arrive while one is queued are absorbed
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuilder.execute(() -> {
+                rebuildPending.set(false);
+                try {
+                    rebuild();
+                } catch (Exception e) {
+                    log.error("Menu snapshot rebuild failed: {}", e.getMessage());
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        rebuilder.shutdownNow();
+    }
+
+    private Map<DayOfWeek, MenuSnapshot> firstBuild() {
+        buildLock.lock();
+        try {
+            return snapshots != null ? snapshots : rebuild();
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    // A lock, not synchronized: the first build runs on a request thread and waits on JDBC
+    Map<DayOfWeek, MenuSnapshot> rebuild() {
+        buildLock.lock();
+        try {
+            return build();
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    private Map<DayOfWeek, MenuSnapshot> build() {
+        List<Product> allProducts = productRepository.findAll();
+
+        Map<DayOfWeek, MenuSnapshot> next = new EnumMap<>(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            List<Product> menu = allProducts.stream()
+                    .filter(product -> isAvailableOnDay(product, day))
+                    .collect(Collectors.toList());
+            byte[] json = serialize(menu);
+            next.put(day, new MenuSnapshot(json, etagOf(json)));
+        }
+        snapshots = next;
+        return next;
+    }
+
+    static boolean isAvailableOnDay(Product product, DayOfWeek day) {
+        return isAvailableOnDay(product.getCategory(), day);
+    }
+
+    static boolean isAvailableOnDay(String type, DayOfWeek day) {
+        if (type == null || type.equals("ALL")) return true;
+
+        // HARD BREAD: Thu, Fri, Sat
+        if (type.equals("HARD")) {
+            return day == DayOfWeek.THURSDAY ||
+                    day == DayOfWeek.FRIDAY ||
+                    day == DayOfWeek.SATURDAY;
+        }
+
+        // SOFT BREAD: Sun, Mon, Wed
+        if (type.equals("SOFT")) {
+            return day == DayOfWeek.SUNDAY ||
+                    day == DayOfWeek.MONDAY ||
+                    day == DayOfWeek.WEDNESDAY;
+        }
+
+        return false;
+    }
+
+    private byte[] serialize(List<Product> menu) {
+        try {
+            return objectMapper.writeValueAsBytes(menu);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Menu serialization failed: " + e.getMessage());
+        }
+    }
+
+    // Strong validator: same bytes, same tag
+    private static String etagOf(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.hong.thebaker.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hong.thebaker.dto.ModelVersionInfo;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The prediction model in use, and the few before it.
+ *
+ * Starts from the ml_model.json bundled in the jar, then from the newest
+ * *.json in {@code app.model.dir}. A watcher thread picks up linear models that
+ * scripts/legacy/train_model.py writes there later (the XGBoost model from
+ * train_xgb.py belongs to {@link TreeForecastService}; its *.categories.json
+ * side files are ignored here). Each is parsed and validated on
+ * that thread, and only a fully compiled model is published, with a single
+ * volatile write. Predictions read the reference once per call or batch, so
+ * they never mix two models. A file that fails validation is logged and the
+ * current model stays.
+ *
+ * Versions are the first 12 hex chars of the file's SHA-256, so the same
+ * file loaded twice is one version. {@link #rollback} switches to an older
+ * loaded version; the next file written to the directory replaces it again.
+ */
+@Slf4j
+@Service
+public class ModelRegistry {
+
+    private static final String BUNDLED = "ml_model.json";
+
+    private final boolean watch;
+    private final Path dir;
+    private final int keep;
+    private final long settleMs;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    // Swaps from the watcher and from rollback() are serialised; readers never lock
+    private final ReentrantLock swapLock = new ReentrantLock();
+    private volatile CompiledModel current = CompiledModel.EMPTY;
+    // Loaded versions, newest first, copied on every change
+    private volatile List<CompiledModel> history = List.of();
+    private volatile String lastError;
+
+    private WatchService watchService;
+    private Thread watcher;
+
+    public ModelRegistry(@Value("${app.model.watch:true}") boolean watch,
+                         @Value("${app.model.dir:./data/models}") String dir,
+                         @Value("${app.model.keep:5}") int keep,
+                         @Value("${app.model.settle-ms:500}") long settleMs) {
+        this.watch = watch;
+        this.dir = Paths.get(dir).toAbsolutePath().normalize();
+        this.keep = Math.max(keep, 1);
+        this.settleMs = settleMs;
+    }
+
+    public static class UnknownVersionException extends RuntimeException {
+        public UnknownVersionException(String message) {
+            super(message);
+        }
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        try (InputStream is = new ClassPathResource(BUNDLED).getInputStream()) {
+            install(compile(is.readAllBytes(), "classpath:" + BUNDLED));
+        } catch (RuntimeException | IOException e) {
+            // Same as before the registry: no bundled model means "No Data" until a file arrives
+            log.error("Bundled prediction model failed to load: {}", e.getMessage());
+        }
+        if (Files.isDirectory(dir)) {
+            newestFile().ifPresent(this::load);
+        }
+        if (!watch) return;
+
+        Files.createDirectories(dir);
+        watchService = dir.getFileSystem().newWatchService();
+        dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        watcher = new Thread(this::watchLoop, "model-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        log.info("Watching {} for new prediction models (active: {})", dir, current.version);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (watchService != null) watchService.close();
+        if (watcher != null) watcher.interrupt();
+    }
+
+    CompiledModel current() {
+        return current;
+    }
+
+    public List<ModelVersionInfo> versions() {
+        CompiledModel active = current;
+        List<ModelVersionInfo> versions = new ArrayList<>();
+        for (CompiledModel m : history) {
+            versions.add(new ModelVersionInfo(m.version, m.source, m.size(), m.loadedAt, m == active));
+        }
+        return versions;
+    }
+
+    public String lastError() {
+        return lastError;
+    }
+
+    /**
+     * Loads a model file and makes it current if it compiles.
+     * Returns false, keeping the current model, when it doesn't.
+     */
+    public boolean load(Path file) {
+        try {
+            install(compile(Files.readAllBytes(file), file.toString()));
+            return true;
+        } catch (IOException | RuntimeException e) {
+            lastError = file.getFileName() + ": " + e.getMessage();
+            log.warn("Prediction model {} rejected, keeping {}: {}", file, current.version, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Switches back to an already loaded version, or to the one loaded before
+     * the current one when {@code version} is null.
+     */
+    public ModelVersionInfo rollback(String version) {
+        swapLock.lock();
+        try {
+            List<CompiledModel> loaded = history;
+            int at = loaded.indexOf(current);
+            CompiledModel target = null;
+            if (version == null) {
+                if (at >= 0 && at + 1 < loaded.size()) target = loaded.get(at + 1);
+            } else {
+                for (CompiledModel m : loaded) {
+                    if (m.version.equals(version)) target = m;
+                }
+            }
+            if (target == null) {
+                throw new UnknownVersionException(version == null
+                        ? "되돌릴 이전 모델이 없습니다."
+                        : "해당 모델 버전을 찾을 수 없습니다: " + version);
+            }
+            current = target;
+            log.info("Prediction model rolled back to {} ({})", target.version, target.source);
+            return new ModelVersionInfo(target.version, target.source, target.size(), target.loadedAt, true);
+        } finally {
+            swapLock.unlock();
+        }
+    }
+
+    private CompiledModel compile(byte[] json, String source) throws IOException {
+        return CompiledModel.compile(mapper.readTree(json), versionOf(json), source);
+    }
+
+    private void install(CompiledModel model) {
+        swapLock.lock();
+        try {
+            if (model.version.equals(current.version)) return; // editors often write a file twice
+            List<CompiledModel> loaded = new ArrayList<>(keep + 1);
+            loaded.add(model);
+            for (CompiledModel m : history) {
+                if (!m.version.equals(model.version) && loaded.size() < keep) loaded.add(m);
+            }
+            history = List.copyOf(loaded);
+            current = model;
+            lastError = null;
+            log.info("Prediction model {} active ({} products, from {})", model.version, model.size(), model.source);
+        } finally {
+            swapLock.unlock();
+        }
+    }
+
+    private void watchLoop() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+                // A trainer writes in several chunks; let it finish before reading
+                Thread.sleep(settleMs);
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            Set<Path> changed = new LinkedHashSet<>();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    newestFile().ifPresent(changed::add);
+                } else if (isModelFile((Path) event.context())) {
+                    changed.add(dir.resolve((Path) event.context()));
+                }
+            }
+            changed.stream().filter(Files::isRegularFile).forEach(this::load);
+            if (!key.reset()) {
+                log.error("Model directory {} is gone; no longer watching", dir);
+                return;
+            }
+        }
+    }
+
+    private Optional<Path> newestFile() {
+        Path newest = null;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, ModelRegistry::isModelFile)) {
+            for (Path file : files) {
+                if (newest == null || Files.getLastModifiedTime(file).compareTo(Files.getLastModifiedTime(newest)) > 0) {
+                    newest = file;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not list model directory {}: {}", dir, e.getMessage());
+        }
+        return Optional.ofNullable(newest);
+    }
+
+    // *.json, minus the category maps train_xgb.py writes next to its models
+    static boolean isModelFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(".json") && !name.endsWith(".categories.json");
+    }
+
+    private static String versionOf(byte[] json) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json)).substring(0, 12);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
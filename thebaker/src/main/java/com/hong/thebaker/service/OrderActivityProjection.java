@@ -0,0 +1,81 @@
+package com.hong.thebaker.service;
+
+import com.hong.thebaker.dto.OrderLogEvent;
+import com.hong.thebaker.entity.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Transitions per day and status (PENDING = orders placed), built only from the
+ * {@link OrderEventLog}: replayed from the first record at startup, then kept
+ * current by a tailing reader. Nothing here queries the orders table.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderActivityProjection {
+
+    private final OrderEventLog eventLog;
+
+    private final ConcurrentHashMap<LocalDate, AtomicLongArray> byDay = new ConcurrentHashMap<>();
+    private OrderEventLog.Tailer tailer;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        if (!eventLog.isOpen()) return;
+        byDay.clear();
+        long replayed = eventLog.replay(0, this::apply);
+        tailer = eventLog.tail(eventLog.lastSequence());
+        catchUp();
+        log.info("Order activity rebuilt from {} logged transitions", replayed);
+    }
+
+    @Scheduled(fixedDelayString = "${app.order-log.projection-ms:1000}")
+    public synchronized void catchUp() {
+        if (tailer == null) return;
+        try {
+            List<OrderLogEvent> events;
+            while (!(events = tailer.next(1024, Duration.ZERO)).isEmpty()) {
+                events.forEach(this::apply);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void apply(OrderLogEvent event) {
+        LocalDate day = Instant.ofEpochMilli(event.getTimestamp()).atZone(PickupSlotService.ZONE).toLocalDate();
+        byDay.computeIfAbsent(day, d -> new AtomicLongArray(OrderStatus.values().length))
+                .incrementAndGet(event.getStatus().ordinal());
+    }
+
+    // Newest day first
+    public Map<LocalDate, Map<OrderStatus, Long>> lastDays(int days) {
+        LocalDate today = PickupSlotService.today();
+        Map<LocalDate, Map<OrderStatus, Long>> result = new LinkedHashMap<>();
+        for (int i = 0; i < Math.max(1, Math.min(days, 366)); i++) {
+            LocalDate day = today.minusDays(i);
+            AtomicLongArray counts = byDay.get(day);
+            Map<OrderStatus, Long> row = new EnumMap<>(OrderStatus.class);
+            for (OrderStatus status : OrderStatus.values()) {
+                row.put(status, counts == null ? 0 : counts.get(status.ordinal()));
+            }
+            result.put(day, row);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,257 @@
+package com.hong.thebaker.service;
+
+import com.hong.thebaker.event.OrderStatusChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pushes committed order transitions to SSE subscribers.
+ *
+ * Staff subscribe to every order, customers to their own. Each event gets a
+ * sequence number and the last {@value #HISTORY} are kept in a ring, so a client
+ * that reconnects with Last-Event-ID gets what it missed. One dispatcher thread
+ * orders events into a small outbox per subscriber; the blocking writes happen
+ * on a bounded sender pool, one drain at a time per subscriber, so a client
+ * with a full TCP window only holds up itself. A subscriber that falls
+ * {@code app.sse.max-pending} events behind is dropped and resumes on reconnect.
+ */
+@Slf4j
+@Service
+public class OrderEventBroadcaster {
+
+    static final int HISTORY = 256;
+
+    private final int maxConnections;
+    private final long timeoutMs;
+    private final int maxPending;
+
+    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "order-events");
+        t.setDaemon(true);
+        return t;
+    });
+    private final ExecutorService senders;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connections = new AtomicInteger();
+
+    // Only touched on the dispatcher thread, except the volatile read in currentSequence()
+    private final Entry[] history = new Entry[HISTORY];
+    private volatile long lastSequence;
+
+    public OrderEventBroadcaster(@Value("${app.sse.max-connections:500}") int maxConnections,
+                                 @Value("${app.sse.heartbeat-ms:15000}") long heartbeatMs,
+                                 @Value("${app.sse.timeout-ms:1800000}") long timeoutMs,
+                                 @Value("${app.sse.send-threads:8}") int sendThreads,
+                                 @Value("${app.sse.max-pending:64}") int maxPending) {
+        this.maxConnections = maxConnections;
+        this.timeoutMs = timeoutMs;
+        this.maxPending = maxPending;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(sendThreads, r -> {
+            Thread t = new Thread(r, "order-events-send-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        // Keeps proxies from closing idle streams and finds dead clients
+        dispatcher.scheduleWithFixedDelay(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    public static class TooManySubscribersException extends RuntimeException {
+        public TooManySubscribersException() {
+            super("실시간 알림 연결이 너무 많습니다. 잠시 후 다시 시도해주세요.");
+        }
+    }
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final Long orderId; // null = staff feed
+        final Queue<SseEmitter.SseEventBuilder> outbox = new ConcurrentLinkedQueue<>();
+        final AtomicInteger pending = new AtomicInteger();
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, Long orderId) {
+            this.emitter = emitter;
+            this.orderId = orderId;
+        }
+
+        boolean wants(OrderStatusChangedEvent event) {
+            return orderId == null || orderId.equals(event.getOrderId());
+        }
+    }
+
+    private static final class Entry {
+        final long sequence;
+        final OrderStatusChangedEvent event;
+
+        Entry(long sequence, OrderStatusChangedEvent event) {
+            this.sequence = sequence;
+            this.event = event;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        dispatcher.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(s -> s.emitter.complete());
+    }
+
+    public long currentSequence() {
+        return lastSequence;
+    }
+
+    public SseEmitter subscribeStaff(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        register(emitter, null, lastEventId, null);
+        return emitter;
+    }
+
+    /**
+     * The current status is read after the sequence is noted, and everything
+     * after that sequence is replayed, so a change racing the connect isn't lost.
+     */
+    public SseEmitter subscribeOrder(Long orderId, Long lastEventId, Supplier<String> currentStatus) {
+        long since = lastEventId != null ? lastEventId : currentSequence();
+        String status = currentStatus.get();
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        register(emitter, orderId, since, payload(orderId, status));
+        return emitter;
+    }
+
+    void register(SseEmitter emitter, Long orderId, Long lastEventId, Map<String, Object> snapshot) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            throw new TooManySubscribersException();
+        }
+
+        Subscriber subscriber = new Subscriber(emitter, orderId);
+        Runnable remove = () -> {
+            if (subscribers.remove(subscriber)) connections.decrementAndGet();
+        };
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+
+        dispatcher.execute(() -> {
+            subscribers.add(subscriber);
+            if (snapshot != null) send(subscriber, SseEmitter.event().name("status").data(snapshot, MediaType.APPLICATION_JSON));
+            if (lastEventId != null) replay(subscriber, lastEventId);
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        dispatcher.execute(() -> {
+            long sequence = lastSequence + 1;
+            Entry entry = new Entry(sequence, event);
+            history[(int) (sequence % HISTORY)] = entry;
+            lastSequence = sequence;
+
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.wants(event)) send(subscriber, toSse(entry));
+            }
+        });
+    }
+
+    public int connectionCount() {
+        return connections.get();
+    }
+
+    private void replay(Subscriber subscriber, long lastEventId) {
+        long oldest = Math.max(1, lastSequence - HISTORY + 1);
+        if (lastEventId > lastSequence || lastEventId + 1 < oldest) {
+            // Restarted server or too far behind: the client has to reload instead
+            if (subscriber.orderId == null) send(subscriber, SseEmitter.event().name("reset").data("reload"));
+            return;
+        }
+        for (long seq = lastEventId + 1; seq <= lastSequence; seq++) {
+            Entry entry = history[(int) (seq % HISTORY)];
+            if (subscriber.wants(entry.event)) send(subscriber, toSse(entry));
+        }
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            send(subscriber, SseEmitter.event().comment("ping"));
+        }
+    }
+
+    // Queues the event on the dispatcher thread; the write itself happens in drain()
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (subscriber.closed) return;
+        if (subscriber.pending.incrementAndGet() > maxPending) {
+            // Too slow to keep up; its drain completes the emitter once the stuck write returns
+            log.warn("SSE subscriber {} fell {} events behind, dropping it", subscriber.orderId, maxPending);
+            close(subscriber);
+            return;
+        }
+        subscriber.outbox.add(event);
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    // Runs on a sender thread; only one drain per subscriber at a time keeps its events in order
+    private void drain(Subscriber subscriber) {
+        do {
+            SseEmitter.SseEventBuilder event;
+            while ((event = subscriber.outbox.poll()) != null) {
+                subscriber.pending.decrementAndGet();
+                if (subscriber.closed) break;
+                try {
+                    subscriber.emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    // Client went away
+                    close(subscriber);
+                }
+            }
+            if (subscriber.closed) {
+                subscriber.outbox.clear();
+                subscriber.emitter.complete();
+                return; // draining stays set, so nothing is scheduled again
+            }
+            subscriber.draining.set(false);
+        } while (!subscriber.outbox.isEmpty() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    private void close(Subscriber subscriber) {
+        subscriber.closed = true;
+        if (subscribers.remove(subscriber)) connections.decrementAndGet();
+    }
+
+    private static SseEmitter.SseEventBuilder toSse(Entry entry) {
+        OrderStatusChangedEvent event = entry.event;
+        return SseEmitter.event()
+                .id(String.valueOf(entry.sequence))
+                .name("status")
+                .data(payload(event.getOrderId(), event.getStatus().name()), MediaType.APPLICATION_JSON);
+    }
+
+    private static Map<String, Object> payload(Long orderId, String status) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("orderId", orderId);
+        data.put("status", status);
+        return data;
+    }
+}
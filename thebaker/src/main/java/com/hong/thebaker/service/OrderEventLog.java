@@ -0,0 +1,342 @@
+package com.hong.thebaker.service;
+
+import com.hong.thebaker.dto.OrderLogEvent;
+import com.hong.thebaker.entity.OrderStatus;
+import com.hong.thebaker.event.OrderStatusChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary log of committed order transitions.
+ *
+ * Every committed {@link OrderStatusChangedEvent} becomes one {@value #RECORD_BYTES}-byte
+ * record in a preallocated, memory-mapped segment file, so an append is a few
+ * puts into the page cache; a background task forces the segment to disk every
+ * {@code fsync-ms}. Records have a fixed size, so sequence N sits at a computed
+ * segment and offset: replay and tailing readers seek straight to it and never
+ * touch the orders table. On startup the last segment is scanned up to the first
+ * record whose sequence or checksum is off, which is where a crash left it.
+ *
+ * Record: sequence, order id, epoch millis (8 bytes each), previous and new
+ * status (1 byte each, ordinal + 1, 0 = none), 2 spare, CRC32 of the first 28.
+ */
+@Slf4j
+@Service
+public class OrderEventLog {
+
+    static final int RECORD_BYTES = 32;
+    private static final int CHECKED_BYTES = 28;
+    private static final String PREFIX = "order-events-";
+    private static final String SUFFIX = ".log";
+    // Statuses are stored by ordinal: add new OrderStatus values at the end only
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final boolean enabled;
+    private final Path dir;
+    private final int segmentBytes;
+    private final int recordsPerSegment;
+    private final long fsyncMs;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Condition appended = appendLock.newCondition();
+    private final ConcurrentHashMap<Integer, MappedByteBuffer> segments = new ConcurrentHashMap<>();
+    private MappedByteBuffer active; // guarded by appendLock
+    private int activeIndex;
+    // Readers only look at records up to here; written after the record itself
+    private volatile long lastSequence;
+    private volatile boolean dirty;
+    private volatile boolean open;
+
+    private FileChannel lockChannel;
+    private FileLock dirLock;
+    private ScheduledExecutorService syncer;
+
+    public OrderEventLog(@Value("${app.order-log.enabled:true}") boolean enabled,
+                         @Value("${app.order-log.dir:./data/order-events}") String dir,
+                         @Value("${app.order-log.segment-bytes:8388608}") int segmentBytes,
+                         @Value("${app.order-log.fsync-ms:1000}") long fsyncMs) {
+        this.enabled = enabled;
+        this.dir = Paths.get(dir).toAbsolutePath().normalize();
+        this.recordsPerSegment = segmentBytes / RECORD_BYTES;
+        this.segmentBytes = recordsPerSegment * RECORD_BYTES;
+        this.fsyncMs = fsyncMs;
+    }
+
+    /**
+     * A tailing reader: each call returns what was appended since the last one,
+     * optionally waiting for something new.
+     */
+    public final class Tailer {
+        private long position;
+
+        private Tailer(long afterSequence) {
+            this.position = afterSequence;
+        }
+
+        public List<OrderLogEvent> next(int max, Duration wait) throws InterruptedException {
+            List<OrderLogEvent> events = poll(position, max, wait);
+            if (!events.isEmpty()) position = events.get(events.size() - 1).getSequence();
+            return events;
+        }
+
+        public long position() {
+            return position;
+        }
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) return;
+        Files.createDirectories(dir);
+        if (!lockDirectory()) {
+            log.warn("Order event log {} is in use by another instance; not logging here", dir);
+            return;
+        }
+
+        int last = lastSegmentIndex();
+        activeIndex = Math.max(last, 0);
+        active = segment(activeIndex);
+        long sequence = (long) activeIndex * recordsPerSegment;
+        for (int slot = 0; slot < recordsPerSegment && valid(active, slot, sequence + 1); slot++) {
+            sequence++;
+        }
+        lastSequence = sequence;
+        open = true;
+
+        syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "order-log-fsync");
+            t.setDaemon(true);
+            return t;
+        });
+        syncer.scheduleWithFixedDelay(this::forceQuietly, fsyncMs, fsyncMs, TimeUnit.MILLISECONDS);
+        log.info("Order event log at {} (last sequence {})", dir, lastSequence);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (!open) return;
+        open = false;
+        syncer.shutdown();
+        appendLock.lock();
+        try {
+            active.force();
+        } finally {
+            appendLock.unlock();
+        }
+        dirLock.release();
+        lockChannel.close();
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    // After commit only: a rolled-back transition never happened
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        if (!open) return;
+        try {
+            append(event.getOrderId(), event.getPreviousStatus(), event.getStatus(), System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            log.error("Could not log transition of order {}: {}", event.getOrderId(), e.getMessage());
+        }
+    }
+
+    long append(long orderId, OrderStatus previous, OrderStatus status, long timestamp) {
+        appendLock.lock();
+        try {
+            long sequence = lastSequence + 1;
+            int index = (int) ((sequence - 1) / recordsPerSegment);
+            if (index != activeIndex) {
+                // The full segment is sealed on disk before writing moves on
+                active.force();
+                active = segment(index);
+                activeIndex = index;
+            }
+            int pos = (int) ((sequence - 1) % recordsPerSegment) * RECORD_BYTES;
+            active.putLong(pos, sequence);
+            active.putLong(pos + 8, orderId);
+            active.putLong(pos + 16, timestamp);
+            active.put(pos + 24, code(previous));
+            active.put(pos + 25, code(status));
+            active.putShort(pos + 26, (short) 0);
+            active.putInt(pos + CHECKED_BYTES, checksum(active, pos));
+
+            lastSequence = sequence;
+            dirty = true;
+            appended.signalAll();
+            return sequence;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /** Up to {@code max} events after {@code afterSequence}, oldest first. */
+    public List<OrderLogEvent> read(long afterSequence, int max) {
+        long last = lastSequence;
+        List<OrderLogEvent> events = new ArrayList<>((int) Math.max(0, Math.min(max, last - afterSequence)));
+        for (long sequence = Math.max(afterSequence, 0) + 1; sequence <= last && events.size() < max; sequence++) {
+            events.add(decode(sequence));
+        }
+        return events;
+    }
+
+    // Same, but waits up to `wait` for the first new event when there is none yet
+    public List<OrderLogEvent> poll(long afterSequence, int max, Duration wait) throws InterruptedException {
+        if (lastSequence <= afterSequence && !wait.isZero()) {
+            appendLock.lock();
+            try {
+                long nanos = wait.toNanos();
+                while (lastSequence <= afterSequence && nanos > 0) {
+                    nanos = appended.awaitNanos(nanos);
+                }
+            } finally {
+                appendLock.unlock();
+            }
+        }
+        return read(afterSequence, max);
+    }
+
+    /** Feeds every event after {@code afterSequence} to {@code consumer}; returns how many. */
+    public long replay(long afterSequence, Consumer<OrderLogEvent> consumer) {
+        long count = 0;
+        List<OrderLogEvent> chunk;
+        long position = afterSequence;
+        while (!(chunk = read(position, 1024)).isEmpty()) {
+            chunk.forEach(consumer);
+            count += chunk.size();
+            position = chunk.get(chunk.size() - 1).getSequence();
+        }
+        return count;
+    }
+
+    public Tailer tail(long afterSequence) {
+        return new Tailer(afterSequence);
+    }
+
+    private OrderLogEvent decode(long sequence) {
+        MappedByteBuffer segment = segment((int) ((sequence - 1) / recordsPerSegment));
+        int pos = (int) ((sequence - 1) % recordsPerSegment) * RECORD_BYTES;
+        return new OrderLogEvent(
+                segment.getLong(pos),
+                segment.getLong(pos + 8),
+                segment.getLong(pos + 16),
+                status(segment.get(pos + 24)),
+                status(segment.get(pos + 25)));
+    }
+
+    private boolean valid(ByteBuffer segment, int slot, long expectedSequence) {
+        int pos = slot * RECORD_BYTES;
+        return segment.getLong(pos) == expectedSequence
+                && segment.getInt(pos + CHECKED_BYTES) == checksum(segment, pos);
+    }
+
+    private static int checksum(ByteBuffer segment, int pos) {
+        ByteBuffer record = segment.duplicate();
+        record.position(pos).limit(pos + CHECKED_BYTES);
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        return (int) crc.getValue();
+    }
+
+    private static byte code(OrderStatus status) {
+        return status == null ? 0 : (byte) (status.ordinal() + 1);
+    }
+
+    private static OrderStatus status(byte code) {
+        return code == 0 ? null : STATUSES[code - 1];
+    }
+
+    // Mapped once and kept; the mapping outlives the channel
+    private MappedByteBuffer segment(int index) {
+        return segments.computeIfAbsent(index, i -> {
+            Path file = dir.resolve(String.format("%s%06d%s", PREFIX, i, SUFFIX));
+            try (FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private int lastSegmentIndex() throws IOException {
+        int last = -1;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    last = Math.max(last, Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    log.warn("Ignoring unexpected file in order event log: {}", name);
+                }
+            }
+        }
+        return last;
+    }
+
+    // Two writers on one directory would interleave sequences; the second one stays off
+    private boolean lockDirectory() throws IOException {
+        lockChannel = FileChannel.open(dir.resolve("LOCK"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            dirLock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            dirLock = null;
+        }
+        if (dirLock == null) {
+            lockChannel.close();
+            return false;
+        }
+        return true;
+    }
+
+    private void forceQuietly() {
+        if (!dirty) return;
+        dirty = false;
+        MappedByteBuffer segment;
+        appendLock.lock();
+        try {
+            segment = active;
+        } finally {
+            appendLock.unlock();
+        }
+        try {
+            segment.force();
+        } catch (RuntimeException e) {
+            dirty = true;
+            log.error("Order event log fsync failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,476 @@
+package com.hong.thebaker.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hong.thebaker.dto.IngestionStats;
+import com.hong.thebaker.dto.OrderRequest;
+import com.hong.thebaker.dto.OrderTicket;
+import com.hong.thebaker.entity.Customer;
+import com.hong.thebaker.entity.Order;
+import com.hong.thebaker.entity.OrderStatus;
+import com.hong.thebaker.entity.Product;
+import com.hong.thebaker.event.OrderStatusChangedEvent;
+import com.hong.thebaker.repository.CustomerRepository;
+import com.hong.thebaker.repository.OrderRepository;
+import com.hong.thebaker.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Optional write-behind mode for POST /api/orders (app.orders.write-behind.enabled).
+ *
+ * The request thread only reserves stock in the ledger, journals the order and
+ * hands back a ticket. A single drain thread groups queued orders into one
+ * transaction each, so order and item inserts go out as JDBC batches. If a group
+ * fails, its orders are retried one by one and only the bad ones are rejected.
+ * The journal is only compacted once every ticket in it is committed or rejected.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderIngestionService {
+
+    private static final int TICKET_MEMORY = 10_000;
+
+    private final OrderRepository orderRepository;
+    private final CustomerRepository customerRepository;
+    private final ProductRepository productRepository;
+    private final StockLedger stockLedger;
+    private final StockCalendar stockCalendar;
+    private final PointLedger pointLedger;
+    private final PickupSlotService pickupSlotService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.orders.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.orders.write-behind.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${app.orders.write-behind.max-batch:100}")
+    private int maxBatch;
+
+    @Value("${app.orders.write-behind.journal:./data/order-journal.log}")
+    private String journalPath;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, OrderTicket> tickets = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<String> ticketOrder = new ConcurrentLinkedQueue<>();
+    // Journaled but not yet COMMITTED/REJECTED; the journal may only be truncated when this is empty
+    private final Set<String> unsettled = ConcurrentHashMap.newKeySet();
+    // Replayed orders beyond queue capacity, still holding their reservations; drain thread only
+    private final Deque<PendingOrder> replayBacklog = new ArrayDeque<>();
+
+    private BlockingQueue<PendingOrder> queue;
+    // One permit per queued or in-flight order; an empty semaphore is the backpressure signal
+    private Semaphore permits;
+    private OrderJournal journal;
+    private Thread drainer;
+    private volatile boolean running;
+
+    // Metrics
+    private final LongAdder acceptedOrders = new LongAdder();
+    private final LongAdder rejectedOrders = new LongAdder();
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder committedOrders = new LongAdder();
+    private final LongAdder commitNanos = new LongAdder();
+    private final AtomicLong maxBatchSize = new AtomicLong();
+    private final AtomicLong maxCommitNanos = new AtomicLong();
+
+    private static final class PendingOrder {
+        final String ticket;
+        final OrderRequest request;
+
+        PendingOrder(String ticket, OrderRequest request) {
+            this.ticket = ticket;
+            this.request = request;
+        }
+    }
+
+    public static class QueueFullException extends RuntimeException {
+        public QueueFullException() {
+            super("주문이 많아 잠시 후 다시 시도해주세요.");
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled && running;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        if (!enabled) return;
+
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        permits = new Semaphore(queueCapacity);
+        journal = new OrderJournal(Paths.get(journalPath), objectMapper);
+        replayJournal();
+
+        running = true;
+        drainer = new Thread(this::drainLoop, "order-group-commit");
+        drainer.start();
+        log.info("Write-behind order ingestion enabled (capacity={}, maxBatch={})", queueCapacity, maxBatch);
+    }
+
+    @PreDestroy
+    public void stop() throws Exception {
+        if (drainer == null) return;
+        running = false;
+        drainer.join(10_000);
+        journal.close();
+    }
+
+    /**
+     * Reserves stock and journals the order, then queues it for the next group commit.
+     * Throws {@link QueueFullException} when the queue is at capacity.
+     */
+    public OrderTicket accept(OrderRequest request) {
+        if (!permits.tryAcquire()) {
+            rejectedOrders.increment();
+            throw new QueueFullException();
+        }
+
+        String ticket = UUID.randomUUID().toString();
+        try {
+            reserve(request);
+            // Before the append, so a compaction can never run between the line and the bookkeeping
+            unsettled.add(ticket);
+            try {
+                journal.append(OrderJournal.ACCEPTED, ticket, request, null);
+            } catch (IOException e) {
+                unsettled.remove(ticket);
+                releaseReservation(request);
+                throw new RuntimeException("주문 접수에 실패했습니다.");
+            }
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+
+        acceptedOrders.increment();
+        OrderTicket accepted = remember(new OrderTicket(ticket, "QUEUED", null, null));
+        queue.add(new PendingOrder(ticket, request));
+        return accepted;
+    }
+
+    public OrderTicket getTicket(String ticket) {
+        OrderTicket known = tickets.get(ticket);
+        if (known != null) return known;
+        return orderRepository.findByRequestKey(ticket)
+                .map(order -> new OrderTicket(ticket, "COMMITTED", order.getId(), null))
+                .orElse(new OrderTicket(ticket, "UNKNOWN", null, null));
+    }
+
+    public IngestionStats getStats() {
+        long commitCount = commits.sum();
+        return new IngestionStats(
+                queue == null ? 0 : queue.size(),
+                acceptedOrders.sum(),
+                rejectedOrders.sum(),
+                commitCount,
+                commitCount == 0 ? 0 : (double) committedOrders.sum() / commitCount,
+                maxBatchSize.get(),
+                commitCount == 0 ? 0 : commitNanos.sum() / 1_000_000.0 / commitCount,
+                maxCommitNanos.get() / 1_000_000.0
+        );
+    }
+
+    private void drainLoop() {
+        List<PendingOrder> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            requeueBacklog();
+            PendingOrder first;
+            try {
+                // Polling rather than interrupting keeps shutdown away from in-flight JDBC calls
+                first = queue.poll(200, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (first == null) continue;
+            batch.add(first);
+            queue.drainTo(batch, maxBatch - 1);
+            try {
+                groupCommit(batch);
+            } catch (Exception e) {
+                log.error("Group commit crashed, {} orders stay in the journal: {}", batch.size(), e.getMessage());
+                abandon(batch);
+            } finally {
+                permits.release(batch.size());
+                batch.clear();
+            }
+            compactJournal();
+        }
+    }
+
+    private void groupCommit(List<PendingOrder> batch) {
+        long start = System.nanoTime();
+        int committed = 0;
+        try {
+            committed = settle(transactionTemplate.execute(status -> persist(batch)));
+        } catch (RuntimeException e) {
+            log.warn("Group commit of {} orders failed ({}), retrying one by one", batch.size(), e.getMessage());
+            for (PendingOrder pending : batch) {
+                try {
+                    committed += settle(transactionTemplate.execute(status -> persist(List.of(pending))));
+                } catch (RuntimeException single) {
+                    reject(pending, single.getMessage());
+                }
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        commits.increment();
+        // Rejected orders are already counted in rejectedOrders
+        committedOrders.add(committed);
+        commitNanos.add(elapsed);
+        maxBatchSize.accumulateAndGet(committed, Math::max);
+        maxCommitNanos.accumulateAndGet(elapsed, Math::max);
+    }
+
+    // Runs inside one transaction for the whole group
+    private Map<String, Long> persist(List<PendingOrder> batch) {
+        // Today's shelf and each later pickup date are decremented separately
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        Map<LocalDate, Map<Long, Integer>> ahead = new LinkedHashMap<>();
+        Set<Long> productIds = new HashSet<>();
+        Set<String> phones = new HashSet<>();
+        for (PendingOrder pending : batch) {
+            LocalDate date = pending.request.getPickupDate();
+            Map<Long, Integer> target = stockCalendar.isFuture(date)
+                    ? ahead.computeIfAbsent(date, d -> new LinkedHashMap<>())
+                    : quantities;
+            OrderService.quantitiesOf(pending.request).forEach((id, qty) -> target.merge(id, qty, Integer::sum));
+            productIds.addAll(target.keySet());
+            phones.add(pending.request.getPhoneNumber());
+        }
+
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        if (products.size() < productIds.size()) {
+            throw new RuntimeException("상품을 찾을 수 없습니다.");
+        }
+        Consumer<Long> shortOf = productId -> {
+            throw new RuntimeException("재고가 충분하지 않습니다: " + products.get(productId).getName());
+        };
+        if (!quantities.isEmpty()) stockLedger.decrementStock(quantities).ifPresent(shortOf);
+        ahead.forEach((date, dayQuantities) -> stockCalendar.decrementStock(date, dayQuantities).ifPresent(shortOf));
+
+        Map<String, Customer> customers = new HashMap<>();
+        customerRepository.findByPhoneIn(phones).forEach(c -> customers.put(c.getPhone(), c));
+
+        List<Order> orders = new ArrayList<>(batch.size());
+        for (PendingOrder pending : batch) {
+            String phone = pending.request.getPhoneNumber();
+            Customer customer = customerRepository.save(
+                    OrderService.prepareCustomer(pending.request, Optional.ofNullable(customers.get(phone))));
+            customers.put(phone, customer);
+
+            Order order = OrderService.buildOrder(pending.request, customer, products);
+            order.setRequestKey(pending.ticket);
+            orders.add(order);
+        }
+
+        Map<String, Long> ids = new LinkedHashMap<>();
+        for (Order saved : orderRepository.saveAll(orders)) {
+            // Short on points rolls back the group; the orders are then retried one by one
+            pointLedger.spend(saved.getCustomer(), saved.getPointsUsed(), saved.getId());
+            ids.put(saved.getRequestKey(), saved.getId());
+            // Dropped with the transaction if this group rolls back
+            eventPublisher.publishEvent(new OrderStatusChangedEvent(saved.getId(), null, OrderStatus.PENDING));
+        }
+        return ids;
+    }
+
+    // Returns how many orders it settled as committed
+    private int settle(Map<String, Long> ids) {
+        ids.forEach((ticket, orderId) -> {
+            remember(new OrderTicket(ticket, "COMMITTED", orderId, null));
+            appendQuietly(OrderJournal.COMMITTED, ticket, orderId);
+            unsettled.remove(ticket);
+        });
+        return ids.size();
+    }
+
+    /**
+     * A batch that crashed outside the per-order retry: orders that did reach the
+     * table are settled, the rest give their stock and slot back and stay unsettled
+     * in the journal, so the next start replays them instead of compaction dropping them.
+     */
+    private void abandon(List<PendingOrder> batch) {
+        for (PendingOrder pending : batch) {
+            if (!unsettled.contains(pending.ticket)) continue; // settled before the crash
+            try {
+                Optional<Order> saved = orderRepository.findByRequestKey(pending.ticket);
+                if (saved.isPresent()) {
+                    settle(Map.of(pending.ticket, saved.get().getId()));
+                    continue;
+                }
+            } catch (RuntimeException e) {
+                // Can't tell; keep the reservation rather than oversell a sale that may have committed
+                log.error("Order {} left reserved until restart: {}", pending.ticket, e.getMessage());
+                continue;
+            }
+            releaseReservation(pending.request);
+        }
+    }
+
+    private void reject(PendingOrder pending, String reason) {
+        releaseReservation(pending.request);
+        markRejected(pending.ticket, reason);
+    }
+
+    private void markRejected(String ticket, String reason) {
+        log.warn("Write-behind order {} rejected: {}", ticket, reason);
+        rejectedOrders.increment();
+        remember(new OrderTicket(ticket, "REJECTED", null, reason));
+        appendQuietly(OrderJournal.REJECTED, ticket, null);
+        unsettled.remove(ticket);
+    }
+
+    // Pickup slot, then stock; also pins the pickup date before the request is journaled
+    private void reserve(OrderRequest request) {
+        pickupSlotService.admit(request);
+        LocalDate date = request.getPickupDate();
+        boolean future = stockCalendar.isFuture(date);
+        if (future && !stockCalendar.covers(date)) {
+            pickupSlotService.release(request);
+            throw new RuntimeException("아직 예약을 받지 않는 날짜입니다: " + date);
+        }
+
+        Map<Long, Integer> quantities = OrderService.quantitiesOf(request);
+        Map<Long, Integer> taken = new LinkedHashMap<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            boolean reserved;
+            try {
+                reserved = future
+                        ? stockCalendar.reserve(date, entry.getKey(), entry.getValue())
+                        : stockLedger.reserve(entry.getKey(), entry.getValue());
+            } catch (RuntimeException e) {
+                releaseStock(date, taken);
+                pickupSlotService.release(request);
+                throw e;
+            }
+            if (!reserved) {
+                releaseStock(date, taken);
+                pickupSlotService.release(request);
+                throw new RuntimeException("재고가 충분하지 않습니다: 상품 #" + entry.getKey());
+            }
+            taken.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void releaseReservation(OrderRequest request) {
+        releaseStock(request.getPickupDate(), OrderService.quantitiesOf(request));
+        pickupSlotService.release(request);
+    }
+
+    private void releaseStock(LocalDate date, Map<Long, Integer> quantities) {
+        if (stockCalendar.isFuture(date)) {
+            quantities.forEach((id, qty) -> stockCalendar.release(date, id, qty));
+        } else {
+            quantities.forEach(stockLedger::release);
+        }
+    }
+
+    // Re-queue anything accepted before a crash that never made it into the orders table
+    private void replayJournal() throws IOException {
+        int replayed = 0;
+        for (Map.Entry<String, OrderRequest> entry : journal.unsettled().entrySet()) {
+            String ticket = entry.getKey();
+            if (orderRepository.findByRequestKey(ticket).isPresent()) {
+                journal.append(OrderJournal.COMMITTED, ticket, null, null);
+                continue;
+            }
+            unsettled.add(ticket);
+            try {
+                reserve(entry.getValue());
+            } catch (RuntimeException e) {
+                markRejected(ticket, e.getMessage());
+                continue;
+            }
+            // Already acknowledged, so it keeps its reservation even when the queue is full
+            remember(new OrderTicket(ticket, "QUEUED", null, null));
+            PendingOrder pending = new PendingOrder(ticket, entry.getValue());
+            if (permits.tryAcquire()) {
+                queue.add(pending);
+            } else {
+                replayBacklog.add(pending);
+            }
+            replayed++;
+        }
+        if (replayed > 0) {
+            log.info("Replayed {} journaled orders ({} waiting for queue space)", replayed, replayBacklog.size());
+        }
+    }
+
+    // Replayed overflow joins the queue as permits free up
+    private void requeueBacklog() {
+        while (!replayBacklog.isEmpty() && permits.tryAcquire()) {
+            queue.add(replayBacklog.poll());
+        }
+    }
+
+    // Only once every journaled ticket has a COMMITTED or REJECTED line
+    private void compactJournal() {
+        if (!unsettled.isEmpty()) return;
+        try {
+            journal.truncateIf(unsettled::isEmpty);
+        } catch (IOException e) {
+            log.warn("Could not compact order journal: {}", e.getMessage());
+        }
+    }
+
+    private void appendQuietly(String type, String ticket, Long orderId) {
+        try {
+            journal.append(type, ticket, null, orderId);
+        } catch (IOException e) {
+            log.warn("Could not journal {} for {}: {}", type, ticket, e.getMessage());
+        }
+    }
+
+    private OrderTicket remember(OrderTicket ticket) {
+        if (tickets.put(ticket.getTicket(), ticket) == null) {
+            ticketOrder.add(ticket.getTicket());
+            while (tickets.size() > TICKET_MEMORY) {
+                String oldest = ticketOrder.poll();
+                if (oldest == null) break;
+                tickets.remove(oldest);
+            }
+        }
+        return ticket;
+    }
+}
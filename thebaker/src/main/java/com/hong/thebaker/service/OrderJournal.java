@@ -0,0 +1,119 @@
+package com.hong.thebaker.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.hong.thebaker.dto.OrderRequest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Append-only JSON-lines file behind the write-behind order pipeline.
+ * An order is acknowledged only after its ACCEPTED line has been forced to disk;
+ * COMMITTED / REJECTED lines settle it. Whatever is still unsettled on startup gets replayed.
+ * A lock rather than synchronized: the fsync happens on request threads, which may be virtual.
+ */
+class OrderJournal {
+
+    static final String ACCEPTED = "ACCEPTED";
+    static final String COMMITTED = "COMMITTED";
+    static final String REJECTED = "REJECTED";
+
+    private final Path path;
+    private final ObjectMapper mapper;
+    private final FileChannel channel;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    OrderJournal(Path path, ObjectMapper mapper) throws IOException {
+        this.path = path;
+        this.mapper = mapper;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    void append(String type, String ticket, OrderRequest request, Long orderId) throws IOException {
+        ObjectNode line = mapper.createObjectNode();
+        line.put("type", type);
+        line.put("ticket", ticket);
+        if (request != null) line.set("request", mapper.valueToTree(request));
+        if (orderId != null) line.put("orderId", orderId);
+
+        ByteBuffer buffer = ByteBuffer.wrap((mapper.writeValueAsString(line) + "\n").getBytes(StandardCharsets.UTF_8));
+        lock.lock();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            // Settlement lines may be lost in a crash; replay double-checks the orders table
+            if (ACCEPTED.equals(type)) channel.force(false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Tickets that were accepted but never settled, in arrival order
+    LinkedHashMap<String, OrderRequest> unsettled() throws IOException {
+        LinkedHashMap<String, OrderRequest> open = new LinkedHashMap<>();
+        List<String> lines;
+        lock.lock();
+        try {
+            lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        } finally {
+            lock.unlock();
+        }
+        for (String line : lines) {
+            if (line.isBlank()) continue;
+            JsonNode node;
+            try {
+                node = mapper.readTree(line);
+            } catch (IOException e) {
+                continue; // torn last line from a crash mid-write; it was never acknowledged
+            }
+            String ticket = node.get("ticket").asText();
+            if (ACCEPTED.equals(node.get("type").asText())) {
+                open.put(ticket, mapper.treeToValue(node.get("request"), OrderRequest.class));
+            } else {
+                open.remove(ticket);
+            }
+        }
+        return open;
+    }
+
+    void truncate() throws IOException {
+        truncateIf(() -> true);
+    }
+
+    // Checked under the append lock, so nothing can be appended between the check and the truncate
+    void truncateIf(BooleanSupplier settled) throws IOException {
+        lock.lock();
+        try {
+            if (!settled.getAsBoolean()) return;
+            channel.truncate(0);
+            channel.force(true);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void close() throws IOException {
+        lock.lock();
+        try {
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
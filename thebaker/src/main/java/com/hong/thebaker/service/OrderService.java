@@ -1,20 +1,34 @@
 package com.hong.thebaker.service;
 
+import com.hong.thebaker.dto.OrderCursor;
+import com.hong.thebaker.dto.OrderFilter;
+import com.hong.thebaker.dto.OrderLine;
+import com.hong.thebaker.dto.OrderPage;
 import com.hong.thebaker.dto.OrderRequest;
+import com.hong.thebaker.dto.OrderSummary;
 import com.hong.thebaker.entity.*;
+import com.hong.thebaker.event.OrderStatusChangedEvent;
 import com.hong.thebaker.repository.CustomerRepository;
 import com.hong.thebaker.repository.OrderRepository;
 import com.hong.thebaker.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -22,20 +36,101 @@ import java.util.List;
 @RequiredArgsConstructor
 public class OrderService {
 
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int HISTORY_SIZE = 50;
+
     private final ProductRepository productRepository;
     private final OrderRepository orderRepository;
     private final CustomerRepository customerRepository;
+    private final StockLedger stockLedger;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OrderStatusCounters orderStatusCounters;
+    private final OrderStatusCache orderStatusCache;
+    private final CustomerCache customerCache;
+    private final PointLedger pointLedger;
+    private final PickupSlotService pickupSlotService;
+    private final StockCalendar stockCalendar;
 
     public Order createOrder(OrderRequest request) {
         log.info("Creating order for customer: {}", request.getPhoneNumber());
 
-        Customer customer = customerRepository.findByPhone(request.getPhoneNumber())
-                .orElseGet(() -> {
-                    Customer newCustomer = new Customer();
-                    newCustomer.setPhone(request.getPhoneNumber());
-                    newCustomer.setPoints(0);
-                    return newCustomer;
-                });
+        Customer customer = prepareCustomer(request, customerCache.loadByPhone(request.getPhoneNumber()));
+        customerRepository.save(customer);
+
+        // 2. Load every product in one query, then reserve & reduce stock as a set
+        Map<Long, Integer> quantities = quantitiesOf(request);
+        Map<Long, Product> products = productRepository.findAllById(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        if (products.size() < quantities.size()) {
+            throw new RuntimeException("상품을 찾을 수 없습니다.");
+        }
+
+        // Slot capacity first: a full slot is the cheaper rejection
+        pickupSlotService.admit(request);
+
+        LocalDate pickupDate = request.getPickupDate();
+        if (stockCalendar.isFuture(pickupDate)) {
+            reserveAhead(pickupDate, quantities, products);
+        } else {
+            reserveShelf(quantities, products);
+        }
+
+        Order order = buildOrder(request, customer, products);
+        Order savedOrder = orderRepository.save(order);
+        pointLedger.spend(customer, order.getPointsUsed(), savedOrder.getId());
+        publishTransition(savedOrder.getId(), null, OrderStatus.PENDING);
+        log.info("Order created: id={}, total={}, items={}",
+                savedOrder.getId(), order.getTotalAmount(), order.getItems().size());
+        return savedOrder;
+    }
+
+    private void reserveShelf(Map<Long, Integer> quantities, Map<Long, Product> products) {
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Product product = products.get(entry.getKey());
+            // Reserved in memory; released again if this transaction rolls back
+            stockLedger.seed(product.getId(), product.getStockQuantity());
+            if (!stockLedger.reserve(product.getId(), entry.getValue())) {
+                throw new RuntimeException("재고가 충분하지 않습니다: " + product.getName());
+            }
+        }
+
+        // One guarded UPDATE batch; a row that can't cover its quantity rolls back the whole order
+        stockLedger.decrementStock(quantities).ifPresent(productId -> {
+            throw new RuntimeException("재고가 충분하지 않습니다: " + products.get(productId).getName());
+        });
+    }
+
+    // Same two steps against the pickup date's buckets instead of today's shelf
+    private void reserveAhead(LocalDate pickupDate, Map<Long, Integer> quantities, Map<Long, Product> products) {
+        if (!stockCalendar.covers(pickupDate)) {
+            throw new RuntimeException("아직 예약을 받지 않는 날짜입니다: " + pickupDate);
+        }
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            if (!stockCalendar.reserve(pickupDate, entry.getKey(), entry.getValue())) {
+                throw new RuntimeException("재고가 충분하지 않습니다: " + products.get(entry.getKey()).getName());
+            }
+        }
+        stockCalendar.decrementStock(pickupDate, quantities).ifPresent(productId -> {
+            throw new RuntimeException("재고가 충분하지 않습니다: " + products.get(productId).getName());
+        });
+    }
+
+    // Total quantity per product; the same product may appear on several lines
+    static Map<Long, Integer> quantitiesOf(OrderRequest request) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderRequest.OrderItemRequest itemRequest : request.getItems()) {
+            quantities.merge(itemRequest.getProductId(), itemRequest.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    static Customer prepareCustomer(OrderRequest request, Optional<Customer> existing) {
+        Customer customer = existing.orElseGet(() -> {
+            Customer newCustomer = new Customer();
+            newCustomer.setPhone(request.getPhoneNumber());
+            newCustomer.setPoints(0);
+            return newCustomer;
+        });
 
         // Update Name
         if (request.getCustomerName() != null && !request.getCustomerName().isEmpty()) {
@@ -45,8 +140,11 @@ public class OrderService {
         }
 
         customer.setMarketingConsent(request.isMarketingConsent());
-        customerRepository.save(customer);
+        return customer;
+    }
 
+    // Builds the PENDING order; stock must already be taken care of, points are spent once it has an id
+    static Order buildOrder(OrderRequest request, Customer customer, Map<Long, Product> products) {
         Order order = new Order();
         order.setCustomer(customer);
         // Seoul Time
@@ -56,23 +154,16 @@ public class OrderService {
 
         order.setMemo(request.getMemo());
         order.setPickupTime(request.getPickupTime());
+        order.setPickupDate(request.getPickupDate());
+        order.setPickupSlot(PickupSlotService.slotOf(request.getPickupTime()));
         order.setTakeaway(request.isTakeaway());
         order.setWantsCut(request.isWantsCut());
 
         BigDecimal totalAmount = BigDecimal.ZERO;
         List<OrderItem> orderItems = new ArrayList<>();
 
-        // 2. Loop through items & Reduce Stock
         for (OrderRequest.OrderItemRequest itemRequest : request.getItems()) {
-            Product product = productRepository.findById(itemRequest.getProductId())
-                    .orElseThrow(() -> new RuntimeException("상품을 찾을 수 없습니다."));
-
-            if (product.getStockQuantity() < itemRequest.getQuantity()) {
-                throw new RuntimeException("재고가 충분하지 않습니다: " + product.getName());
-            }
-
-            product.setStockQuantity(product.getStockQuantity() - itemRequest.getQuantity());
-            productRepository.save(product);
+            Product product = products.get(itemRequest.getProductId());
 
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
@@ -89,20 +180,8 @@ public class OrderService {
         order.setItems(orderItems);
         order.setTotalAmount(totalAmount);
 
-        // 3. Handle Point Usage
-        int pointsToUse = request.getPointsToUse();
-        if (pointsToUse > 0) {
-            if (customer.getPoints() < pointsToUse) {
-                throw new RuntimeException("포인트가 부족합니다. 보유 포인트: " + customer.getPoints());
-            }
-            customer.setPoints(customer.getPoints() - pointsToUse);
-        }
-
-        order.setPointsUsed(pointsToUse);
-        Order savedOrder = orderRepository.save(order);
-        log.info("Order created: id={}, total={}, items={}",
-                savedOrder.getId(), totalAmount, orderItems.size());
-        return savedOrder;
+        order.setPointsUsed(request.getPointsToUse());
+        return order;
     }
 
     public void confirmOrder(Long orderId) {
@@ -116,6 +195,7 @@ public class OrderService {
 
         order.setStatus(OrderStatus.PROCESSING);
         orderRepository.save(order);
+        publishTransition(orderId, OrderStatus.PENDING, OrderStatus.PROCESSING);
     }
 
     public void completeOrder(Long orderId) {
@@ -130,15 +210,18 @@ public class OrderService {
         int pointsEarned = total.multiply(new BigDecimal("0.03")).intValue();
 
         order.setPointsEarned(pointsEarned);
-        customer.setPoints(customer.getPoints() + pointsEarned);
-        customerRepository.save(customer);
+        pointLedger.earn(customer, pointsEarned, PointReason.EARN, orderId);
 
+        OrderStatus previous = order.getStatus();
         order.setStatus(OrderStatus.COMPLETED);
         orderRepository.save(order);
+        publishTransition(orderId, previous, OrderStatus.COMPLETED);
     }
 
+    // Counter read; SUPPORTS keeps the class-level transaction from checking out a connection
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Long countPendingOrders() {
-        return orderRepository.countByStatus(OrderStatus.PENDING);
+        return orderStatusCounters.count(OrderStatus.PENDING);
     }
 
     @Transactional
@@ -151,23 +234,45 @@ public class OrderService {
             throw new RuntimeException("Already cancelled");
         }
 
+        // Before its pickup day the units go back to that day's bucket, after it to the shelf
+        boolean ahead = stockCalendar.isFuture(order.getPickupDate());
         for (OrderItem item : order.getItems()) {
-            Product product = item.getProduct();
-            product.setStockQuantity(product.getStockQuantity() + item.getQuantity());
-            productRepository.save(product);
+            if (ahead) {
+                stockCalendar.restock(order.getPickupDate(), item.getProduct().getId(), item.getQuantity());
+            } else {
+                stockLedger.restock(item.getProduct().getId(), item.getQuantity());
+            }
         }
 
+        OrderStatus previous = order.getStatus();
         order.setStatus(OrderStatus.CANCELLED);
         order.setCancelledDate(LocalDateTime.now());
         orderRepository.save(order);
+        pickupSlotService.releaseAfterCommit(order);
+        publishTransition(orderId, previous, OrderStatus.CANCELLED);
     }
 
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll(Sort.by(Sort.Direction.DESC, "orderDate"));
+    // Listeners (SSE push) only see it once the transaction commits
+    private void publishTransition(Long orderId, OrderStatus previous, OrderStatus status) {
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(orderId, previous, status));
+    }
+
+    // Newest first, one page at a time; pass the previous page's nextCursor to continue
+    @Transactional(readOnly = true)
+    public OrderPage getOrders(OrderFilter filter, String cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // One extra row tells us whether there is a next page
+        List<Order> orders = orderRepository.findPage(filter, OrderCursor.decode(cursor), size + 1);
+        if (orders.size() <= size) {
+            return new OrderPage(orders, null);
+        }
+        List<Order> page = new ArrayList<>(orders.subList(0, size));
+        Order last = page.get(size - 1);
+        return new OrderPage(page, new OrderCursor(last.getOrderDate(), last.getId()).encode());
     }
 
     public void processQuickPayment(com.hong.thebaker.dto.QuickPaymentRequest request) {
-        Customer customer = customerRepository.findByPhone(request.getPhoneNumber())
+        Customer customer = customerCache.loadByPhone(request.getPhoneNumber())
                 .orElseGet(() -> {
                     Customer newCustomer = new Customer();
                     newCustomer.setPhone(request.getPhoneNumber());
@@ -176,13 +281,6 @@ public class OrderService {
                     return customerRepository.save(newCustomer);
                 });
 
-        if (request.getPointsToUse() > 0) {
-            if (customer.getPoints() < request.getPointsToUse()) {
-                throw new RuntimeException("포인트 부족");
-            }
-            customer.setPoints(customer.getPoints() - request.getPointsToUse());
-        }
-
         BigDecimal totalAmountBd = BigDecimal.valueOf(request.getTotalAmount());
         BigDecimal pointsUsedBd = BigDecimal.valueOf(request.getPointsToUse());
         BigDecimal netPayAmount = totalAmountBd.subtract(pointsUsedBd);
@@ -192,20 +290,32 @@ public class OrderService {
 
         int pointsEarned = method.calculatePoints(netPayAmount);
 
-        customer.setPoints(customer.getPoints() + pointsEarned);
-        customerRepository.save(customer);
+        // Spend and earn in one guarded update; not enough points throws before anything changes
+        pointLedger.settle(customer, request.getPointsToUse(), pointsEarned, PointReason.EARN, null);
     }
 
     public void archiveOrder(Long id) {
     }
 
-    public List<Order> findMyOrders(String phone) {
-        return orderRepository.findByCustomerPhoneOrderByOrderDateDesc(phone);
+    // Newest orders of one customer as DTOs: two statements however long their history is
+    @Transactional(readOnly = true)
+    public List<OrderSummary> findMyOrders(String phone) {
+        List<OrderSummary> orders = orderRepository.findSummariesByPhone(phone, Limit.of(HISTORY_SIZE));
+        if (orders.isEmpty()) return orders;
+
+        Map<Long, OrderSummary> byId = orders.stream()
+                .collect(Collectors.toMap(OrderSummary::getId, Function.identity()));
+        for (OrderLine line : orderRepository.findLines(byId.keySet())) {
+            byId.get(line.getOrderId()).getItems().add(line);
+        }
+        return orders;
     }
 
+    // Served from OrderStatusCache; a miss reads the status column only
+    @Transactional(propagation = Propagation.SUPPORTS)
     public String getOrderStatus(Long id) {
-        return orderRepository.findById(id)
-                .map(order -> order.getStatus().name())
+        return orderStatusCache.getStatus(id)
+                .map(OrderStatus::name)
                 .orElse("UNKNOWN");
     }
 
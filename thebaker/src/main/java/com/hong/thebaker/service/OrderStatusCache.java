@@ -0,0 +1,61 @@
+package com.hong.thebaker.service;
+
+import com.hong.thebaker.entity.OrderStatus;
+import com.hong.thebaker.event.OrderStatusChangedEvent;
+import com.hong.thebaker.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Order id -> status for the customers' status polls.
+ *
+ * Misses read the status column alone instead of the EAGER order graph. Committed
+ * transitions overwrite the entry, so the TTL only bounds staleness for writes
+ * that bypass {@link OrderStatusChangedEvent}.
+ */
+@Service
+public class OrderStatusCache {
+
+    private final OrderRepository orderRepository;
+    private final ExpiringLruCache<Long, OrderStatus> cache;
+    // Bumped on every transition; a load that overlapped one doesn't cache what it read
+    private final AtomicLong generation = new AtomicLong();
+
+    public OrderStatusCache(OrderRepository orderRepository,
+                            @Value("${app.orders.status-cache.max-entries:10000}") int maxEntries,
+                            @Value("${app.orders.status-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.orderRepository = orderRepository;
+        this.cache = new ExpiringLruCache<>(maxEntries, Duration.ofSeconds(ttlSeconds));
+    }
+
+    public Optional<OrderStatus> getStatus(Long orderId) {
+        OrderStatus cached = cache.get(orderId);
+        if (cached != null) return Optional.of(cached);
+
+        long before = generation.get();
+        Optional<OrderStatus> status = orderRepository.findStatusById(orderId);
+        if (status.isPresent() && generation.get() == before) {
+            cache.put(orderId, status.get());
+        }
+        return status;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        generation.incrementAndGet();
+        cache.put(event.getOrderId(), event.getStatus());
+    }
+
+    public long hits() {
+        return cache.hits();
+    }
+
+    public long misses() {
+        return cache.misses();
+    }
+}
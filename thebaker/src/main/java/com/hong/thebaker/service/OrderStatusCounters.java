@@ -0,0 +1,84 @@
+package com.hong.thebaker.service;
+
+import com.hong.thebaker.entity.OrderStatus;
+import com.hong.thebaker.event.OrderStatusChangedEvent;
+import com.hong.thebaker.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live number of orders in each status, so the staff dashboard's pending-count
+ * poll never reaches the database.
+ *
+ * Seeded from one GROUP BY at startup and moved by every committed
+ * {@link OrderStatusChangedEvent}. A periodic recount corrects drift from
+ * writes that bypass the event (manual SQL, a crash between commit and listener).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderStatusCounters {
+
+    private final OrderRepository orderRepository;
+
+    private final Map<OrderStatus, AtomicLong> counts = createCounts();
+    // Bumped per applied transition; a recount that raced one is thrown away
+    private final AtomicLong applied = new AtomicLong();
+    private volatile boolean seeded;
+
+    private static Map<OrderStatus, AtomicLong> createCounts() {
+        Map<OrderStatus, AtomicLong> result = new EnumMap<>(OrderStatus.class);
+        for (OrderStatus status : OrderStatus.values()) {
+            result.put(status, new AtomicLong());
+        }
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        reconcile();
+        log.info("Order status counters seeded: {}", counts);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        if (event.getPreviousStatus() == event.getStatus()) return;
+        if (event.getPreviousStatus() != null) counts.get(event.getPreviousStatus()).decrementAndGet();
+        counts.get(event.getStatus()).incrementAndGet();
+        applied.incrementAndGet();
+    }
+
+    public long count(OrderStatus status) {
+        return counts.get(status).get();
+    }
+
+    @Scheduled(fixedDelayString = "${app.orders.status-counters.reconcile-ms:300000}",
+            initialDelayString = "${app.orders.status-counters.reconcile-ms:300000}")
+    public void reconcile() {
+        long before = applied.get();
+        Map<OrderStatus, Long> actual = new EnumMap<>(OrderStatus.class);
+        for (Object[] row : orderRepository.countGroupedByStatus()) {
+            if (row[0] != null) actual.put((OrderStatus) row[0], ((Number) row[1]).longValue());
+        }
+        // A transition landed while we counted, so the snapshot may be off by it; next round will do
+        if (applied.get() != before) return;
+
+        for (OrderStatus status : OrderStatus.values()) {
+            long expected = actual.getOrDefault(status, 0L);
+            long previous = counts.get(status).getAndSet(expected);
+            if (seeded && previous != expected) {
+                log.warn("Order counter for {} drifted: {} -> {}", status, previous, expected);
+            }
+        }
+        seeded = true;
+    }
+}
@@ -0,0 +1,242 @@
+package com.hong.thebaker.service;
+
+import com.hong.thebaker.dto.OrderRequest;
+import com.hong.thebaker.dto.SlotAvailability;
+import com.hong.thebaker.entity.Order;
+import com.hong.thebaker.entity.PickupSlotCapacity;
+import com.hong.thebaker.repository.PickupSlotCapacityRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Per-day pickup slot capacity, admitted against in-memory counters.
+ *
+ * Order.pickupTime stays the label the customer picked ("12:00 PM"); the order
+ * also records the date and a slot index (half-hours since midnight). Bookings
+ * per date live in an AtomicIntegerArray seeded once from the orders table, so
+ * admission is a CAS on one cell instead of a locked count. An admission inside
+ * a transaction is given back if that transaction rolls back, and a cancelled
+ * order gives its place back once the cancel commits.
+ */
+@Slf4j
+@Service
+public class PickupSlotService {
+
+    static final int SLOT_MINUTES = 30;
+    static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    static final ZoneId ZONE = ZoneId.of("Asia/Seoul");
+
+    private static final DateTimeFormatter LABEL = DateTimeFormatter.ofPattern("h:mm a", Locale.US);
+    private static final DateTimeFormatter[] FORMATS = {LABEL, DateTimeFormatter.ofPattern("H:mm")};
+
+    private final PickupSlotCapacityRepository capacityRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final String defaultSlots;
+    private final int defaultCapacity;
+
+    // Index = slot; 0 capacity means the slot isn't offered. Replaced whole on change.
+    private volatile int[] capacities = new int[SLOTS_PER_DAY];
+    private volatile String[] labels = new String[SLOTS_PER_DAY];
+    private final ConcurrentHashMap<LocalDate, AtomicIntegerArray> booked = new ConcurrentHashMap<>();
+
+    public PickupSlotService(PickupSlotCapacityRepository capacityRepository,
+                             JdbcTemplate jdbcTemplate,
+                             @Value("${app.pickup.default-slots:12:00 PM,1:00 PM,2:00 PM,3:00 PM,4:00 PM}") String defaultSlots,
+                             @Value("${app.pickup.default-capacity:10}") int defaultCapacity) {
+        this.capacityRepository = capacityRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.defaultSlots = defaultSlots;
+        this.defaultCapacity = defaultCapacity;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadCapacities() {
+        if (capacityRepository.count() == 0) {
+            List<PickupSlotCapacity> defaults = new ArrayList<>();
+            for (String label : defaultSlots.split(",")) {
+                Integer slot = slotOf(label.trim());
+                defaults.add(new PickupSlotCapacity(slot, labelOf(slot), defaultCapacity));
+            }
+            capacityRepository.saveAll(defaults);
+            log.info("Seeded {} pickup slots with capacity {}", defaults.size(), defaultCapacity);
+        }
+
+        int[] newCapacities = new int[SLOTS_PER_DAY];
+        String[] newLabels = new String[SLOTS_PER_DAY];
+        for (PickupSlotCapacity row : capacityRepository.findAll()) {
+            newCapacities[row.getSlotIndex()] = row.getCapacity();
+            newLabels[row.getSlotIndex()] = row.getLabel();
+        }
+        labels = newLabels;
+        capacities = newCapacities;
+    }
+
+    /** Half-hours since midnight for "12:00 PM" / "12:00"; null when no time was given. */
+    public static Integer slotOf(String pickupTime) {
+        if (pickupTime == null || pickupTime.isBlank()) return null;
+        for (DateTimeFormatter format : FORMATS) {
+            try {
+                LocalTime time = LocalTime.parse(pickupTime.trim().toUpperCase(Locale.US), format);
+                return (time.getHour() * 60 + time.getMinute()) / SLOT_MINUTES;
+            } catch (DateTimeParseException ignored) {
+                // try the next format
+            }
+        }
+        throw new RuntimeException("잘못된 픽업 시간입니다: " + pickupTime);
+    }
+
+    static String labelOf(int slot) {
+        return LocalTime.of(0, 0).plusMinutes((long) slot * SLOT_MINUTES).format(LABEL);
+    }
+
+    public static LocalDate today() {
+        return LocalDate.now(ZONE);
+    }
+
+    /**
+     * Fills in today's date when the request has none, then takes one place in
+     * its slot. Requests without a pickup time (POS, older clients) aren't limited.
+     */
+    public void admit(OrderRequest request) {
+        if (request.getPickupDate() == null) request.setPickupDate(today());
+        Integer slot = slotOf(request.getPickupTime());
+        if (slot == null) return;
+
+        LocalDate date = request.getPickupDate();
+        if (date.isBefore(today())) {
+            throw new RuntimeException("지난 날짜는 예약할 수 없습니다.");
+        }
+        // Same cut-off as availability(): today's current slot and earlier are gone
+        if (slot <= nowSlot(date)) {
+            throw new RuntimeException("이미 지난 픽업 시간입니다: " + request.getPickupTime());
+        }
+        int capacity = capacities[slot];
+        if (capacity == 0) {
+            throw new RuntimeException("선택할 수 없는 픽업 시간입니다: " + request.getPickupTime());
+        }
+
+        AtomicIntegerArray counts = counts(date);
+        int current;
+        do {
+            current = counts.get(slot);
+            if (current >= capacity) {
+                throw new RuntimeException("선택하신 픽업 시간이 마감되었습니다: " + labels[slot]);
+            }
+        } while (!counts.compareAndSet(slot, current, current + 1));
+
+        // Given back if the order doesn't commit
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) counts.decrementAndGet(slot);
+                }
+            });
+        }
+    }
+
+    // For an admission that never became an order (write-behind rejects)
+    public void release(OrderRequest request) {
+        Integer slot = slotOf(request.getPickupTime());
+        if (slot == null || request.getPickupDate() == null) return;
+        AtomicIntegerArray counts = booked.get(request.getPickupDate());
+        if (counts != null) counts.decrementAndGet(slot);
+    }
+
+    // A cancelled order frees its place once the cancel commits
+    public void releaseAfterCommit(Order order) {
+        LocalDate date = order.getPickupDate();
+        Integer slot = order.getPickupSlot();
+        if (date == null || slot == null) return;
+        Runnable release = () -> {
+            AtomicIntegerArray counts = booked.get(date);
+            if (counts != null) counts.decrementAndGet(slot);
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                release.run();
+            }
+        });
+    }
+
+    public List<SlotAvailability> availability(LocalDate date) {
+        int[] caps = capacities;
+        String[] names = labels;
+        AtomicIntegerArray counts = counts(date);
+        LocalDate today = today();
+        int nowSlot = nowSlot(date);
+
+        List<SlotAvailability> result = new ArrayList<>();
+        for (int slot = 0; slot < SLOTS_PER_DAY; slot++) {
+            if (caps[slot] == 0) continue;
+            boolean past = date.isBefore(today) || slot <= nowSlot;
+            int remaining = Math.max(0, caps[slot] - counts.get(slot));
+            result.add(new SlotAvailability(slot, names[slot], caps[slot], remaining, past));
+        }
+        return result;
+    }
+
+    // The slot the shop clock is in when date is today, otherwise -1
+    private static int nowSlot(LocalDate date) {
+        if (!date.equals(today())) return -1;
+        LocalTime now = LocalTime.now(ZONE);
+        return (now.getHour() * 60 + now.getMinute()) / SLOT_MINUTES;
+    }
+
+    public PickupSlotCapacity setCapacity(int slot, int capacity) {
+        if (slot < 0 || slot >= SLOTS_PER_DAY || capacity < 0) {
+            throw new RuntimeException("잘못된 픽업 슬롯 설정입니다.");
+        }
+        PickupSlotCapacity row = capacityRepository.findById(slot)
+                .orElseGet(() -> new PickupSlotCapacity(slot, labelOf(slot), 0));
+        row.setCapacity(capacity);
+        capacityRepository.save(row);
+        loadCapacities();
+        return row;
+    }
+
+    // Yesterday's counters are never read again
+    @Scheduled(cron = "0 5 0 * * *", zone = "Asia/Seoul")
+    public void pruneOldDates() {
+        LocalDate today = today();
+        booked.keySet().removeIf(date -> date.isBefore(today));
+    }
+
+    // Seeded once per date from the committed, non-cancelled orders. The query runs outside
+    // the map: inside computeIfAbsent it would hold a bin lock (and pin a virtual thread)
+    private AtomicIntegerArray counts(LocalDate date) {
+        AtomicIntegerArray counts = booked.get(date);
+        if (counts != null) return counts;
+        AtomicIntegerArray loaded = new AtomicIntegerArray(SLOTS_PER_DAY);
+        jdbcTemplate.query("SELECT pickup_slot, COUNT(*) FROM orders " +
+                        "WHERE pickup_date = ? AND pickup_slot IS NOT NULL AND status <> 'CANCELLED' GROUP BY pickup_slot",
+                rs -> { loaded.set(rs.getInt(1), rs.getInt(2)); },
+                Date.valueOf(date));
+        AtomicIntegerArray raced = booked.putIfAbsent(date, loaded);
+        return raced != null ? raced : loaded;
+    }
+}
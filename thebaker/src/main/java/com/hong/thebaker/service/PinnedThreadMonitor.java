@@ -0,0 +1,111 @@
+package com.hong.thebaker.service;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier, in virtual-thread mode.
+ *
+ * Listens to JFR's jdk.VirtualThreadPinned event (JDK 21+). A pin means a
+ * virtual thread blocked inside synchronized or native code (old JDBC drivers,
+ * H2) and held a carrier thread the whole time. Each event is counted under
+ * the first frame from our own code, and one warning per call site is logged
+ * every few minutes with the frame that actually blocked.
+ */
+@Slf4j
+@Service
+public class PinnedThreadMonitor {
+
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final String APP_PACKAGE = "com.hong.thebaker.";
+
+    private final boolean enabled;
+    private final Duration threshold;
+
+    private final Map<String, LongAdder> bySite = new ConcurrentHashMap<>();
+    // Call sites warned about recently; the log would otherwise get one line per pin
+    private final ExpiringLruCache<String, Boolean> warned = new ExpiringLruCache<>(500, Duration.ofMinutes(5));
+    private RecordingStream stream;
+
+    public PinnedThreadMonitor(@Value("${app.diagnostics.pinned-threads.enabled:false}") boolean enabled,
+                               @Value("${app.diagnostics.pinned-threads.threshold-ms:20}") long thresholdMs) {
+        this.enabled = enabled;
+        this.threshold = Duration.ofMillis(thresholdMs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) return;
+        if (Runtime.version().feature() < 21) {
+            log.warn("Pinned-thread diagnostics need JDK 21+, running on {}", Runtime.version());
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENT, this::record);
+        stream.startAsync();
+        log.info("Watching for virtual threads pinned longer than {} ms", threshold.toMillis());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) stream.close();
+    }
+
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    // Pin count per call site, most-used sites are easy to spot in a sorted map
+    public Map<String, Long> counts() {
+        Map<String, Long> counts = new TreeMap<>();
+        bySite.forEach((site, count) -> counts.put(site, count.sum()));
+        return counts;
+    }
+
+    void record(RecordedEvent event) {
+        List<RecordedFrame> frames = frames(event.getStackTrace());
+        String site = siteOf(frames);
+        bySite.computeIfAbsent(site, s -> new LongAdder()).increment();
+
+        synchronized (warned) {
+            if (warned.get(site) != null) return;
+            warned.put(site, Boolean.TRUE);
+        }
+        log.warn("Virtual thread pinned for {} ms at {} (blocked in {})",
+                event.getDuration().toMillis(), site, frames.isEmpty() ? "?" : describe(frames.get(0)));
+    }
+
+    private static List<RecordedFrame> frames(RecordedStackTrace trace) {
+        return trace == null ? List.of() : trace.getFrames();
+    }
+
+    // The first frame in our code says which feature pinned; fall back to the blocking frame itself
+    static String siteOf(List<RecordedFrame> frames) {
+        for (RecordedFrame frame : frames) {
+            if (frame.isJavaFrame() && frame.getMethod().getType().getName().startsWith(APP_PACKAGE)) {
+                return describe(frame);
+            }
+        }
+        return frames.isEmpty() ? "unknown" : describe(frames.get(0));
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
@@ -0,0 +1,166 @@
+package com.hong.thebaker.service;
+
+import com.hong.thebaker.entity.Customer;
+import com.hong.thebaker.entity.PointReason;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Every points movement as an append-only point_ledger row, with customer.points
+ * kept as the running balance.
+ *
+ * The balance moves with a single {@code UPDATE ... SET points = points + ?}
+ * guarded by {@code points >= ?}, so concurrent POS and online payments neither
+ * lose each other's updates nor take a balance below zero, and nobody holds a
+ * row lock longer than that one statement plus the ledger insert. Call it from
+ * inside the transaction that records the order, so both commit or neither does.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PointLedger {
+
+    private static final String INSERT_ENTRY =
+            "INSERT INTO point_ledger (customer_id, order_id, delta, reason, created_at) VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CustomerCache customerCache;
+
+    public static class InsufficientPointsException extends RuntimeException {
+        private final int available;
+
+        public InsufficientPointsException(int available) {
+            super("포인트가 부족합니다. 보유 포인트: " + available);
+            this.available = available;
+        }
+
+        public int getAvailable() {
+            return available;
+        }
+    }
+
+    // Balances from before the ledger get one OPENING row, so the ledger always sums to the balance
+    @EventListener(ApplicationReadyEvent.class)
+    public void openBalances() {
+        int opened = jdbcTemplate.update("INSERT INTO point_ledger (customer_id, delta, reason, created_at) " +
+                "SELECT c.id, c.points, 'OPENING', CURRENT_TIMESTAMP FROM customer c " +
+                "WHERE c.points <> 0 AND NOT EXISTS (SELECT 1 FROM point_ledger l WHERE l.customer_id = c.id)");
+        if (opened > 0) log.info("Opened point ledger for {} customers", opened);
+    }
+
+    public void earn(Customer customer, int points, PointReason reason, Long orderId) {
+        settle(customer, 0, points, reason, orderId);
+    }
+
+    public void spend(Customer customer, int points, Long orderId) {
+        settle(customer, points, 0, PointReason.SPEND, orderId);
+    }
+
+    /**
+     * Spends {@code spend} and credits {@code earn} in one guarded statement.
+     * Throws {@link InsufficientPointsException} (and changes nothing) when the
+     * balance can't cover {@code spend}.
+     */
+    public void settle(Customer customer, int spend, int earn, PointReason earnReason, Long orderId) {
+        if (spend == 0 && earn == 0) return;
+
+        int updated = jdbcTemplate.update("UPDATE customer SET points = points + ? WHERE id = ? AND points >= ?",
+                earn - spend, customer.getId(), spend);
+        if (updated == 0) {
+            throw new InsufficientPointsException(balance(customer.getId()));
+        }
+
+        List<Object[]> entries = new ArrayList<>(2);
+        if (spend > 0) entries.add(new Object[]{customer.getId(), orderId, -spend, PointReason.SPEND.name()});
+        if (earn > 0) entries.add(new Object[]{customer.getId(), orderId, earn, earnReason.name()});
+        jdbcTemplate.batchUpdate(INSERT_ENTRY, entries);
+
+        applied(customer, earn - spend);
+    }
+
+    // One settle() inside a batch
+    public static class Movement {
+        final Customer customer;
+        final int spend;
+        final int earn;
+        final PointReason earnReason;
+        final Long orderId;
+
+        public Movement(Customer customer, int spend, int earn, PointReason earnReason, Long orderId) {
+            this.customer = customer;
+            this.spend = spend;
+            this.earn = earn;
+            this.earnReason = earnReason;
+            this.orderId = orderId;
+        }
+    }
+
+    /**
+     * {@link #settle} for many movements as two JDBC batches. Statements run in
+     * list order, so each guard sees the movements before it. If any guard
+     * fails, throws {@link InsufficientPointsException}; the caller's
+     * transaction has to roll back the ones that did apply.
+     */
+    public void settleAll(List<Movement> movements) {
+        List<Movement> moving = movements.stream().filter(m -> m.spend != 0 || m.earn != 0).toList();
+        if (moving.isEmpty()) return;
+
+        int[][] updated = jdbcTemplate.batchUpdate("UPDATE customer SET points = points + ? WHERE id = ? AND points >= ?",
+                moving, moving.size(), (ps, m) -> {
+                    ps.setInt(1, m.earn - m.spend);
+                    ps.setLong(2, m.customer.getId());
+                    ps.setInt(3, m.spend);
+                });
+        int i = 0;
+        for (int[] chunk : updated) {
+            for (int count : chunk) {
+                Movement m = moving.get(i++);
+                // SUCCESS_NO_INFO (-2) means the driver applied it without a count
+                if (count == 0) throw new InsufficientPointsException(balance(m.customer.getId()));
+            }
+        }
+
+        List<Object[]> entries = new ArrayList<>(moving.size() * 2);
+        for (Movement m : moving) {
+            if (m.spend > 0) entries.add(new Object[]{m.customer.getId(), m.orderId, -m.spend, PointReason.SPEND.name()});
+            if (m.earn > 0) entries.add(new Object[]{m.customer.getId(), m.orderId, m.earn, m.earnReason.name()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_ENTRY, entries);
+
+        for (Movement m : moving) applied(m.customer, m.earn - m.spend);
+    }
+
+    /** Takes back up to {@code points}, never below zero. Returns how many were actually removed. */
+    public int clawBack(Customer customer, Long orderId, int points) {
+        if (points <= 0) return 0;
+        // Rare (staff correcting a mistake); locking the row keeps the recorded delta exact
+        Integer available = jdbcTemplate.queryForObject("SELECT points FROM customer WHERE id = ? FOR UPDATE",
+                Integer.class, customer.getId());
+        int taken = Math.min(points, available == null ? 0 : available);
+        if (taken == 0) return 0;
+
+        jdbcTemplate.update("UPDATE customer SET points = points - ? WHERE id = ?", taken, customer.getId());
+        jdbcTemplate.update(INSERT_ENTRY, customer.getId(), orderId, -taken, PointReason.REVERT.name());
+        applied(customer, -taken);
+        return taken;
+    }
+
+    // Authoritative balance, for responses that show it
+    public int balance(Long customerId) {
+        Integer points = jdbcTemplate.queryForObject("SELECT points FROM customer WHERE id = ?", Integer.class, customerId);
+        return points == null ? 0 : points;
+    }
+
+    private void applied(Customer customer, int delta) {
+        // Keeps the loaded entity roughly in step; JPA never writes this column back
+        customer.setPoints(customer.getPoints() + delta);
+        customerCache.evictAfterCommit(customer.getPhone(), customer.getQrCode());
+    }
+}
@@ -0,0 +1,146 @@
+package com.hong.thebaker.service;
+
+import com.hong.thebaker.dto.BulkPaymentEntry;
+import com.hong.thebaker.dto.BulkPaymentResult;
+import com.hong.thebaker.entity.Customer;
+import com.hong.thebaker.entity.Order;
+import com.hong.thebaker.entity.OrderStatus;
+import com.hong.thebaker.entity.PointReason;
+import com.hong.thebaker.event.OrderStatusChangedEvent;
+import com.hong.thebaker.repository.CustomerRepository;
+import com.hong.thebaker.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Imports the counter tablet's backlog of walk-in payments in one transaction.
+ *
+ * Keys that already have an order come back as DUPLICATE. Customers are
+ * resolved with one IN query and their balances replayed in memory, in request
+ * order, to decide which entries the points allow. The accepted entries then go
+ * in as batched order inserts and one batched, guarded points update.
+ */
+@Slf4j
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class PosPaymentService {
+
+    // Keeps tablet keys apart from the write-behind tickets in the same column
+    static final String KEY_PREFIX = "pos:";
+
+    private final CustomerRepository customerRepository;
+    private final OrderRepository orderRepository;
+    private final PointLedger pointLedger;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public List<BulkPaymentResult> importPayments(List<BulkPaymentEntry> payments) {
+        Set<String> keys = new LinkedHashSet<>();
+        Set<String> phones = new LinkedHashSet<>();
+        for (BulkPaymentEntry payment : payments) {
+            keys.add(KEY_PREFIX + payment.getIdempotencyKey());
+            phones.add(payment.getPhoneNumber());
+        }
+
+        Map<String, Long> imported = new HashMap<>();
+        for (Object[] row : orderRepository.findIdsByRequestKeys(keys)) {
+            imported.put((String) row[0], (Long) row[1]);
+        }
+
+        Map<String, Customer> customers = new HashMap<>();
+        Map<String, Integer> balances = new HashMap<>();
+        for (Customer customer : customerRepository.findByPhoneIn(phones)) {
+            customers.put(customer.getPhone(), customer);
+            balances.put(customer.getPhone(), customer.getPoints());
+        }
+
+        List<BulkPaymentResult> results = new ArrayList<>(payments.size());
+        // Parallel to results: the order each APPLIED / in-request DUPLICATE result points at
+        List<Order> resultOrders = new ArrayList<>(payments.size());
+        Map<String, Order> accepted = new HashMap<>();
+        List<Order> orders = new ArrayList<>();
+
+        for (BulkPaymentEntry payment : payments) {
+            String key = KEY_PREFIX + payment.getIdempotencyKey();
+            String phone = payment.getPhoneNumber();
+
+            if (imported.containsKey(key) || accepted.containsKey(key)) {
+                results.add(new BulkPaymentResult(payment.getIdempotencyKey(), "DUPLICATE", imported.get(key), 0, 0, null, null));
+                resultOrders.add(accepted.get(key));
+                continue;
+            }
+
+            int balance = balances.getOrDefault(phone, 0);
+            int pointsToUse = payment.getPointsToUse();
+            if (pointsToUse > balance) {
+                results.add(new BulkPaymentResult(payment.getIdempotencyKey(), "REJECTED", null, 0, 0, null,
+                        "포인트 부족! (보유: " + balance + "P)"));
+                resultOrders.add(null);
+                continue;
+            }
+
+            BigDecimal realPaidAmount = payment.getTotalAmount().subtract(BigDecimal.valueOf(pointsToUse)).max(BigDecimal.ZERO);
+            int pointsToAdd = payment.getPaymentMethod().calculatePoints(realPaidAmount);
+            balance = balance - pointsToUse + pointsToAdd;
+            balances.put(phone, balance);
+
+            Order order = new Order();
+            order.setCustomer(customers.computeIfAbsent(phone, this::walkIn));
+            order.setOrderDate(LocalDateTime.now());
+            order.setTotalAmount(payment.getTotalAmount());
+            order.setPointsUsed(pointsToUse);
+            order.setPointsEarned(pointsToAdd);
+            order.setStatus(OrderStatus.COMPLETED);
+            order.setRequestKey(key);
+            orders.add(order);
+            accepted.put(key, order);
+
+            results.add(new BulkPaymentResult(payment.getIdempotencyKey(), "APPLIED", null, pointsToUse, pointsToAdd, balance, null));
+            resultOrders.add(order);
+        }
+
+        // Sequence ids, so these go out as one insert batch at flush
+        orderRepository.saveAll(orders);
+
+        List<PointLedger.Movement> movements = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            movements.add(new PointLedger.Movement(order.getCustomer(), order.getPointsUsed(), order.getPointsEarned(),
+                    PointReason.EARN, order.getId()));
+        }
+        // Balances were read in this transaction; only a payment racing the import can trip a guard,
+        // which rolls the whole import back and lets the tablet retry it
+        pointLedger.settleAll(movements);
+
+        for (Order order : orders) {
+            eventPublisher.publishEvent(new OrderStatusChangedEvent(order.getId(), null, OrderStatus.COMPLETED));
+        }
+        for (int i = 0; i < results.size(); i++) {
+            if (resultOrders.get(i) != null) results.get(i).setOrderId(resultOrders.get(i).getId());
+        }
+
+        log.info("Imported {} POS payments ({} new orders)", payments.size(), orders.size());
+        return results;
+    }
+
+    // IDENTITY ids mean one insert each, but only numbers the shop has never seen get here
+    private Customer walkIn(String phone) {
+        Customer customer = new Customer();
+        String lastFour = phone.length() > 4 ? phone.substring(phone.length() - 4) : phone;
+        customer.setName("Guest " + lastFour);
+        customer.setPhone(phone);
+        customer.setPoints(0);
+        return customerRepository.save(customer);
+    }
+}
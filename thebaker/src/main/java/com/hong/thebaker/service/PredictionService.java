@@ -1,77 +1,223 @@
 package com.hong.thebaker.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import jakarta.annotation.PostConstruct;
-import org.springframework.core.io.ClassPathResource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.io.InputStream;
+import java.time.Duration;
 import java.time.LocalDate;
-import java.time.format.TextStyle;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Locale;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Next-day sales forecast per product from the linear model in ml_model.json.
+ *
+ * The model comes compiled from {@link ModelRegistry}, which can swap it at
+ * runtime; each call or batch reads it once, and every result says which
+ * version produced it. {@code predictAll} scores every product in one pass.
+ *
+ * The staff page goes through {@link #forecast}, a cache keyed by model
+ * version, target date, weather class and temperature bucket; tomorrow's
+ * usual scenarios are computed just after midnight (Asia/Seoul), so a render
+ * is a cache read. A new model version simply misses until it's filled.
+ */
+@Slf4j
 @Service
 public class PredictionService {
 
-    private final Map<String, ModelData> productModels = new HashMap<>();
+    /** What the forecast distinguishes; anything else counts as clear weather. */
+    public enum WeatherClass {
+        SUNNY("Sunny"), CLOUDY("Cloudy"), RAIN("Rain"), SNOW("Snow");
 
-    private static class ModelData {
-        double baseBias;
-        Map<String, Double> weights = new HashMap<>();
-        double wasteRisk;
-        double avgMade;
+        private final String label; // as history.csv / the staff form spell it
+
+        WeatherClass(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+
+        public static WeatherClass of(String weather) {
+            String w = weather == null ? "" : weather.toLowerCase();
+            if (w.contains("snow")) return SNOW;
+            if (w.contains("rain") || w.contains("shower") || w.contains("drizzle")) return RAIN;
+            if (w.contains("cloud") || w.contains("overcast")) return CLOUDY;
+            return SUNNY;
+        }
     }
 
-    @PostConstruct
-    public void loadModel() {
-        try {
-            InputStream is = new ClassPathResource("ml_model.json").getInputStream();
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode root = mapper.readTree(is);
+    private final ModelRegistry registry;
+    private final TreeForecastService treeForecastService;
+    private final ExpiringLruCache<String, Map<String, PredictionResult>> forecasts;
+    private final double tempBucket;
+    private final int precomputeMinTemp;
+    private final int precomputeMaxTemp;
 
-            root.fields().forEachRemaining(entry -> {
-                String productName = entry.getKey();
-                JsonNode data = entry.getValue();
+    public PredictionService(ModelRegistry registry, TreeForecastService treeForecastService,
+                             @Value("${app.forecast.cache.max-entries:512}") int maxEntries,
+                             @Value("${app.forecast.cache.ttl-hours:36}") long ttlHours,
+                             @Value("${app.forecast.temp-bucket:1.0}") double tempBucket,
+                             @Value("${app.forecast.precompute.min-temp:-10}") int precomputeMinTemp,
+                             @Value("${app.forecast.precompute.max-temp:35}") int precomputeMaxTemp) {
+        this.registry = registry;
+        this.treeForecastService = treeForecastService;
+        this.forecasts = new ExpiringLruCache<>(maxEntries, Duration.ofHours(ttlHours));
+        this.tempBucket = tempBucket;
+        this.precomputeMinTemp = precomputeMinTemp;
+        this.precomputeMaxTemp = precomputeMaxTemp;
+    }
 
-                ModelData model = new ModelData();
-                model.baseBias = data.get("base_bias").asDouble();
-                model.wasteRisk = data.has("waste_risk") ? data.get("waste_risk").asDouble() : 0.0;
-                model.avgMade = data.has("avg_made") ? data.get("avg_made").asDouble() : 0.0;
+    CompiledModel model() {
+        return registry.current();
+    }
 
-                data.get("weights").fields().forEachRemaining(w ->
-                        model.weights.put(w.getKey(), w.getValue().asDouble())
-                );
+    // Forecasts are for the shop's next day
+    public static LocalDate forecastDate() {
+        return PickupSlotService.today().plusDays(1);
+    }
 
-                String key = productName.replace(" ", "").trim();
-                productModels.put(key, model);
-            });
-            System.out.println("✅ AI Model Loaded.");
+    public PredictionResult getPrediction(String productName, String weather, double temp) {
+        CompiledModel m = registry.current();
+        int product = m.indexOf(productName);
+        if (product < 0) return noData(productName);
 
-        } catch (Exception e) {
-            System.err.println("⚠️ AI Model Load Failed: " + e.getMessage());
+        int day = forecastDate().getDayOfWeek().ordinal();
+        boolean rain = CompiledModel.isRain(weather);
+        return result(m, product, productName, day, rain, temp, m.score(product, day, rain, temp));
+    }
+
+    /**
+     * The staff page's forecast: linear model plus the tree model's number when
+     * one is installed, for {@code temp} rounded to the bucket width. Results
+     * are shared between callers; treat them as read-only.
+     */
+    public List<PredictionResult> forecast(List<String> productNames, LocalDate date, String weather, double temp) {
+        long bucket = Math.round(temp / tempBucket);
+        Map<String, PredictionResult> byKey = cached(registry.current(), date, WeatherClass.of(weather), bucket);
+
+        List<PredictionResult> results = new ArrayList<>(productNames.size());
+        for (String name : productNames) {
+            PredictionResult r = byKey.get(CompiledModel.key(name));
+            // Cached under the model's spelling of the name; show the shop's
+            results.add(r == null ? noData(name) : r.productName.equals(name) ? r : r.renamed(name));
         }
+        return results;
     }
 
-    public PredictionResult getPrediction(String productName, String weather, double temp) {
-        String lookupKey = productName.replace(" ", "").trim();
-        ModelData model = productModels.get(lookupKey);
+    public long forecastCacheHits() {
+        return forecasts.hits();
+    }
+
+    public long forecastCacheMisses() {
+        return forecasts.misses();
+    }
 
-        if (model == null) return new PredictionResult(productName, 0, 0, "No Data", 0,0,0,0,0);
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        precompute();
+    }
 
-        // 1. Calculations
-        String dayName = LocalDate.now().plusDays(1).getDayOfWeek()
-                .getDisplayName(TextStyle.FULL, Locale.ENGLISH);
-        String dayKey = "day_" + dayName;
-        boolean isRain = weather.toLowerCase().contains("rain") || weather.toLowerCase().contains("snow");
+    // Just after midnight: tomorrow's date changes, so does every key
+    @Scheduled(cron = "${app.forecast.precompute.cron:0 5 0 * * *}", zone = "Asia/Seoul")
+    public void precompute() {
+        CompiledModel m = registry.current();
+        LocalDate date = forecastDate();
+        long from = (long) Math.floor(precomputeMinTemp / tempBucket);
+        long to = (long) Math.ceil(precomputeMaxTemp / tempBucket);
+        int entries = 0;
+        for (WeatherClass weather : WeatherClass.values()) {
+            for (long bucket = from; bucket <= to; bucket++) {
+                cached(m, date, weather, bucket);
+                entries++;
+            }
+        }
+        log.info("Forecasts for {} precomputed: {} scenarios, model {}", date, entries, m.version);
+    }
 
-        double dayEffect = model.weights.getOrDefault(dayKey, 0.0);
-        double rainImpact = isRain ? model.weights.getOrDefault("is_rain", 0.0) : 0.0;
-        double tempImpact = temp * model.weights.getOrDefault("temp", 0.0);
+    private Map<String, PredictionResult> cached(CompiledModel m, LocalDate date, WeatherClass weather, long bucket) {
+        String key = m.version + "|" + date + "|" + weather + "|" + bucket;
+        Map<String, PredictionResult> byKey = forecasts.get(key);
+        if (byKey == null) {
+            byKey = compute(m, date, weather, bucket * tempBucket);
+            forecasts.put(key, byKey);
+        }
+        return byKey;
+    }
+
+    // Every product either model knows, by normalised name
+    private Map<String, PredictionResult> compute(CompiledModel m, LocalDate date, WeatherClass weather, double temp) {
+        Map<String, PredictionResult> byKey = new HashMap<>();
+        for (PredictionResult r : predictAll(m, date, weather.label, temp)) {
+            byKey.put(CompiledModel.key(r.productName), r);
+        }
+        if (treeForecastService.isLoaded()) {
+            List<String> names = new ArrayList<>(List.of(m.names));
+            for (String product : treeForecastService.products()) {
+                if (!byKey.containsKey(CompiledModel.key(product))) names.add(product);
+            }
+            double[] trees = treeForecastService.forecastAll(names, date, weather.label, temp);
+            for (int i = 0; i < trees.length; i++) {
+                if (Double.isNaN(trees[i])) continue;
+                String name = names.get(i);
+                PredictionResult r = byKey.computeIfAbsent(CompiledModel.key(name), k -> noData(name));
+                r.treeForecast = trees[i];
+            }
+        }
+        return Map.copyOf(byKey);
+    }
 
-        double predictedSales = model.baseBias + dayEffect + rainImpact + tempImpact;
+    /** Every product the model knows, in model order. */
+    public List<PredictionResult> predictAll(LocalDate date, String weather, double temp) {
+        return predictAll(registry.current(), date, weather, temp);
+    }
+
+    private List<PredictionResult> predictAll(CompiledModel m, LocalDate date, String weather, double temp) {
+        int day = date.getDayOfWeek().ordinal();
+        boolean rain = CompiledModel.isRain(weather);
+        double[] scores = new double[m.size()];
+        m.scoreAll(day, rain, temp, scores);
+
+        List<PredictionResult> results = new ArrayList<>(scores.length);
+        for (int p = 0; p < scores.length; p++) {
+            results.add(result(m, p, m.names[p], day, rain, temp, scores[p]));
+        }
+        return results;
+    }
+
+    /** One result per name, in the given order; names the model doesn't know get "No Data". */
+    public List<PredictionResult> predictAll(List<String> productNames, LocalDate date, String weather, double temp) {
+        CompiledModel m = registry.current();
+        int day = date.getDayOfWeek().ordinal();
+        boolean rain = CompiledModel.isRain(weather);
+        double[] scores = new double[m.size()];
+        m.scoreAll(day, rain, temp, scores);
+
+        List<PredictionResult> results = new ArrayList<>(productNames.size());
+        for (String name : productNames) {
+            int p = m.indexOf(name);
+            results.add(p < 0 ? noData(name) : result(m, p, name, day, rain, temp, scores[p]));
+        }
+        return results;
+    }
+
+    private static PredictionResult noData(String productName) {
+        return new PredictionResult(productName, 0, 0, "No Data", 0,0,0,0,0);
+    }
+
+    private static PredictionResult result(CompiledModel m, int product, String productName,
+                                           int day, boolean rain, double temp, double predictedSales) {
+        // 1. Calculations
+        String dayName = CompiledModel.DAY_NAMES[day];
+        double dayEffect = m.weight(product, day);
+        double rainImpact = rain ? m.weight(product, CompiledModel.IS_RAIN) : 0.0;
+        double tempImpact = temp * m.weight(product, CompiledModel.TEMP);
         int recommended = (int) Math.max(0, Math.round(predictedSales));
 
         // 2. STATUS LOGIC (Updated for Sensitivity)
@@ -88,12 +234,14 @@ public class PredictionService {
         // Fallback: If status is still empty but we have a badge slot, keep it "Normal" or empty.
         if (status.isEmpty()) status = "Stable";
 
-        return new PredictionResult(
-                productName, model.baseBias, recommended, status,
+        PredictionResult result = new PredictionResult(
+                productName, m.bias[product], recommended, status,
                 dayEffect, rainImpact, tempImpact,
-                model.wasteRisk,
-                model.avgMade
+                m.wasteRisk[product],
+                m.avgMade[product]
         );
+        result.modelVersion = m.version;
+        return result;
     }
 
     // DTO Class
@@ -107,6 +255,8 @@ public class PredictionService {
         public double tempEffect;
         public double wasteRisk;
         public double avgMade;
+        public String modelVersion; // null for "No Data"
+        public Double treeForecast; // XGBoost model (TreeForecastService), null without one
 
         public PredictionResult(String name, double base, int rec, String stat,
                                 double day, double rain, double temp, double waste, double made) {
@@ -121,6 +271,14 @@ public class PredictionService {
             this.avgMade = made;
         }
 
+        PredictionResult renamed(String name) {
+            PredictionResult copy = new PredictionResult(name, baseScore, recommended, status,
+                    dayEffect, rainEffect, tempEffect, wasteRisk, avgMade);
+            copy.modelVersion = modelVersion;
+            copy.treeForecast = treeForecast;
+            return copy;
+        }
+
         // Logic for Colors in HTML
         public String getColor() {
             if (status.contains("Boost") || status.contains("Spike")) return "green";
@@ -0,0 +1,338 @@
+package com.hong.thebaker.service;
+
+import com.hong.thebaker.dto.DayAvailability;
+import com.hong.thebaker.event.ProductChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Stock for the days after today, kept per product and date.
+ *
+ * Rows live in stock_bucket; the next {@code horizon-days} days are mirrored in
+ * memory as atomic counters, so reserving for Saturday is a CAS like
+ * {@link StockLedger} does for today, and "what can I order this week" is a map
+ * read. Products with a dailyStock get a bucket per day (0 on days their
+ * category isn't baked); staff can set any day by hand. At midnight the new
+ * day's buckets become the shelf stock on the product row and are dropped, so
+ * today keeps going through StockLedger. Products without a plan can only be
+ * ordered for today, as before.
+ */
+@Slf4j
+@Service
+public class StockCalendar {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StockLedger stockLedger;
+    private final int horizonDays;
+
+    // date -> product id -> units left; only dates after today
+    private final ConcurrentHashMap<LocalDate, ConcurrentHashMap<Long, AtomicInteger>> days = new ConcurrentHashMap<>();
+    // product id -> category, for deciding what is sold on a given weekday
+    private final ConcurrentHashMap<Long, String> categories = new ConcurrentHashMap<>();
+    // Serializes planning (roll, product changes, staff edits); a lock because all of them wait on JDBC
+    private final ReentrantLock planLock = new ReentrantLock();
+
+    public StockCalendar(JdbcTemplate jdbcTemplate,
+                         TransactionTemplate transactionTemplate,
+                         StockLedger stockLedger,
+                         @Value("${app.inventory.horizon-days:14}") int horizonDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.stockLedger = stockLedger;
+        this.horizonDays = horizonDays;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        roll();
+    }
+
+    // Moves the window one day: today's buckets go on the shelf, a new last day is planned
+    @Scheduled(cron = "0 0 0 * * *", zone = "Asia/Seoul")
+    public void roll() {
+        planLock.lock();
+        try {
+            rollWindow();
+        } finally {
+            planLock.unlock();
+        }
+    }
+
+    private void rollWindow() {
+        LocalDate today = PickupSlotService.today();
+        promote(today);
+        days.keySet().removeIf(date -> !date.isAfter(today));
+
+        jdbcTemplate.query("SELECT id, category FROM product",
+                rs -> { categories.put(rs.getLong(1), categoryOf(rs.getString(2))); });
+        materialize(today.plusDays(1), lastDay(), null);
+        load(today.plusDays(1), lastDay(), null);
+        log.info("Stock calendar covers {} to {}", today.plusDays(1), lastDay());
+    }
+
+    // Once per day: the bucket row is deleted with the promotion, so a restart doesn't repeat it
+    private void promote(LocalDate today) {
+        List<Object[]> shelf = transactionTemplate.execute(status -> {
+            List<Object[]> rows = jdbcTemplate.query(
+                    "SELECT quantity, product_id FROM stock_bucket WHERE stock_date = ?",
+                    (rs, i) -> new Object[]{rs.getInt(1), rs.getLong(2)}, today);
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE product SET stock_quantity = ? WHERE id = ?", rows);
+            }
+            jdbcTemplate.update("DELETE FROM stock_bucket WHERE stock_date <= ?", today);
+            return rows;
+        });
+        for (Object[] row : shelf) {
+            stockLedger.reset((Long) row[1], (Integer) row[0]);
+        }
+        if (!shelf.isEmpty()) log.info("Put {} planned products on the shelf for {}", shelf.size(), today);
+    }
+
+    // New or edited products get their days planned; deleted ones lose their buckets
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Long productId = event.getProductId();
+        if (productId == null) return;
+        planLock.lock();
+        try {
+            replan(productId);
+        } finally {
+            planLock.unlock();
+        }
+    }
+
+    private void replan(Long productId) {
+        List<String> category = jdbcTemplate.queryForList(
+                "SELECT category FROM product WHERE id = ?", String.class, productId);
+        if (category.isEmpty()) {
+            categories.remove(productId);
+            days.values().forEach(counters -> counters.remove(productId));
+            jdbcTemplate.update("DELETE FROM stock_bucket WHERE product_id = ?", productId);
+            return;
+        }
+        categories.put(productId, categoryOf(category.get(0)));
+        LocalDate first = PickupSlotService.today().plusDays(1);
+        materialize(first, lastDay(), productId);
+        load(first, lastDay(), productId);
+    }
+
+    // Inserts the default bucket for every planned product and day that has none yet
+    private void materialize(LocalDate from, LocalDate to, Long productId) {
+        String only = productId == null ? "" : " AND id = ?";
+        Object[] args = productId == null ? new Object[0] : new Object[]{productId};
+        List<Object[]> plans = jdbcTemplate.query(
+                "SELECT id, category, daily_stock FROM product WHERE daily_stock IS NOT NULL" + only,
+                (rs, i) -> new Object[]{rs.getLong(1), rs.getString(2), rs.getInt(3)}, args);
+        if (plans.isEmpty()) return;
+
+        Map<LocalDate, Set<Long>> existing = new HashMap<>();
+        jdbcTemplate.query("SELECT stock_date, product_id FROM stock_bucket WHERE stock_date BETWEEN ? AND ?",
+                rs -> { existing.computeIfAbsent(rs.getObject(1, LocalDate.class), d -> new HashSet<>()).add(rs.getLong(2)); },
+                from, to);
+
+        List<Object[]> batch = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            Set<Long> planned = existing.getOrDefault(date, Set.of());
+            for (Object[] plan : plans) {
+                Long id = (Long) plan[0];
+                if (planned.contains(id)) continue;
+                boolean baked = MenuSnapshotService.isAvailableOnDay((String) plan[1], date.getDayOfWeek());
+                batch.add(new Object[]{id, date, baked ? plan[2] : 0});
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO stock_bucket (product_id, stock_date, quantity) VALUES (?, ?, ?)", batch);
+        }
+    }
+
+    // Counters already in memory win: they include reservations whose transaction is still open
+    private void load(LocalDate from, LocalDate to, Long productId) {
+        String only = productId == null ? "" : " AND product_id = ?";
+        Object[] args = productId == null ? new Object[]{from, to} : new Object[]{from, to, productId};
+        jdbcTemplate.query("SELECT stock_date, product_id, quantity FROM stock_bucket WHERE stock_date BETWEEN ? AND ?" + only,
+                rs -> {
+                    days.computeIfAbsent(rs.getObject(1, LocalDate.class), d -> new ConcurrentHashMap<>())
+                            .putIfAbsent(rs.getLong(2), new AtomicInteger(rs.getInt(3)));
+                }, args);
+    }
+
+    // No category means sold every day, same as "ALL"
+    private static String categoryOf(String category) {
+        return category == null ? "ALL" : category;
+    }
+
+    private LocalDate lastDay() {
+        return PickupSlotService.today().plusDays(horizonDays);
+    }
+
+    // Orders for these dates draw on a bucket; today and earlier use StockLedger
+    public boolean isFuture(LocalDate date) {
+        return date != null && date.isAfter(PickupSlotService.today());
+    }
+
+    public boolean covers(LocalDate date) {
+        return isFuture(date) && !date.isAfter(lastDay());
+    }
+
+    /**
+     * Takes {@code quantity} units off the date's bucket without blocking; given
+     * back if the surrounding transaction rolls back. Returns false when the
+     * bucket can't cover it, including products not planned for that date.
+     */
+    public boolean reserve(LocalDate date, Long productId, int quantity) {
+        AtomicInteger counter = counter(date, productId);
+        if (counter == null) return false;
+
+        int current;
+        do {
+            current = counter.get();
+            if (current < quantity) return false;
+        } while (!counter.compareAndSet(current, current - quantity));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) counter.addAndGet(quantity);
+                }
+            });
+        }
+        return true;
+    }
+
+    // Hands back units taken outside a transaction whose sale never reached the table
+    public void release(LocalDate date, Long productId, int quantity) {
+        AtomicInteger counter = counter(date, productId);
+        if (counter != null) counter.addAndGet(quantity);
+    }
+
+    /**
+     * Guarded, batched decrement of one date's buckets, the stock_bucket twin of
+     * {@link StockLedger#decrementStock}. Returns the first product whose bucket
+     * could not cover its quantity; the caller is expected to roll back.
+     */
+    public Optional<Long> decrementStock(LocalDate date, Map<Long, Integer> quantities) {
+        List<Long> ids = new ArrayList<>(quantities.keySet());
+        List<Object[]> batch = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            int quantity = quantities.get(id);
+            batch.add(new Object[]{quantity, id, date, quantity});
+        }
+
+        int[] counts = jdbcTemplate.batchUpdate(
+                "UPDATE stock_bucket SET quantity = quantity - ? WHERE product_id = ? AND stock_date = ? AND quantity >= ?", batch);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) return Optional.of(ids.get(i));
+        }
+        return Optional.empty();
+    }
+
+    // Cancelled units go back to their date: the row now, the counter once the cancel commits
+    public void restock(LocalDate date, Long productId, int quantity) {
+        jdbcTemplate.update("UPDATE stock_bucket SET quantity = quantity + ? WHERE product_id = ? AND stock_date = ?",
+                quantity, productId, date);
+        AtomicInteger counter = counter(date, productId);
+        if (counter == null) return;
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            counter.addAndGet(quantity);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                counter.addAndGet(quantity);
+            }
+        });
+    }
+
+    // Staff plan a day by hand; like StockLedger.reset, the number is absolute
+    public void set(Long productId, LocalDate date, int quantity) {
+        if (!covers(date)) {
+            throw new RuntimeException("재고를 미리 정할 수 없는 날짜입니다: " + date);
+        }
+        planLock.lock();
+        try {
+            plan(productId, date, quantity);
+        } finally {
+            planLock.unlock();
+        }
+    }
+
+    private void plan(Long productId, LocalDate date, int quantity) {
+        int updated = jdbcTemplate.update("UPDATE stock_bucket SET quantity = ? WHERE product_id = ? AND stock_date = ?",
+                quantity, productId, date);
+        if (updated == 0) {
+            jdbcTemplate.update("INSERT INTO stock_bucket (product_id, stock_date, quantity) VALUES (?, ?, ?)",
+                    productId, date, quantity);
+        }
+        days.computeIfAbsent(date, d -> new ConcurrentHashMap<>())
+                .computeIfAbsent(productId, id -> new AtomicInteger())
+                .set(quantity);
+    }
+
+    public int available(LocalDate date, Long productId) {
+        AtomicInteger counter = counter(date, productId);
+        return counter == null ? 0 : counter.get();
+    }
+
+    /**
+     * What can be ordered for today and each of the following days, from memory
+     * only: today's shelf from StockLedger, later days from their buckets.
+     */
+    public List<DayAvailability> availability(int count) {
+        LocalDate today = PickupSlotService.today();
+        int span = Math.max(1, Math.min(count, horizonDays + 1));
+        List<DayAvailability> result = new ArrayList<>(span);
+
+        Map<Long, Integer> shelf = new TreeMap<>();
+        categories.forEach((id, category) -> {
+            if (MenuSnapshotService.isAvailableOnDay(category, today.getDayOfWeek())) {
+                shelf.put(id, stockLedger.available(id));
+            }
+        });
+        result.add(new DayAvailability(today, shelf));
+
+        for (int i = 1; i < span; i++) {
+            LocalDate date = today.plusDays(i);
+            Map<Long, Integer> available = new TreeMap<>();
+            days.getOrDefault(date, new ConcurrentHashMap<>()).forEach((id, counter) -> {
+                int left = counter.get();
+                // A zero bucket on a day the category isn't baked is just "not sold"
+                if (left > 0 || MenuSnapshotService.isAvailableOnDay(categories.get(id), date.getDayOfWeek())) {
+                    available.put(id, left);
+                }
+            });
+            result.add(new DayAvailability(date, available));
+        }
+        return result;
+    }
+
+    private AtomicInteger counter(LocalDate date, Long productId) {
+        ConcurrentHashMap<Long, AtomicInteger> counters = days.get(date);
+        return counters == null ? null : counters.get(productId);
+    }
+}
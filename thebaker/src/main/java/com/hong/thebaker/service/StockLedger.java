@@ -0,0 +1,208 @@
+package com.hong.thebaker.service;
+
+import com.hong.thebaker.event.ProductChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory stock counters that sit in front of the product table.
+ *
+ * Buyers reserve against an atomic counter instead of locking the product row.
+ * A reservation made inside a transaction is committed when that transaction
+ * commits and released when it rolls back. Sales ({@link #decrementStock}) and
+ * cancellations ({@link #restock}) reach the product table in the caller's
+ * transaction, so a restart, which re-seeds from the table, loses nothing.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockLedger {
+
+    private static final int STRIPES = 16;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Stripe[] stripes = createStripes();
+
+    private static Stripe[] createStripes() {
+        Stripe[] result = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            result[i] = new Stripe();
+        }
+        return result;
+    }
+
+    // One map per stripe keeps hot products from sharing a table with the rest of the menu
+    private static final class Stripe {
+        final ConcurrentHashMap<Long, Counter> counters = new ConcurrentHashMap<>();
+    }
+
+    private static final class Counter {
+        final AtomicInteger available = new AtomicInteger();
+        final AtomicInteger reserved = new AtomicInteger();
+    }
+
+    // Runs after DataLoader so seeded products are picked up too
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedFromDatabase() {
+        jdbcTemplate.query("SELECT id, stock_quantity FROM product",
+                rs -> { seed(rs.getLong(1), rs.getInt(2)); });
+        log.info("Stock ledger seeded");
+    }
+
+    public void seed(Long productId, int quantity) {
+        Counter counter = new Counter();
+        counter.available.set(quantity);
+        stripe(productId).counters.putIfAbsent(productId, counter);
+    }
+
+    /**
+     * Takes {@code quantity} units off the counter without blocking.
+     * Returns false when there is not enough stock left.
+     */
+    public boolean reserve(Long productId, int quantity) {
+        Counter counter = counter(productId);
+        if (counter == null) {
+            throw new RuntimeException("상품을 찾을 수 없습니다.");
+        }
+
+        int current;
+        do {
+            current = counter.available.get();
+            if (current < quantity) return false;
+        } while (!counter.available.compareAndSet(current, current - quantity));
+        counter.reserved.addAndGet(quantity);
+
+        afterCompletion(committed -> {
+            if (committed) commit(counter, quantity);
+            else release(counter, quantity);
+        });
+        return true;
+    }
+
+    // Cancelled units go back to the table in the cancel transaction, and on the shelf once it commits
+    public void restock(Long productId, int quantity) {
+        jdbcTemplate.update("UPDATE product SET stock_quantity = stock_quantity + ? WHERE id = ?", quantity, productId);
+        // Delivered after the caller's transaction commits
+        eventPublisher.publishEvent(new ProductChangedEvent(null));
+
+        Counter counter = counter(productId);
+        if (counter == null) return;
+        afterCompletion(committed -> {
+            if (committed) counter.available.addAndGet(quantity);
+        });
+    }
+
+    // Staff set an absolute stock level and saved it themselves
+    public void reset(Long productId, int quantity) {
+        Counter counter = counter(productId);
+        if (counter == null) return;
+        counter.available.set(quantity - counter.reserved.get());
+        eventPublisher.publishEvent(new ProductChangedEvent(productId));
+    }
+
+    // Hands back units taken outside a transaction whose sale never reached the table
+    public void release(Long productId, int quantity) {
+        Counter counter = counter(productId);
+        if (counter == null) return;
+        counter.available.addAndGet(quantity);
+    }
+
+    public void evict(Long productId) {
+        stripe(productId).counters.remove(productId);
+    }
+
+    public int available(Long productId) {
+        Counter counter = counter(productId);
+        return counter == null ? 0 : counter.available.get();
+    }
+
+    // The sale itself was already written by decrementStock
+    private void commit(Counter counter, int quantity) {
+        counter.reserved.addAndGet(-quantity);
+    }
+
+    private void release(Counter counter, int quantity) {
+        counter.reserved.addAndGet(-quantity);
+        counter.available.addAndGet(quantity);
+    }
+
+    /**
+     * Guarded, batched decrement of the product table for one order.
+     * Returns the first product whose row could not cover its quantity, if any;
+     * the caller is expected to roll back.
+     */
+    public Optional<Long> decrementStock(Map<Long, Integer> quantities) {
+        List<Long> ids = new ArrayList<>(quantities.keySet());
+        List<Object[]> batch = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            int quantity = quantities.get(id);
+            batch.add(new Object[]{quantity, id, quantity});
+        }
+
+        int[] counts = jdbcTemplate.batchUpdate(
+                "UPDATE product SET stock_quantity = stock_quantity - ? WHERE id = ? AND stock_quantity >= ?", batch);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) return Optional.of(ids.get(i));
+        }
+        // Delivered after the caller's transaction commits
+        eventPublisher.publishEvent(new ProductChangedEvent(null));
+        return Optional.empty();
+    }
+
+    // Loaded outside the map: computeIfAbsent would run the query holding a bin lock (and pin a virtual thread)
+    private Counter counter(Long productId) {
+        Map<Long, Counter> counters = stripe(productId).counters;
+        Counter counter = counters.get(productId);
+        if (counter != null) return counter;
+        Counter loaded = load(productId);
+        if (loaded == null) return null;
+        Counter raced = counters.putIfAbsent(productId, loaded);
+        return raced != null ? raced : loaded;
+    }
+
+    private Counter load(Long productId) {
+        List<Integer> rows = jdbcTemplate.queryForList(
+                "SELECT stock_quantity FROM product WHERE id = ?", Integer.class, productId);
+        if (rows.isEmpty()) return null;
+        Counter counter = new Counter();
+        counter.available.set(rows.get(0));
+        return counter;
+    }
+
+    private Stripe stripe(Long productId) {
+        return stripes[(Long.hashCode(productId) & 0x7fffffff) % STRIPES];
+    }
+
+    private interface CompletionCallback {
+        void run(boolean committed);
+    }
+
+    private static void afterCompletion(CompletionCallback callback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            callback.run(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                callback.run(status == STATUS_COMMITTED);
+            }
+        });
+    }
+}
@@ -0,0 +1,35 @@
+package com.hong.thebaker.service;
+
+// Classic token bucket: up to `capacity` requests at once, refilled at `perSecond`
+final class TokenBucket {
+
+    private final double capacity;
+    private final double perNano;
+    private double tokens;
+    private long last;
+
+    TokenBucket(int capacity, double perSecond, long now) {
+        this.capacity = capacity;
+        this.perNano = perSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.last = now;
+    }
+
+    synchronized boolean tryTake(long now) {
+        refill(now);
+        if (tokens < 1) return false;
+        tokens -= 1;
+        return true;
+    }
+
+    // Time until the next token, for Retry-After
+    synchronized long nanosUntilNext(long now) {
+        refill(now);
+        return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / perNano);
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(capacity, tokens + (now - last) * perNano);
+        last = now;
+    }
+}
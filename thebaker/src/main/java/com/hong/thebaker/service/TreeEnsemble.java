@@ -0,0 +1,262 @@
+package com.hong.thebaker.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A gradient-boosted tree model saved by XGBoost ({@code model.save_model("x.json")},
+ * what thebaker-ai/train_xgb.py writes), evaluated in the JVM.
+ *
+ * All trees are flattened into parallel node arrays (split feature, threshold
+ * or leaf value, absolute child offsets, flags), so a prediction is a tight
+ * loop over primitive arrays with no allocation. Decisions follow XGBoost's
+ * CPU predictor: {@code x < threshold} goes left, a missing (NaN) value follows
+ * the node's default direction, a categorical split sends the listed
+ * categories right, and leaves are summed in float onto the base margin.
+ * Only the trees up to {@code best_iteration} count, as in XGBRegressor.predict.
+ */
+final class TreeEnsemble {
+
+    private static final byte DEFAULT_LEFT = 1;
+    private static final byte CATEGORICAL = 2;
+
+    private enum Link { IDENTITY, LOG, LOGIT }
+
+    final String[] featureNames;
+    final boolean[] categorical; // per feature: feature_types "c"
+
+    private final int[] roots;
+    private final int[] split;     // feature index, -1 for a leaf
+    private final float[] value;   // threshold, or the leaf value
+    private final int[] left;
+    private final int[] right;
+    private final byte[] flags;
+    private final int[] catStart;  // categorical nodes: bitset words in catBits
+    private final int[] catWords;
+    private final long[] catBits;
+    private final float baseMargin;
+    private final Link link;
+
+    private TreeEnsemble(String[] featureNames, boolean[] categorical, int[] roots, int[] split, float[] value,
+                         int[] left, int[] right, byte[] flags, int[] catStart, int[] catWords, long[] catBits,
+                         float baseMargin, Link link) {
+        this.featureNames = featureNames;
+        this.categorical = categorical;
+        this.roots = roots;
+        this.split = split;
+        this.value = value;
+        this.left = left;
+        this.right = right;
+        this.flags = flags;
+        this.catStart = catStart;
+        this.catWords = catWords;
+        this.catBits = catBits;
+        this.baseMargin = baseMargin;
+        this.link = link;
+    }
+
+    /**
+     * Flattens a parsed XGBoost model file.
+     *
+     * @throws IllegalArgumentException for anything but a single-output gbtree
+     *         regression or logistic model
+     */
+    static TreeEnsemble parse(JsonNode root) {
+        JsonNode learner = root.path("learner");
+        JsonNode booster = learner.path("gradient_booster");
+        if (!"gbtree".equals(booster.path("name").asText())) {
+            throw new IllegalArgumentException("only gbtree models are supported, got " + booster.path("name").asText("nothing"));
+        }
+        JsonNode params = learner.path("learner_model_param");
+        if (params.path("num_target").asInt(1) != 1 || Math.max(1, params.path("num_class").asInt(0)) != 1) {
+            throw new IllegalArgumentException("multi-output models are not supported");
+        }
+
+        Link link = linkOf(learner.path("objective").path("name").asText());
+        float baseScore = parseBaseScore(params.path("base_score").asText("0.5"));
+        float baseMargin = switch (link) {
+            case IDENTITY -> baseScore;
+            case LOG -> (float) Math.log(baseScore);
+            case LOGIT -> (float) -Math.log(1.0 / baseScore - 1.0);
+        };
+
+        int numFeature = params.path("num_feature").asInt();
+        String[] names = new String[numFeature];
+        boolean[] categorical = new boolean[numFeature];
+        JsonNode featureNames = learner.path("feature_names");
+        JsonNode featureTypes = learner.path("feature_types");
+        for (int f = 0; f < numFeature; f++) {
+            names[f] = featureNames.has(f) ? featureNames.get(f).asText() : "f" + f;
+            categorical[f] = "c".equals(featureTypes.path(f).asText());
+        }
+
+        JsonNode trees = booster.path("model").path("trees");
+        int treeCount = trees.size();
+        // Early stopping keeps the trees after the best round in the file; predict() ignores them
+        String best = learner.path("attributes").path("best_iteration").asText(null);
+        if (best != null) treeCount = Math.min(treeCount, Integer.parseInt(best) + 1);
+
+        int total = 0;
+        for (int t = 0; t < treeCount; t++) total += trees.get(t).path("left_children").size();
+
+        int[] roots = new int[treeCount];
+        int[] split = new int[total];
+        float[] value = new float[total];
+        int[] left = new int[total];
+        int[] right = new int[total];
+        byte[] flags = new byte[total];
+        int[] catStart = new int[total];
+        int[] catWords = new int[total];
+        List<Long> bits = new ArrayList<>();
+
+        int base = 0;
+        for (int t = 0; t < treeCount; t++) {
+            JsonNode tree = trees.get(t);
+            JsonNode lefts = tree.path("left_children");
+            JsonNode rights = tree.path("right_children");
+            JsonNode indices = tree.path("split_indices");
+            JsonNode conditions = tree.path("split_conditions");
+            JsonNode defaults = tree.path("default_left");
+            JsonNode types = tree.path("split_type");
+            Map<Integer, int[]> categories = categoriesOf(tree);
+
+            roots[t] = base;
+            for (int i = 0; i < lefts.size(); i++) {
+                int n = base + i;
+                value[n] = (float) conditions.get(i).asDouble();
+                if (lefts.get(i).asInt() == -1) {
+                    split[n] = -1;
+                    continue;
+                }
+                split[n] = indices.get(i).asInt();
+                if (split[n] >= numFeature) {
+                    throw new IllegalArgumentException("tree " + t + " splits on unknown feature " + split[n]);
+                }
+                left[n] = base + lefts.get(i).asInt();
+                right[n] = base + rights.get(i).asInt();
+                JsonNode d = defaults.get(i);
+                if (d != null && (d.asBoolean() || d.asInt() != 0)) flags[n] |= DEFAULT_LEFT;
+
+                if (types.path(i).asInt() == 1) {
+                    int[] cats = categories.getOrDefault(i, new int[0]);
+                    int max = -1;
+                    for (int c : cats) max = Math.max(max, c);
+                    long[] words = new long[max / 64 + 1];
+                    for (int c : cats) words[c >>> 6] |= 1L << (c & 63);
+                    flags[n] |= CATEGORICAL;
+                    catStart[n] = bits.size();
+                    catWords[n] = words.length;
+                    for (long w : words) bits.add(w);
+                }
+            }
+            base += lefts.size();
+        }
+
+        long[] catBits = new long[bits.size()];
+        for (int i = 0; i < catBits.length; i++) catBits[i] = bits.get(i);
+        return new TreeEnsemble(names, categorical, roots, split, value, left, right, flags,
+                catStart, catWords, catBits, baseMargin, link);
+    }
+
+    int featureCount() {
+        return featureNames.length;
+    }
+
+    int treeCount() {
+        return roots.length;
+    }
+
+    int indexOf(String featureName) {
+        for (int f = 0; f < featureNames.length; f++) {
+            if (featureNames[f].equals(featureName)) return f;
+        }
+        return -1;
+    }
+
+    /** One row of {@link #featureCount()} values, NaN where missing. */
+    float predict(float[] row) {
+        return predict(row, 0);
+    }
+
+    /**
+     * Scores {@code rows} rows laid out back to back in {@code features}
+     * (row r starts at r * featureCount()) into {@code out}.
+     */
+    void predictAll(float[] features, int rows, float[] out) {
+        int width = featureNames.length;
+        for (int r = 0; r < rows; r++) {
+            out[r] = predict(features, r * width);
+        }
+    }
+
+    private float predict(float[] features, int offset) {
+        float sum = baseMargin;
+        for (int root : roots) {
+            sum += leaf(root, features, offset);
+        }
+        return switch (link) {
+            case IDENTITY -> sum;
+            case LOG -> (float) Math.exp(sum);
+            case LOGIT -> (float) (1.0 / (1.0 + Math.exp(-sum)));
+        };
+    }
+
+    private float leaf(int n, float[] features, int offset) {
+        int f;
+        while ((f = split[n]) >= 0) {
+            float x = features[offset + f];
+            if (Float.isNaN(x)) {
+                n = (flags[n] & DEFAULT_LEFT) != 0 ? left[n] : right[n];
+            } else if ((flags[n] & CATEGORICAL) != 0) {
+                n = inCategorySet(n, x) ? right[n] : left[n];
+            } else {
+                n = x < value[n] ? left[n] : right[n];
+            }
+        }
+        return value[n];
+    }
+
+    // A category outside the set, negative or not whole goes left, like XGBoost's Decision()
+    private boolean inCategorySet(int n, float x) {
+        if (x < 0 || x != (int) x) return false;
+        int c = (int) x;
+        int word = c >>> 6;
+        return word < catWords[n] && (catBits[catStart[n] + word] & (1L << (c & 63))) != 0;
+    }
+
+    // node id -> categories that go right
+    private static Map<Integer, int[]> categoriesOf(JsonNode tree) {
+        Map<Integer, int[]> byNode = new HashMap<>();
+        JsonNode nodes = tree.path("categories_nodes");
+        JsonNode segments = tree.path("categories_segments");
+        JsonNode sizes = tree.path("categories_sizes");
+        JsonNode categories = tree.path("categories");
+        for (int i = 0; i < nodes.size(); i++) {
+            int start = segments.get(i).asInt();
+            int[] cats = new int[sizes.get(i).asInt()];
+            for (int k = 0; k < cats.length; k++) cats[k] = categories.get(start + k).asInt();
+            byNode.put(nodes.get(i).asInt(), cats);
+        }
+        return byNode;
+    }
+
+    private static Link linkOf(String objective) {
+        return switch (objective) {
+            case "reg:squarederror", "reg:squaredlogerror", "reg:absoluteerror", "reg:pseudohubererror", "reg:quantileerror" -> Link.IDENTITY;
+            case "count:poisson", "reg:gamma", "reg:tweedie" -> Link.LOG;
+            case "reg:logistic", "binary:logistic" -> Link.LOGIT;
+            default -> throw new IllegalArgumentException("unsupported objective: " + objective);
+        };
+    }
+
+    // "5E-1" up to 2.0, "[5E-1]" from 2.1 on
+    private static float parseBaseScore(String text) {
+        String s = text.trim();
+        if (s.startsWith("[")) s = s.substring(1, s.length() - 1).split(",")[0].trim();
+        return Float.parseFloat(s);
+    }
+}
@@ -0,0 +1,107 @@
+package com.hong.thebaker.service;
+
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Builds {@link TreeEnsemble} input rows from what the staff page knows:
+ * product, target date, weather and temperature.
+ *
+ * Feature names follow thebaker-ai/features.py. Calendar features and
+ * temp_avg are computed here; product and weather become the category codes
+ * pandas gave them in training (from the model's .categories.json). History
+ * features (lags, rolling means) are left missing, which is what api.py
+ * sends too, and the trees follow their default branches for them.
+ */
+final class TreeFeatures {
+
+    private enum Kind {
+        MISSING, PRODUCT, WEATHER, TEMP_AVG, DAY_OF_WEEK, IS_WEEKEND, WEEK_OF_YEAR,
+        MONTH, DAY_OF_MONTH, DOW_SIN, DOW_COS, MONTH_SIN, MONTH_COS
+    }
+
+    private static final Map<String, Kind> BY_NAME = Map.ofEntries(
+            Map.entry("product", Kind.PRODUCT),
+            Map.entry("weather", Kind.WEATHER),
+            Map.entry("temp_avg", Kind.TEMP_AVG),
+            Map.entry("day_of_week", Kind.DAY_OF_WEEK),
+            Map.entry("is_weekend", Kind.IS_WEEKEND),
+            Map.entry("week_of_year", Kind.WEEK_OF_YEAR),
+            Map.entry("month", Kind.MONTH),
+            Map.entry("day_of_month", Kind.DAY_OF_MONTH),
+            Map.entry("dow_sin", Kind.DOW_SIN),
+            Map.entry("dow_cos", Kind.DOW_COS),
+            Map.entry("month_sin", Kind.MONTH_SIN),
+            Map.entry("month_cos", Kind.MONTH_COS));
+
+    final TreeEnsemble model;
+    private final Kind[] kinds;
+    private final boolean usesProduct;
+    final List<String> products; // as trained, in code order
+    private final Map<String, Integer> productCodes = new HashMap<>();
+    private final Map<String, Integer> weatherCodes = new HashMap<>();
+
+    TreeFeatures(TreeEnsemble model, Map<String, List<String>> categories) {
+        this.model = model;
+        this.kinds = new Kind[model.featureCount()];
+        for (int f = 0; f < kinds.length; f++) {
+            kinds[f] = BY_NAME.getOrDefault(model.featureNames[f], Kind.MISSING);
+        }
+        this.usesProduct = Arrays.asList(kinds).contains(Kind.PRODUCT);
+        this.products = List.copyOf(categories.getOrDefault("product", List.of()));
+        for (int i = 0; i < products.size(); i++) productCodes.put(CompiledModel.key(products.get(i)), i);
+        List<String> weathers = categories.getOrDefault("weather", List.of());
+        for (int i = 0; i < weathers.size(); i++) weatherCodes.put(weathers.get(i).toLowerCase(Locale.ROOT), i);
+    }
+
+    int width() {
+        return kinds.length;
+    }
+
+    /** Category code the model was trained with, or -1 for a product it never saw. */
+    int productCode(String productName) {
+        return productCodes.getOrDefault(CompiledModel.key(productName), -1);
+    }
+
+    // A model without a product feature forecasts every product alike
+    boolean covers(int productCode) {
+        return !usesProduct || productCode >= 0;
+    }
+
+    /** Writes one row at {@code offset}; an unknown product or weather is left missing. */
+    void fill(float[] rows, int offset, int productCode, LocalDate date, String weather, double temp) {
+        int dow = date.getDayOfWeek().getValue() - 1; // pandas: Monday = 0
+        int month = date.getMonthValue();
+        int weatherCode = weatherCodes.getOrDefault(weather.toLowerCase(Locale.ROOT), -1);
+
+        for (int f = 0; f < kinds.length; f++) {
+            rows[offset + f] = switch (kinds[f]) {
+                case PRODUCT -> productCode < 0 ? Float.NaN : productCode;
+                case WEATHER -> weatherCode < 0 ? Float.NaN : weatherCode;
+                case TEMP_AVG -> (float) temp;
+                case DAY_OF_WEEK -> dow;
+                case IS_WEEKEND -> dow >= 5 ? 1 : 0;
+                case WEEK_OF_YEAR -> date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR);
+                case MONTH -> month;
+                case DAY_OF_MONTH -> date.getDayOfMonth();
+                case DOW_SIN -> (float) Math.sin(2 * Math.PI * dow / 7.0);
+                case DOW_COS -> (float) Math.cos(2 * Math.PI * dow / 7.0);
+                case MONTH_SIN -> (float) Math.sin(2 * Math.PI * month / 12.0);
+                case MONTH_COS -> (float) Math.cos(2 * Math.PI * month / 12.0);
+                case MISSING -> Float.NaN;
+            };
+        }
+    }
+
+    // Features the model uses that this side can't compute, for the startup log
+    List<String> missingFeatures() {
+        return Arrays.stream(model.featureNames)
+                .filter(name -> !BY_NAME.containsKey(name))
+                .toList();
+    }
+}
@@ -0,0 +1,109 @@
+package com.hong.thebaker.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Next-day sales from the XGBoost model train_xgb.py produces, scored in the
+ * JVM instead of through the Python api.py service.
+ *
+ * Loads {@code app.model.tree-file} (models/xgb_sold_qty.json from
+ * thebaker-ai) and the .categories.json written next to it at startup. Without
+ * the file the staff page simply shows the linear model alone.
+ */
+@Slf4j
+@Service
+public class TreeForecastService {
+
+    private final Path modelFile;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private volatile TreeFeatures features;
+
+    public TreeForecastService(@Value("${app.model.tree-file:./data/models/xgb/xgb_sold_qty.json}") String modelFile) {
+        this.modelFile = Paths.get(modelFile).toAbsolutePath().normalize();
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!Files.isRegularFile(modelFile)) {
+            log.info("No tree model at {}; staff page uses the linear model only", modelFile);
+            return;
+        }
+        try {
+            features = load(modelFile);
+            log.info("Tree model loaded from {} ({} trees, {} features; not available here: {})",
+                    modelFile, features.model.treeCount(), features.width(), features.missingFeatures());
+        } catch (IOException | RuntimeException e) {
+            log.error("Tree model {} failed to load: {}", modelFile, e.getMessage());
+        }
+    }
+
+    TreeFeatures load(Path file) throws IOException {
+        TreeEnsemble model = TreeEnsemble.parse(mapper.readTree(file.toFile()));
+        Path categoriesFile = categoriesFileOf(file);
+        Map<String, List<String>> categories = Files.isRegularFile(categoriesFile)
+                ? mapper.readValue(categoriesFile.toFile(), new TypeReference<Map<String, List<String>>>() {})
+                : Map.of();
+        if (categories.isEmpty()) {
+            log.warn("No {} next to the tree model: products and weather can't be encoded", categoriesFile.getFileName());
+        }
+        return new TreeFeatures(model, categories);
+    }
+
+    // xgb_sold_qty.json -> xgb_sold_qty.categories.json
+    static Path categoriesFileOf(Path modelFile) {
+        String name = modelFile.getFileName().toString();
+        return modelFile.resolveSibling(name.replaceFirst("\\.json$", "") + ".categories.json");
+    }
+
+    public boolean isLoaded() {
+        return features != null;
+    }
+
+    // Products the tree model was trained on
+    public List<String> products() {
+        TreeFeatures f = features;
+        return f == null ? List.of() : f.products;
+    }
+
+    /**
+     * Forecast per product name in one pass over the trees; NaN for products
+     * the model was not trained on. Clamped at zero like predict_xgb.
+     */
+    public double[] forecastAll(List<String> productNames, LocalDate date, String weather, double temp) {
+        double[] forecasts = new double[productNames.size()];
+        TreeFeatures f = features;
+        if (f == null) {
+            Arrays.fill(forecasts, Double.NaN);
+            return forecasts;
+        }
+
+        int width = f.width();
+        int[] codes = new int[productNames.size()];
+        float[] rows = new float[productNames.size() * width];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = f.productCode(productNames.get(i));
+            f.fill(rows, i * width, codes[i], date, weather, temp);
+        }
+        float[] out = new float[codes.length];
+        f.model.predictAll(rows, codes.length, out);
+
+        for (int i = 0; i < codes.length; i++) {
+            forecasts[i] = f.covers(codes[i]) ? Math.max(0f, out[i]) : Double.NaN;
+        }
+        return forecasts;
+    }
+}
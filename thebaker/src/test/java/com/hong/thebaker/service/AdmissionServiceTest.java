@@ -0,0 +1,98 @@
+package com.hong.thebaker.service;
+
+import com.hong.thebaker.dto.QueuePosition;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionServiceTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private AdmissionService service(int maxConcurrent) {
+        return new AdmissionService(true, maxConcurrent, 10, 3, 1,
+                Duration.ofSeconds(30), Duration.ofSeconds(30), now::get);
+    }
+
+    private static final Supplier<ResponseEntity<?>> OK = () -> ResponseEntity.ok("done");
+
+    // Runs `inner` while holding one place, like an order that is still talking to the database
+    private static ResponseEntity<?> holding(AdmissionService service, String client, Runnable inner) {
+        return service.admit(client, null, () -> {
+            inner.run();
+            return ResponseEntity.ok("held");
+        });
+    }
+
+    @Test
+    void clientOverItsBurst_IsRateLimited() {
+        AdmissionService service = service(8);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(HttpStatus.OK, service.admit("10.0.0.1", null, OK).getStatusCode());
+        }
+
+        assertThrows(AdmissionService.RateLimitedException.class, () -> service.admit("10.0.0.1", null, OK));
+        // Other clients have their own bucket
+        assertEquals(HttpStatus.OK, service.admit("10.0.0.2", null, OK).getStatusCode());
+
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertEquals(HttpStatus.OK, service.admit("10.0.0.1", null, OK).getStatusCode());
+    }
+
+    @Test
+    void overflow_WaitsInLineAndIsAdmittedInOrder() {
+        AdmissionService service = service(1);
+        String[] tickets = new String[2];
+
+        holding(service, "a", () -> {
+            ResponseEntity<?> first = service.admit("b", null, OK);
+            ResponseEntity<?> second = service.admit("c", null, OK);
+            assertEquals(HttpStatus.ACCEPTED, first.getStatusCode());
+            tickets[0] = first.getHeaders().getFirst(AdmissionService.TICKET_HEADER);
+            tickets[1] = second.getHeaders().getFirst(AdmissionService.TICKET_HEADER);
+            assertEquals(1, ((QueuePosition) first.getBody()).getPosition());
+            assertEquals(2, ((QueuePosition) second.getBody()).getPosition());
+        });
+
+        // The place freed by "a" went to the head of the line, not to a newcomer
+        assertEquals("ADMITTED", service.status(tickets[0]).getStatus());
+        assertEquals("WAITING", service.status(tickets[1]).getStatus());
+        assertEquals(HttpStatus.ACCEPTED, service.admit("d", null, OK).getStatusCode());
+
+        assertEquals(HttpStatus.OK, service.admit("b", tickets[0], OK).getStatusCode());
+        assertEquals("ADMITTED", service.status(tickets[1]).getStatus());
+    }
+
+    @Test
+    void heldPlace_IsTakenBackWhenClientNeverReturns() {
+        AdmissionService service = service(1);
+        String[] ticket = new String[1];
+        holding(service, "a", () ->
+                ticket[0] = service.admit("b", null, OK).getHeaders().getFirst(AdmissionService.TICKET_HEADER));
+        assertEquals("ADMITTED", service.status(ticket[0]).getStatus());
+
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+        service.sweep();
+
+        assertEquals("UNKNOWN", service.status(ticket[0]).getStatus());
+        assertEquals(HttpStatus.OK, service.admit("c", null, OK).getStatusCode());
+    }
+
+    @Test
+    void abandonedTicket_LeavesTheLine() {
+        AdmissionService service = service(1);
+        String[] ticket = new String[1];
+        holding(service, "a", () -> {
+            ticket[0] = service.admit("b", null, OK).getHeaders().getFirst(AdmissionService.TICKET_HEADER);
+            now.addAndGet(Duration.ofSeconds(31).toNanos());
+            service.sweep();
+            assertEquals("UNKNOWN", service.status(ticket[0]).getStatus());
+        });
+    }
+}
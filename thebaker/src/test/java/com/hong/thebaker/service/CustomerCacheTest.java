@@ -0,0 +1,108 @@
+package com.hong.thebaker.service;
+
+import com.hong.thebaker.entity.Customer;
+import com.hong.thebaker.repository.CustomerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CustomerCacheTest {
+
+    private final CustomerRepository customerRepository = mock(CustomerRepository.class);
+    private final CustomerCache customerCache = new CustomerCache(customerRepository, 100, 300, 30);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static Customer customer(String phone, int points) {
+        Customer customer = new Customer();
+        customer.setId(1L);
+        customer.setPhone(phone);
+        customer.setPoints(points);
+        return customer;
+    }
+
+    // Stands in for the transaction manager finishing the current transaction
+    private static void complete(boolean committed) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        for (TransactionSynchronization s : synchronizations) {
+            if (committed) s.afterCommit();
+            s.afterCompletion(committed ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+    }
+
+    @Test
+    void unknownNumber_IsLookedUpOnce() {
+        when(customerRepository.findByPhone("01000000000")).thenReturn(Optional.empty());
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(customerCache.findByPhone("01000000000").isEmpty());
+            assertTrue(customerCache.loadByPhone("01000000000").isEmpty());
+        }
+
+        verify(customerRepository, times(1)).findByPhone("01000000000");
+    }
+
+    @Test
+    void rolledBackChange_KeepsCommittedSnapshot() {
+        when(customerRepository.findByPhone("01012345678")).thenReturn(Optional.of(customer("01012345678", 100)));
+        customerCache.findByPhone("01012345678");
+
+        TransactionSynchronizationManager.initSynchronization();
+        customerCache.evictAfterCommit("01012345678", null);
+        complete(false);
+
+        assertEquals(100, customerCache.findByPhone("01012345678").get().getPoints());
+        verify(customerRepository, times(1)).findByPhone("01012345678");
+    }
+
+    @Test
+    void committedChange_IsReloaded() {
+        when(customerRepository.findByPhone("01012345678")).thenReturn(Optional.of(customer("01012345678", 100)));
+        customerCache.findByPhone("01012345678");
+
+        TransactionSynchronizationManager.initSynchronization();
+        customerCache.evictAfterCommit("01012345678", null);
+        // Still the committed value until the transaction ends
+        assertEquals(100, customerCache.findByPhone("01012345678").get().getPoints());
+
+        when(customerRepository.findByPhone("01012345678")).thenReturn(Optional.of(customer("01012345678", 150)));
+        complete(true);
+
+        assertEquals(150, customerCache.findByPhone("01012345678").get().getPoints());
+    }
+
+    @Test
+    void newCustomer_ReplacesCachedMiss() {
+        when(customerRepository.findByPhone("01012345678")).thenReturn(Optional.empty());
+        assertTrue(customerCache.findByPhone("01012345678").isEmpty());
+
+        when(customerRepository.findByPhone("01012345678")).thenReturn(Optional.of(customer("01012345678", 0)));
+        customerCache.evictAfterCommit("01012345678", null); // no transaction: evicts right away
+
+        assertTrue(customerCache.findByPhone("01012345678").isPresent());
+    }
+
+    @Test
+    void loadByPhone_UsesPrimaryKeyForKnownCustomer() {
+        Customer customer = customer("01012345678", 100);
+        when(customerRepository.findByPhone("01012345678")).thenReturn(Optional.of(customer));
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+        customerCache.findByPhone("01012345678");
+
+        assertSame(customer, customerCache.loadByPhone("01012345678").get());
+        verify(customerRepository, times(1)).findByPhone("01012345678");
+    }
+}
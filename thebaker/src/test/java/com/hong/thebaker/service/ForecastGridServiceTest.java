@@ -0,0 +1,107 @@
+package com.hong.thebaker.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hong.thebaker.dto.ForecastGrid;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ForecastGridServiceTest {
+
+    private final ModelRegistry registry = new ModelRegistry(false, "./build/no-models", 5, 0);
+    private final ForecastGridService service = new ForecastGridService(registry, 20000, 4);
+
+    // 2026-10-18 is a Sunday
+    private static final LocalDate SUNDAY = LocalDate.of(2026, 10, 18);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        registry.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("Grid: 7 days x 3 weathers x 30 temperatures covers the whole menu")
+    void simulate_FillsEveryScenario() {
+        ForecastGrid grid = service.simulate(SUNDAY, 7, List.of("Sunny", "Rain", "Snow"), 0, 29, 1);
+
+        assertEquals(630, grid.scenarioCount());
+        assertEquals(58, grid.getProducts().size());
+        assertEquals(630 * 58, grid.getRecommended().length);
+        assertEquals(29.0, grid.getTemps()[29]);
+        assertEquals(registry.versions().get(0).getVersion(), grid.getModelVersion());
+    }
+
+    @Test
+    @DisplayName("Grid: every cell matches PredictionService for the same scenario")
+    void simulate_AgreesWithPredictionService() {
+        PredictionService predictions = new PredictionService(registry, new TreeForecastService("./build/no-tree.json"), 512, 36, 1.0, -10, 35);
+        ForecastGrid grid = service.simulate(SUNDAY, 2, List.of("Heavy RAIN", "Sunny"), 18, 22, 2);
+        int products = grid.getProducts().size();
+
+        int s = 0;
+        for (LocalDate date : grid.getDates()) {
+            for (String weather : grid.getWeathers()) {
+                for (double temp : grid.getTemps()) {
+                    List<PredictionService.PredictionResult> expected = predictions.predictAll(date, weather, temp);
+                    for (int p = 0; p < products; p++) {
+                        assertEquals(expected.get(p).recommended, grid.getRecommended()[s * products + p],
+                                date + " " + weather + " " + temp + " " + expected.get(p).productName);
+                    }
+                    s++;
+                }
+            }
+        }
+        assertEquals(List.of("Rain", "Sunny"), grid.getWeathers());
+    }
+
+    @Test
+    @DisplayName("JSON: one object per scenario with quantities in product order")
+    void writeJson_StreamsScenarios() throws Exception {
+        ForecastGrid grid = service.simulate(SUNDAY, 1, List.of("Rain"), 20, 20.2, 0.1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.writeJson(grid, out);
+
+        JsonNode json = new ObjectMapper().readTree(out.toByteArray());
+        int sandwich = grid.getProducts().indexOf("SANDWICH A");
+        JsonNode first = json.get("scenarios").get(0);
+        assertEquals(3, json.get("scenarios").size());
+        assertEquals("2026-10-18", first.get("date").asText());
+        assertEquals("Rain", first.get("weather").asText());
+        assertEquals(20.0, first.get("temp").asDouble());
+        // 12.6 (bias) + 2.57 (Sunday) - 0.62 (rain) + 20 * 0.05 (temp) = 15.55
+        assertEquals(16, first.get("recommended").get(sandwich).asInt());
+        assertEquals(20.1, json.get("scenarios").get(1).get("temp").asDouble());
+    }
+
+    @Test
+    @DisplayName("Limits: empty or oversized ranges are rejected")
+    void simulate_RejectsBadRanges() {
+        assertThrows(IllegalArgumentException.class, () -> service.simulate(SUNDAY, 0, List.of("Sunny"), 0, 10, 1));
+        assertThrows(IllegalArgumentException.class, () -> service.simulate(SUNDAY, 7, List.of(), 0, 10, 1));
+        assertThrows(IllegalArgumentException.class, () -> service.simulate(SUNDAY, 7, List.of("Sunny"), 10, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> service.simulate(SUNDAY, 7, List.of("Sunny"), 0, 10, 0));
+        assertThrows(IllegalArgumentException.class, () -> service.simulate(SUNDAY, 7, List.of("Sunny"), Double.NaN, 10, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.simulate(SUNDAY, 7, List.of("Sunny"), 0, Double.POSITIVE_INFINITY, 1));
+        // Would overflow an int temperature count
+        assertThrows(IllegalArgumentException.class, () -> service.simulate(SUNDAY, 7, List.of("Sunny"), 0, 1e10, 1));
+        assertThrows(IllegalArgumentException.class, () -> service.simulate(SUNDAY, 1, List.of("Sunny"), 0, 1, 1e-300));
+        // 365 x 4 x 301 = 439,460 scenarios
+        assertThrows(IllegalArgumentException.class,
+                () -> service.simulate(SUNDAY, 365, List.of("Sunny", "Cloudy", "Rain", "Snow"), -10, 20, 0.1));
+    }
+}
@@ -0,0 +1,120 @@
+package com.hong.thebaker.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class IdempotencyServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final IdempotencyService service =
+            new IdempotencyService(jdbcTemplate, transactionTemplate, JsonMapper.builder().build(), 100, 24, 5000);
+    private final AtomicInteger runs = new AtomicInteger();
+
+    IdempotencyServiceTest() {
+        when(transactionTemplate.execute(any())).thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private ResponseEntity<?> order() {
+        runs.incrementAndGet();
+        return ResponseEntity.ok(Map.of("id", 7));
+    }
+
+    @Test
+    void retry_GetsFirstResponseWithoutTouchingTheDatabase() {
+        ResponseEntity<?> first = service.execute("orders", "abc", this::order);
+        clearInvocations(jdbcTemplate);
+
+        ResponseEntity<?> retry = service.execute("orders", "abc", this::order);
+
+        assertEquals(1, runs.get());
+        assertSame(first.getBody(), retry.getBody());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void noKey_RunsHandlerWithoutATransaction() {
+        service.execute("orders", null, this::order);
+
+        assertEquals(1, runs.get());
+        verifyNoInteractions(transactionTemplate, jdbcTemplate);
+    }
+
+    @Test
+    void concurrentDuplicates_RunOnce() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<?>> first = CompletableFuture.supplyAsync(() ->
+                service.execute("orders", "abc", () -> {
+                    started.countDown();
+                    await(release);
+                    return order();
+                }));
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+
+        CompletableFuture<ResponseEntity<?>> duplicate = CompletableFuture.supplyAsync(() ->
+                service.execute("orders", "abc", this::order));
+        Thread.sleep(100); // let the duplicate start waiting
+        release.countDown();
+
+        assertEquals(first.get(2, TimeUnit.SECONDS).getBody(), duplicate.get(2, TimeUnit.SECONDS).getBody());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void afterRestart_ReplaysStoredResponse() {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(), any())).thenAnswer(inv -> {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getInt(1)).thenReturn(200);
+            when(rs.getString(2)).thenReturn("application/json");
+            when(rs.getString(3)).thenReturn("{\"id\":7}");
+            return List.of(inv.<RowMapper<?>>getArgument(1).mapRow(rs, 0));
+        });
+
+        ResponseEntity<?> replay = service.execute("orders", "abc", this::order);
+
+        assertEquals(0, runs.get());
+        assertEquals("{\"id\":7}", replay.getBody());
+        assertEquals("application/json", String.valueOf(replay.getHeaders().getContentType()));
+    }
+
+    @Test
+    void serverError_IsNotStored() {
+        service.execute("orders", "abc", () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("busy");
+        });
+        service.execute("orders", "abc", this::order);
+
+        assertEquals(2, runs.get());
+        verify(jdbcTemplate, times(1)).update(anyString(), any(), any(), any(), any(), any());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
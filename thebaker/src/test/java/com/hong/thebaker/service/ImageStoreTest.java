@@ -0,0 +1,64 @@
+package com.hong.thebaker.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void store_NamesFileByHashAndWritesThumbnail() throws Exception {
+        ImageStore store = new ImageStore(dir.toString());
+        byte[] png = png(800, 600);
+
+        String url = store.store(new ByteArrayInputStream(png));
+        String again = store.store(new ByteArrayInputStream(png));
+
+        assertTrue(url.matches("/images/p/[0-9a-f]{64}\\.png"));
+        assertEquals(url, again);
+        String fileName = url.substring(ImageStore.URL_PREFIX.length());
+        assertArrayEquals(png, Files.readAllBytes(store.resolve(fileName).orElseThrow()));
+
+        BufferedImage thumb = ImageIO.read(store.resolve(fileName.replace(".png", "-thumb.jpg")).orElseThrow().toFile());
+        assertEquals(320, thumb.getWidth());
+        assertEquals(240, thumb.getHeight());
+    }
+
+    @Test
+    void resolve_RejectsNamesOutsideTheStore() throws Exception {
+        ImageStore store = new ImageStore(dir.toString());
+
+        assertTrue(store.resolve("../application.properties").isEmpty());
+        assertTrue(store.resolve("a".repeat(64) + ".png").isEmpty());
+    }
+
+    @Test
+    void migrationPayload_StripsDataUriPrefix() throws Exception {
+        byte[] png = png(10, 10);
+        String dataUri = "data:image/jpeg;base64," + Base64.getEncoder().encodeToString(png);
+
+        try (InputStream in = Base64.getMimeDecoder().wrap(ImageMigrationJob.payload(new StringReader(dataUri)))) {
+            assertArrayEquals(png, in.readAllBytes());
+        }
+    }
+
+    private static byte[] png(int width, int height) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+}
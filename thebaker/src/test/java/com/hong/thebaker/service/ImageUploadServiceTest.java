@@ -0,0 +1,94 @@
+package com.hong.thebaker.service;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ImageUploadServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) server.stop(0);
+    }
+
+    // Fails the first `failures` requests with a 500, then answers like Cloudinary's upload API
+    private String startStub(int failures) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1_1/demo/image/upload", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            boolean fail = requests.incrementAndGet() <= failures;
+            byte[] body = (fail
+                    ? "{\"error\":{\"message\":\"try again\"}}"
+                    : "{\"secure_url\":\"https://cdn.test/bagel.jpg\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(fail ? 500 : 200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private CloudinaryService client(String prefix) {
+        return new CloudinaryService(Map.<String, Object>of("cloud_name", "demo", "api_key", "key", "api_secret", "secret"), prefix, 5);
+    }
+
+    @Test
+    void cloudinaryClient_StreamsFileToUploadEndpoint() throws Exception {
+        CloudinaryService client = client(startStub(0));
+        Path file = Files.write(dir.resolve("bagel.img"), new byte[]{1, 2, 3});
+
+        assertEquals("https://cdn.test/bagel.jpg", client.upload(file));
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void submit_RetriesThenRecordsUrl() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        ImageUploadService service = new ImageUploadService(client(startStub(2)), jdbcTemplate,
+                mock(ApplicationEventPublisher.class), dir.toString(), 1, 10, 3, 10);
+        Path file = Files.write(dir.resolve("bagel.img"), new byte[]{1, 2, 3});
+
+        service.submit(7L, file);
+
+        verify(jdbcTemplate, timeout(5000)).update(
+                "UPDATE product SET image_url = ?, image_status = 'READY' WHERE id = ?", "https://cdn.test/bagel.jpg", 7L);
+        assertEquals(3, requests.get());
+        service.stop();
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void submit_MarksFailedWhenAttemptsRunOut() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        ImageUploadService service = new ImageUploadService(client(startStub(Integer.MAX_VALUE)), jdbcTemplate,
+                mock(ApplicationEventPublisher.class), dir.toString(), 1, 10, 2, 10);
+        Path file = Files.write(dir.resolve("bagel.img"), new byte[]{1, 2, 3});
+
+        service.submit(7L, file);
+
+        verify(jdbcTemplate, timeout(5000)).update("UPDATE product SET image_status = 'FAILED' WHERE id = ?", 7L);
+        assertEquals(2, requests.get());
+        service.stop();
+    }
+}
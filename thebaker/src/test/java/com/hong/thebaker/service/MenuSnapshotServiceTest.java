@@ -0,0 +1,62 @@
+package com.hong.thebaker.service;
+
+import com.hong.thebaker.entity.Product;
+import com.hong.thebaker.repository.ProductRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MenuSnapshotServiceTest {
+
+    private final ProductRepository productRepo = mock(ProductRepository.class);
+    private final MenuSnapshotService service = new MenuSnapshotService(productRepo);
+
+    @Test
+    @DisplayName("Day Menu: Monday gets SOFT + ALL, and reads after the first build skip the DB")
+    void get_ShouldFilterByDayAndServeFromMemory() {
+        // 1. GIVEN
+        Product sourdough = new Product("Sourdough", new BigDecimal("8500"), 10, "HARD");
+        Product bagel = new Product("Bagel", new BigDecimal("3500"), 30, "SOFT");
+        Product latte = new Product("Latte", new BigDecimal("5000"), 50, "ALL");
+        when(productRepo.findAll()).thenReturn(List.of(sourdough, bagel, latte));
+
+        // 2. WHEN
+        String monday = new String(service.get(DayOfWeek.MONDAY).getJson(), StandardCharsets.UTF_8);
+        service.get(DayOfWeek.FRIDAY);
+        service.get(DayOfWeek.MONDAY);
+
+        // 3. THEN
+        assertTrue(monday.contains("Bagel"));
+        assertTrue(monday.contains("Latte"));
+        assertFalse(monday.contains("Sourdough"));
+        verify(productRepo, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("ETag: same menu keeps its tag, a stock change gets a new one")
+    void rebuild_ShouldChangeEtagOnlyWhenContentChanges() {
+        Product bagel = new Product("Bagel", new BigDecimal("3500"), 30, "SOFT");
+        when(productRepo.findAll()).thenReturn(List.of(bagel));
+
+        String first = service.rebuild().get(DayOfWeek.MONDAY).getEtag();
+        String same = service.rebuild().get(DayOfWeek.MONDAY).getEtag();
+        bagel.setStockQuantity(29);
+        String changed = service.rebuild().get(DayOfWeek.MONDAY).getEtag();
+
+        assertEquals(first, same);
+        assertNotEquals(first, changed);
+    }
+}
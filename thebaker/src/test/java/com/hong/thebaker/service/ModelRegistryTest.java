@@ -0,0 +1,119 @@
+package com.hong.thebaker.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelRegistryTest {
+
+    @TempDir
+    Path dir;
+
+    private ModelRegistry registry;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (registry != null) registry.stop();
+    }
+
+    private static String model(double bias) {
+        return """
+                {"BAGEL A": {"base_bias": %s, "weights": {"day_Monday": 1.0, "is_rain": -2.0, "temp": 0.1}}}
+                """.formatted(bias);
+    }
+
+    private PredictionService.PredictionResult bagel() {
+        // 2026-10-19 is a Monday, 10°C, dry
+        PredictionService service = new PredictionService(registry, new TreeForecastService("./build/no-tree.json"),
+                512, 36, 1.0, -10, 35);
+        return service.predictAll(List.of("BAGEL A"), LocalDate.of(2026, 10, 19), "Sunny", 10.0).get(0);
+    }
+
+    @Test
+    @DisplayName("Startup: the newest file in the model directory wins over the bundled model")
+    void start_PrefersModelDirectory() throws Exception {
+        Files.writeString(dir.resolve("ml_model.json"), model(5.0));
+        registry = new ModelRegistry(false, dir.toString(), 5, 0);
+        registry.start();
+
+        assertEquals(7, bagel().recommended); // 5 + 1 + 10 * 0.1
+        assertEquals(2, registry.versions().size());
+        assertTrue(registry.versions().get(0).isActive());
+        assertEquals(registry.versions().get(0).getVersion(), bagel().modelVersion);
+    }
+
+    @Test
+    @DisplayName("Startup: category maps next to an XGBoost model are not taken for a model")
+    void start_IgnoresCategoryMaps() throws Exception {
+        Files.writeString(dir.resolve("ml_model.json"), model(5.0));
+        Files.writeString(dir.resolve("xgb_sold_qty.categories.json"), "{\"product\": [\"BAGEL A\"]}");
+        registry = new ModelRegistry(false, dir.toString(), 5, 0);
+        registry.start();
+
+        assertEquals(7, bagel().recommended);
+        assertNull(registry.lastError());
+    }
+
+    @Test
+    @DisplayName("Validation: a broken file is rejected and the current model stays")
+    void load_RejectsInvalidModel() throws Exception {
+        registry = new ModelRegistry(false, dir.toString(), 5, 0);
+        registry.start();
+        String bundled = registry.versions().get(0).getVersion();
+
+        Path truncated = Files.writeString(dir.resolve("half.json"), "{\"BAGEL A\": {\"base_bias\": 5.0, \"wei");
+        Path noBias = Files.writeString(dir.resolve("nobias.json"), "{\"BAGEL A\": {\"weights\": {}}}");
+        Path empty = Files.writeString(dir.resolve("empty.json"), "{}");
+
+        assertFalse(registry.load(truncated));
+        assertFalse(registry.load(noBias));
+        assertFalse(registry.load(empty));
+        assertEquals(1, registry.versions().size());
+        assertEquals(bundled, registry.versions().get(0).getVersion());
+        assertTrue(registry.lastError().startsWith("empty.json"));
+    }
+
+    @Test
+    @DisplayName("Rollback: steps back through loaded versions, or jumps to a named one")
+    void rollback_SwitchesToEarlierVersion() throws Exception {
+        registry = new ModelRegistry(false, dir.toString(), 5, 0);
+        registry.start();
+        assertTrue(registry.load(Files.writeString(dir.resolve("a.json"), model(5.0))));
+        String first = registry.versions().get(0).getVersion();
+        assertTrue(registry.load(Files.writeString(dir.resolve("b.json"), model(20.0))));
+        assertEquals(22, bagel().recommended);
+
+        assertEquals(first, registry.rollback(null).getVersion());
+        assertEquals(7, bagel().recommended);
+
+        String latest = registry.versions().get(0).getVersion();
+        registry.rollback(latest);
+        assertEquals(22, bagel().recommended);
+
+        assertThrows(ModelRegistry.UnknownVersionException.class, () -> registry.rollback("nope"));
+    }
+
+    @Test
+    @DisplayName("Hot reload: a file dropped into the watched directory is swapped in")
+    void watcher_PicksUpNewFile() throws Exception {
+        registry = new ModelRegistry(true, dir.toString(), 5, 50);
+        registry.start();
+
+        Path tmp = Files.writeString(dir.resolve("upload.tmp"), model(30.0));
+        Files.move(tmp, dir.resolve("ml_model.json"));
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (bagel().recommended != 32 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(32, bagel().recommended);
+    }
+}
@@ -0,0 +1,127 @@
+package com.hong.thebaker.service;
+
+import com.hong.thebaker.entity.OrderStatus;
+import com.hong.thebaker.event.OrderStatusChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderEventBroadcasterTest {
+
+    private final OrderEventBroadcaster broadcaster = new OrderEventBroadcaster(2, 60_000, 60_000, 2, 4);
+
+    // Records each event as its wire text instead of writing to a response
+    static class RecordingEmitter extends SseEmitter {
+        final BlockingQueue<String> sent = new LinkedBlockingQueue<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sent.add(builder.build().stream()
+                    .map(d -> String.valueOf(d.getData()))
+                    .collect(Collectors.joining()));
+        }
+
+        String next() throws InterruptedException {
+            String event = sent.poll(2, TimeUnit.SECONDS);
+            assertNotNull(event, "expected an event");
+            return event;
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.stop();
+    }
+
+    private void publish(long orderId, OrderStatus status) {
+        broadcaster.onStatusChanged(new OrderStatusChangedEvent(orderId, null, status));
+    }
+
+    @Test
+    void orderSubscriber_GetsOnlyItsOwnTransitions() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.register(emitter, 1L, null, null);
+
+        publish(2L, OrderStatus.PENDING);
+        publish(1L, OrderStatus.PROCESSING);
+
+        String event = emitter.next();
+        assertTrue(event.contains("id:2"));
+        assertTrue(event.contains("PROCESSING"));
+        assertNull(emitter.sent.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void reconnect_ReplaysEventsAfterLastEventId() throws Exception {
+        publish(1L, OrderStatus.PENDING);
+        publish(1L, OrderStatus.PROCESSING);
+        publish(1L, OrderStatus.COMPLETED);
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.register(emitter, null, 1L, null);
+
+        assertTrue(emitter.next().contains("PROCESSING"));
+        assertTrue(emitter.next().contains("COMPLETED"));
+    }
+
+    @Test
+    void staffTooFarBehind_GetsReset() throws Exception {
+        for (int i = 0; i < OrderEventBroadcaster.HISTORY + 10; i++) {
+            publish(i, OrderStatus.PENDING);
+        }
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.register(emitter, null, 1L, null);
+
+        assertTrue(emitter.next().contains("event:reset"));
+    }
+
+    @Test
+    void stalledClient_DoesNotHoldUpOthers_AndIsDropped() throws Exception {
+        CountDownLatch unblock = new CountDownLatch(1);
+        SseEmitter stalled = new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                await(unblock); // a client with a full TCP window
+            }
+        };
+        RecordingEmitter fast = new RecordingEmitter();
+        broadcaster.register(stalled, null, null, null);
+        broadcaster.register(fast, null, null, null);
+
+        for (long i = 1; i <= 6; i++) publish(i, OrderStatus.PENDING);
+
+        for (int i = 1; i <= 6; i++) assertTrue(fast.next().contains("id:" + i));
+        // More than 4 behind: dropped
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (broadcaster.connectionCount() > 1 && System.nanoTime() < deadline) Thread.sleep(10);
+        assertEquals(1, broadcaster.connectionCount());
+        unblock.countDown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void register_RefusesPastConnectionCap() {
+        broadcaster.register(new RecordingEmitter(), null, null, null);
+        broadcaster.register(new RecordingEmitter(), 1L, null, null);
+
+        assertThrows(OrderEventBroadcaster.TooManySubscribersException.class,
+                () -> broadcaster.register(new RecordingEmitter(), 2L, null, null));
+        assertEquals(2, broadcaster.connectionCount());
+    }
+}
@@ -0,0 +1,114 @@
+package com.hong.thebaker.service;
+
+import com.hong.thebaker.dto.OrderLogEvent;
+import com.hong.thebaker.entity.OrderStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderEventLogTest {
+
+    @TempDir
+    Path dir;
+
+    // Four records per segment, so a handful of events already spans several files
+    private OrderEventLog open() throws Exception {
+        OrderEventLog log = new OrderEventLog(true, dir.toString(), 4 * OrderEventLog.RECORD_BYTES, 60_000);
+        log.open();
+        return log;
+    }
+
+    @Test
+    @DisplayName("Replay: events come back in order across segments and after a restart")
+    void replay_AcrossSegmentsAndRestart() throws Exception {
+        OrderEventLog log = open();
+        for (long id = 1; id <= 10; id++) {
+            log.append(id, null, OrderStatus.PENDING, 1000 + id);
+        }
+        log.append(3, OrderStatus.PENDING, OrderStatus.CANCELLED, 2000);
+        log.close();
+
+        OrderEventLog reopened = open();
+        assertEquals(11, reopened.lastSequence());
+
+        List<OrderLogEvent> events = new ArrayList<>();
+        assertEquals(11, reopened.replay(0, events::add));
+        assertEquals(1, events.get(0).getSequence());
+        assertNull(events.get(0).getPreviousStatus());
+        assertEquals(1010, events.get(9).getTimestamp());
+        assertEquals(new OrderLogEvent(11, 3, 2000, OrderStatus.PENDING, OrderStatus.CANCELLED), events.get(10));
+
+        // Appending carries on from where the last run stopped
+        assertEquals(12, reopened.append(4, OrderStatus.PENDING, OrderStatus.PROCESSING, 3000));
+        assertEquals(List.of(12L), reopened.read(11, 10).stream().map(OrderLogEvent::getSequence).toList());
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("Crash Recovery: a torn last record is dropped and overwritten")
+    void open_StopsAtCorruptRecord() throws Exception {
+        OrderEventLog log = open();
+        log.append(1, null, OrderStatus.PENDING, 1);
+        log.append(2, null, OrderStatus.PENDING, 2);
+        log.append(3, null, OrderStatus.PENDING, 3);
+        log.close();
+
+        // The process died half-way through the third record
+        try (FileChannel file = FileChannel.open(dir.resolve("order-events-000000.log"), StandardOpenOption.WRITE)) {
+            file.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), 2L * OrderEventLog.RECORD_BYTES + 9);
+        }
+
+        OrderEventLog reopened = open();
+        assertEquals(2, reopened.lastSequence());
+        assertEquals(3, reopened.append(9, null, OrderStatus.PENDING, 9));
+        assertEquals(9, reopened.read(2, 1).get(0).getOrderId());
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("Tailing: a reader waiting at the end wakes up on the next append")
+    void tailer_WaitsForNewEvents() throws Exception {
+        OrderEventLog log = open();
+        log.append(1, null, OrderStatus.PENDING, 1);
+        OrderEventLog.Tailer tailer = log.tail(0);
+        assertEquals(1, tailer.next(10, Duration.ZERO).size());
+        assertTrue(tailer.next(10, Duration.ZERO).isEmpty());
+
+        CompletableFuture<List<OrderLogEvent>> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return tailer.next(10, Duration.ofSeconds(5));
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        Thread.sleep(100);
+        log.append(1, OrderStatus.PENDING, OrderStatus.PROCESSING, 2);
+
+        List<OrderLogEvent> events = waiting.get(5, TimeUnit.SECONDS);
+        assertEquals(OrderStatus.PROCESSING, events.get(0).getStatus());
+        assertEquals(2, tailer.position());
+        log.close();
+    }
+
+    @Test
+    @DisplayName("Single writer: a second instance on the same directory stays off")
+    void open_SecondWriterIsRefused() throws Exception {
+        OrderEventLog first = open();
+        OrderEventLog second = open();
+        assertTrue(first.isOpen());
+        assertFalse(second.isOpen());
+        first.close();
+    }
+}
@@ -0,0 +1,72 @@
+package com.hong.thebaker.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hong.thebaker.dto.OrderRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Crash Recovery: only accepted-but-unsettled orders are replayed")
+    void unsettled_ShouldSkipSettledAndTornLines() throws Exception {
+        // 1. GIVEN: three accepted orders, one committed, one rejected
+        Path file = dir.resolve("journal.log");
+        OrderJournal journal = new OrderJournal(file, new ObjectMapper());
+        journal.append(OrderJournal.ACCEPTED, "a", request("01011112222"), null);
+        journal.append(OrderJournal.ACCEPTED, "b", request("01033334444"), null);
+        journal.append(OrderJournal.ACCEPTED, "c", request("01055556666"), null);
+        journal.append(OrderJournal.COMMITTED, "a", null, 10L);
+        journal.append(OrderJournal.REJECTED, "c", null, null);
+        journal.close();
+
+        // The process died half-way through writing a line
+        Files.write(file, "{\"type\":\"ACCEPTED\",\"tick".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        // 2. WHEN: the next start reads it back
+        Map<String, OrderRequest> open = new OrderJournal(file, new ObjectMapper()).unsettled();
+
+        // 3. THEN
+        assertEquals(List.of("b"), List.copyOf(open.keySet()));
+        assertEquals("01033334444", open.get("b").getPhoneNumber());
+        assertEquals(7L, open.get("b").getItems().get(0).getProductId());
+    }
+
+    @Test
+    @DisplayName("Compaction: truncate empties the journal")
+    void truncate_ShouldEmptyFile() throws Exception {
+        Path file = dir.resolve("journal.log");
+        OrderJournal journal = new OrderJournal(file, new ObjectMapper());
+        journal.append(OrderJournal.ACCEPTED, "a", request("01011112222"), null);
+
+        journal.truncate();
+
+        assertTrue(journal.unsettled().isEmpty());
+        assertEquals(0, Files.size(file));
+    }
+
+    private OrderRequest request(String phone) {
+        OrderRequest.OrderItemRequest item = new OrderRequest.OrderItemRequest();
+        item.setProductId(7L);
+        item.setQuantity(2);
+
+        OrderRequest request = new OrderRequest();
+        request.setPhoneNumber(phone);
+        request.setItems(List.of(item));
+        return request;
+    }
+}
@@ -0,0 +1,94 @@
+package com.hong.thebaker.service;
+
+import com.hong.thebaker.dto.OrderCursor;
+import com.hong.thebaker.dto.OrderFilter;
+import com.hong.thebaker.dto.OrderPage;
+import com.hong.thebaker.entity.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Page latency at 10k / 100k / 1M orders: the first page, a page deep into
+ * history (reached by cursor), and a status-filtered page.
+ * Opt-in because the 1M fill takes a while: run with -Dbenchmark=true.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:pagebench;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class OrderPaginationBenchmarkTest {
+
+    private static final int[] SIZES = {10_000, 100_000, 1_000_000};
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void pageLatencyStaysFlatAsHistoryGrows() {
+        jdbcTemplate.update("INSERT INTO customer (id, name, phone, points, marketing_consent) VALUES (900000, 'Bench', '01099999999', 0, false)");
+        jdbcTemplate.update("INSERT INTO product (id, name, price, stock_quantity, category) VALUES (900000, 'Bench Bagel', 3500, 0, 'ALL')");
+
+        int filled = 0;
+        for (int size : SIZES) {
+            fill(filled, size);
+            filled = size;
+
+            OrderFilter any = new OrderFilter();
+            OrderFilter pending = OrderFilter.of(OrderStatus.PENDING, null, null, null);
+            String deepCursor = cursorNear(size);
+
+            System.out.printf("%,9d orders | first page %6.2f ms | deep page %6.2f ms | PENDING page %6.2f ms%n",
+                    size,
+                    millis(() -> orderService.getOrders(any, null, 50)),
+                    millis(() -> orderService.getOrders(any, deepCursor, 50)),
+                    millis(() -> orderService.getOrders(pending, null, 50)));
+        }
+    }
+
+    // Synthetic history: one order per minute going back in time, one item each
+    private void fill(int from, int to) {
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 9, 0);
+        for (int base = from; base < to; base += 10_000) {
+            List<Object[]> orders = new ArrayList<>();
+            List<Object[]> items = new ArrayList<>();
+            for (int i = base; i < Math.min(base + 10_000, to); i++) {
+                long id = 1_000_000L + i;
+                orders.add(new Object[]{id, 900000L, Timestamp.valueOf(start.plusMinutes(i)), STATUSES[i % STATUSES.length].name()});
+                items.add(new Object[]{id, id, 900000L});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO orders (id, customer_id, order_date, status, total_amount, points_used, points_earned) " +
+                    "VALUES (?, ?, ?, ?, 3500, 0, 0)", orders);
+            jdbcTemplate.batchUpdate("INSERT INTO order_item (id, order_id, product_id, quantity, price_at_purchase) " +
+                    "VALUES (?, ?, ?, 1, 3500)", items);
+        }
+    }
+
+    // Walking there page by page would dominate the run; build the cursor the service would have returned
+    private String cursorNear(int size) {
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 9, 0);
+        int i = size / 10;
+        return new OrderCursor(start.plusMinutes(i), 1_000_000L + i).encode();
+    }
+
+    private static double millis(Supplier<OrderPage> page) {
+        for (int i = 0; i < 5; i++) page.get(); // warm up
+        int runs = 20;
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) page.get();
+        return (System.nanoTime() - start) / 1e6 / runs;
+    }
+}
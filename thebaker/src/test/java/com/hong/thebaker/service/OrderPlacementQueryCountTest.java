@@ -0,0 +1,290 @@
+package com.hong.thebaker.service;
+
+import com.hong.thebaker.dto.BulkPaymentEntry;
+import com.hong.thebaker.dto.BulkPaymentResult;
+import com.hong.thebaker.dto.OrderFilter;
+import com.hong.thebaker.dto.OrderPage;
+import com.hong.thebaker.dto.OrderRequest;
+import com.hong.thebaker.dto.OrderSummary;
+import com.hong.thebaker.entity.OrderStatus;
+import com.hong.thebaker.entity.PaymentMethod;
+import com.hong.thebaker.entity.Product;
+import com.hong.thebaker.repository.OrderRepository;
+import com.hong.thebaker.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:placement;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+@Import(OrderPlacementQueryCountTest.StatementCounterConfig.class)
+class OrderPlacementQueryCountTest {
+
+    private static final AtomicInteger statements = new AtomicInteger();
+    // Background work (stock flush, menu rebuild) runs on other threads and is not counted
+    private static volatile Thread countedThread;
+
+    @BeforeEach
+    void countThisThread() {
+        countedThread = Thread.currentThread();
+    }
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private PosPaymentService posPaymentService;
+
+    @Autowired
+    private PointLedger pointLedger;
+
+    @Test
+    @DisplayName("Round Trips: a 6-item order costs the same statements as a 1-item order")
+    void createOrder_StatementCountIsIndependentOfItemCount() {
+        // 1. GIVEN: six products, and one order to warm up the id pools
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            products.add(productRepository.save(new Product("Bagel " + i, new BigDecimal("3500"), 100, "ALL")));
+        }
+        orderService.createOrder(request("01000000000", products.subList(0, 1), 1));
+
+        // 2. WHEN: new customers so both orders take the same path
+        statements.set(0);
+        orderService.createOrder(request("01000000001", products.subList(0, 1), 1));
+        int singleItem = statements.get();
+
+        statements.set(0);
+        orderService.createOrder(request("01000000002", products, 1));
+        int sixItems = statements.get();
+
+        // 3. THEN
+        assertEquals(singleItem, sixItems);
+        assertEquals(97, productRepository.findById(products.get(0).getId()).orElseThrow().getStockQuantity());
+        assertEquals(99, productRepository.findById(products.get(5).getId()).orElseThrow().getStockQuantity());
+    }
+
+    @Test
+    @DisplayName("Guarded UPDATE: one short row rolls back the whole order")
+    void createOrder_ShortRowRollsBackEverything() {
+        // 1. GIVEN: the ledger believes in more stock than the table holds
+        Product plenty = productRepository.save(new Product("Baguette", new BigDecimal("4500"), 10, "ALL"));
+        Product scarce = productRepository.save(new Product("Sourdough", new BigDecimal("8500"), 2, "ALL"));
+        stockLedger.reset(scarce.getId(), 50);
+        long ordersBefore = orderRepository.count();
+
+        // 2. WHEN
+        assertThrows(RuntimeException.class,
+                () -> orderService.createOrder(request("01000000003", List.of(plenty, scarce), 5)));
+
+        // 3. THEN: nothing was written and the reservations were handed back
+        assertEquals(ordersBefore, orderRepository.count());
+        assertEquals(10, productRepository.findById(plenty.getId()).orElseThrow().getStockQuantity());
+        assertEquals(2, productRepository.findById(scarce.getId()).orElseThrow().getStockQuantity());
+        assertEquals(10, stockLedger.available(plenty.getId()));
+    }
+
+    @Test
+    @DisplayName("Keyset Paging: every page is two statements, whatever the orders contain")
+    void getOrders_PageCostsTwoStatements() {
+        // 1. GIVEN: seven orders, some with many items
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            products.add(productRepository.save(new Product("Roll " + i, new BigDecimal("2000"), 100, "ALL")));
+        }
+        for (int i = 0; i < 7; i++) {
+            List<Product> items = i % 2 == 0 ? products : products.subList(0, 1);
+            orderService.createOrder(request("0102000000" + i, items, 1));
+        }
+        OrderFilter filter = OrderFilter.of(OrderStatus.PENDING, null, null, null);
+
+        // 2. WHEN: walk the pages
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            statements.set(0);
+            OrderPage page = orderService.getOrders(filter, cursor, 3);
+            assertEquals(2, statements.get());
+            page.getOrders().forEach(o -> seen.add(o.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // 3. THEN: every pending order once, newest first
+        long pending = orderRepository.countByStatus(OrderStatus.PENDING);
+        assertEquals(pending, seen.size());
+        assertEquals(pending, seen.stream().distinct().count());
+        assertEquals((pending + 2) / 3, pages);
+    }
+
+    @Test
+    @DisplayName("Customer History: a regular with 60 orders costs the same statements as a new customer")
+    void findMyOrders_CostIsIndependentOfHistoryLength() {
+        // 1. GIVEN: one order for a newcomer, sixty for a regular
+        Product croissant = productRepository.save(new Product("Croissant", new BigDecimal("3000"), 1000, "ALL"));
+        orderService.createOrder(request("01030000000", List.of(croissant), 1));
+        for (int i = 0; i < 60; i++) {
+            orderService.createOrder(request("01030000001", List.of(croissant), 1));
+        }
+
+        // 2. WHEN
+        statements.set(0);
+        List<OrderSummary> newcomer = orderService.findMyOrders("01030000000");
+        int newcomerStatements = statements.get();
+
+        statements.set(0);
+        List<OrderSummary> regular = orderService.findMyOrders("01030000001");
+        int regularStatements = statements.get();
+
+        // 3. THEN: same cost, newest 50 only, items attached
+        assertEquals(newcomerStatements, regularStatements);
+        assertEquals(1, newcomer.size());
+        assertEquals(50, regular.size());
+        assertEquals("Croissant", regular.get(0).getItems().get(0).getProductName());
+    }
+
+    @Test
+    @DisplayName("POS Import: 40 payments cost the same statements as 4, and a replay changes nothing")
+    void importPayments_BatchesAndIsIdempotent() {
+        // 1. GIVEN: four known customers (the warm-up creates them)
+        List<BulkPaymentEntry> warmUp = new ArrayList<>();
+        for (int i = 0; i < 4; i++) warmUp.add(payment("warm-" + i, "0104000000" + i, 10000, 0));
+        posPaymentService.importPayments(warmUp);
+
+        List<BulkPaymentEntry> few = new ArrayList<>();
+        List<BulkPaymentEntry> many = new ArrayList<>();
+        for (int i = 0; i < 4; i++) few.add(payment("few-" + i, "0104000000" + i, 10000, 0));
+        for (int i = 0; i < 40; i++) many.add(payment("many-" + i, "0104000000" + (i % 4), 10000, 0));
+
+        // 2. WHEN
+        statements.set(0);
+        posPaymentService.importPayments(few);
+        int fewStatements = statements.get();
+
+        statements.set(0);
+        List<BulkPaymentResult> results = posPaymentService.importPayments(many);
+        int manyStatements = statements.get();
+
+        List<BulkPaymentResult> replay = posPaymentService.importPayments(many);
+
+        // 3. THEN: at most one extra round trip to refill the order id pool
+        assertTrue(manyStatements <= fewStatements + 1, fewStatements + " vs " + manyStatements);
+        assertTrue(results.stream().allMatch(r -> r.getStatus().equals("APPLIED") && r.getOrderId() != null));
+        assertTrue(replay.stream().allMatch(r -> r.getStatus().equals("DUPLICATE")));
+        assertEquals(results.get(0).getOrderId(), replay.get(0).getOrderId());
+    }
+
+    @Test
+    @DisplayName("POS Import: an entry the points can't cover is rejected on its own")
+    void importPayments_RejectsOverdrawnEntryOnly() {
+        posPaymentService.importPayments(List.of(payment("earn", "01050000000", 10000, 0))); // earns 300P
+
+        List<BulkPaymentResult> results = posPaymentService.importPayments(List.of(
+                payment("spend-200", "01050000000", 5000, 200),
+                payment("spend-200-again", "01050000000", 5000, 200),
+                payment("spend-200", "01050000000", 5000, 200)));
+
+        assertEquals("APPLIED", results.get(0).getStatus());
+        assertEquals("REJECTED", results.get(1).getStatus());
+        assertEquals("DUPLICATE", results.get(2).getStatus());
+        assertEquals(results.get(0).getOrderId(), results.get(2).getOrderId());
+        // 300 - 200 + 3% of 4800
+        assertEquals(244, results.get(0).getBalance());
+        Long customerId = orderRepository.findById(results.get(0).getOrderId()).orElseThrow().getCustomer().getId();
+        assertEquals(244, pointLedger.balance(customerId));
+    }
+
+    private static BulkPaymentEntry payment(String key, String phone, int amount, int pointsToUse) {
+        BulkPaymentEntry entry = new BulkPaymentEntry();
+        entry.setIdempotencyKey(key);
+        entry.setPhoneNumber(phone);
+        entry.setTotalAmount(new BigDecimal(amount));
+        entry.setPaymentMethod(PaymentMethod.CARD);
+        entry.setPointsToUse(pointsToUse);
+        return entry;
+    }
+
+    private OrderRequest request(String phone, List<Product> products, int quantity) {
+        List<OrderRequest.OrderItemRequest> items = new ArrayList<>();
+        for (Product product : products) {
+            OrderRequest.OrderItemRequest item = new OrderRequest.OrderItemRequest();
+            item.setProductId(product.getId());
+            item.setQuantity(quantity);
+            items.add(item);
+        }
+
+        OrderRequest request = new OrderRequest();
+        request.setPhoneNumber(phone);
+        request.setCustomerName("Tester");
+        request.setItems(items);
+        return request;
+    }
+
+    // Wraps the pool so every statement the app prepares or creates is counted
+    @TestConfiguration
+    static class StatementCounterConfig {
+
+        @Bean
+        static BeanPostProcessor statementCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource) {
+                        return proxy(DataSource.class, dataSource);
+                    }
+                    return bean;
+                }
+            };
+        }
+
+        private static <T> T proxy(Class<T> type, T target) {
+            Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, method, args) -> {
+                String name = method.getName();
+                boolean statement = name.equals("prepareStatement") || name.equals("prepareCall") || name.equals("createStatement");
+                if (statement && Thread.currentThread() == countedThread) {
+                    statements.incrementAndGet();
+                }
+                try {
+                    Object result = method.invoke(target, args);
+                    if (name.equals("getConnection")) {
+                        return proxy(Connection.class, (Connection) result);
+                    }
+                    return result;
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+            return type.cast(proxy);
+        }
+    }
+}
@@ -12,6 +12,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.util.Optional;
@@ -28,6 +29,18 @@ class OrderServiceTest {
     @Mock
     private ProductRepository productRepo;
 
+    @Mock
+    private StockLedger stockLedger;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PickupSlotService pickupSlotService;
+
+    @Mock
+    private StockCalendar stockCalendar;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -37,6 +50,7 @@ class OrderServiceTest {
         // 1. GIVEN
         // Product: Bagel (Stock = 10)
         Product bagel = new Product("Bagel", BigDecimal.valueOf(3.5), 10, "bread");
+        bagel.setId(7L);
 
         // Order: Status Confirmed
         Order order = new Order();
@@ -59,11 +73,9 @@ class OrderServiceTest {
         orderService.cancelOrder(1L);
 
         // 3. THEN (Verify Stock)
-        // Original Stock (10) + Canceled Qty (2) = 12
-        assertEquals(12, bagel.getStockQuantity());
-
-        // Verify changes were saved
-        verify(productRepo).save(bagel);
+        // Canceled Qty (2) goes back through the ledger, which writes it to the table
+        verify(stockLedger).restock(7L, 2);
+        verify(pickupSlotService).releaseAfterCommit(order);
         assertEquals(OrderStatus.CANCELLED, order.getStatus());
     }
 }
\ No newline at end of file
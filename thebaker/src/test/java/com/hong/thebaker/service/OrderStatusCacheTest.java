@@ -0,0 +1,72 @@
+package com.hong.thebaker.service;
+
+import com.hong.thebaker.entity.OrderStatus;
+import com.hong.thebaker.event.OrderStatusChangedEvent;
+import com.hong.thebaker.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OrderStatusCacheTest {
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OrderStatusCache statusCache = new OrderStatusCache(orderRepository, 100, 60);
+
+    @Test
+    void repeatedPolls_HitTheDatabaseOnce() {
+        when(orderRepository.findStatusById(1L)).thenReturn(Optional.of(OrderStatus.PENDING));
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Optional.of(OrderStatus.PENDING), statusCache.getStatus(1L));
+        }
+
+        verify(orderRepository, times(1)).findStatusById(1L);
+        assertEquals(9, statusCache.hits());
+    }
+
+    @Test
+    void transition_ReplacesCachedStatus() {
+        when(orderRepository.findStatusById(1L)).thenReturn(Optional.of(OrderStatus.PENDING));
+        statusCache.getStatus(1L);
+
+        statusCache.onStatusChanged(new OrderStatusChangedEvent(1L, OrderStatus.PENDING, OrderStatus.PROCESSING));
+
+        assertEquals(Optional.of(OrderStatus.PROCESSING), statusCache.getStatus(1L));
+        verify(orderRepository, times(1)).findStatusById(1L);
+    }
+
+    @Test
+    void loadRacingATransition_IsNotCached() {
+        // The row is read just before the confirm commits and its event lands
+        when(orderRepository.findStatusById(1L)).thenAnswer(inv -> {
+            statusCache.onStatusChanged(new OrderStatusChangedEvent(1L, OrderStatus.PENDING, OrderStatus.PROCESSING));
+            return Optional.of(OrderStatus.PENDING);
+        });
+
+        statusCache.getStatus(1L);
+
+        assertEquals(Optional.of(OrderStatus.PROCESSING), statusCache.getStatus(1L));
+    }
+
+    @Test
+    void lruCache_EvictsLeastRecentlyUsedAndExpires() {
+        AtomicLong now = new AtomicLong();
+        ExpiringLruCache<Long, String> cache = new ExpiringLruCache<>(2, Duration.ofNanos(100), now::get);
+        cache.put(1L, "a");
+        cache.put(2L, "b");
+        cache.get(1L);
+        cache.put(3L, "c");
+
+        assertNull(cache.get(2L));
+        assertEquals("a", cache.get(1L));
+
+        now.set(100);
+        assertNull(cache.get(1L));
+        assertEquals(1, cache.size());
+    }
+}
@@ -0,0 +1,49 @@
+package com.hong.thebaker.service;
+
+import com.hong.thebaker.entity.OrderStatus;
+import com.hong.thebaker.event.OrderStatusChangedEvent;
+import com.hong.thebaker.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+class OrderStatusCountersTest {
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OrderStatusCounters counters = new OrderStatusCounters(orderRepository);
+
+    @Test
+    void transitions_MoveCountsWithoutQueries() {
+        when(orderRepository.countGroupedByStatus()).thenReturn(List.<Object[]>of(
+                new Object[]{OrderStatus.PENDING, 3L},
+                new Object[]{OrderStatus.COMPLETED, 10L}));
+        counters.seed();
+
+        counters.onStatusChanged(new OrderStatusChangedEvent(1L, null, OrderStatus.PENDING));
+        counters.onStatusChanged(new OrderStatusChangedEvent(2L, OrderStatus.PENDING, OrderStatus.PROCESSING));
+        counters.onStatusChanged(new OrderStatusChangedEvent(3L, OrderStatus.PENDING, OrderStatus.CANCELLED));
+
+        assertEquals(2, counters.count(OrderStatus.PENDING));
+        assertEquals(1, counters.count(OrderStatus.PROCESSING));
+        assertEquals(1, counters.count(OrderStatus.CANCELLED));
+        assertEquals(10, counters.count(OrderStatus.COMPLETED));
+        verify(orderRepository, times(1)).countGroupedByStatus();
+    }
+
+    @Test
+    void reconcile_CorrectsDrift() {
+        when(orderRepository.countGroupedByStatus()).thenReturn(List.<Object[]>of(
+                new Object[]{OrderStatus.PENDING, 5L}));
+        counters.seed();
+        counters.onStatusChanged(new OrderStatusChangedEvent(9L, null, OrderStatus.PENDING));
+
+        when(orderRepository.countGroupedByStatus()).thenReturn(List.<Object[]>of(
+                new Object[]{OrderStatus.PENDING, 4L}));
+        counters.reconcile();
+
+        assertEquals(4, counters.count(OrderStatus.PENDING));
+    }
+}
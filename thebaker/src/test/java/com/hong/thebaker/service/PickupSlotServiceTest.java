@@ -0,0 +1,110 @@
+package com.hong.thebaker.service;
+
+import com.hong.thebaker.dto.OrderRequest;
+import com.hong.thebaker.dto.SlotAvailability;
+import com.hong.thebaker.entity.PickupSlotCapacity;
+import com.hong.thebaker.repository.PickupSlotCapacityRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PickupSlotServiceTest {
+
+    private final PickupSlotCapacityRepository capacityRepository = mock(PickupSlotCapacityRepository.class);
+    private final PickupSlotService slots = new PickupSlotService(capacityRepository, mock(JdbcTemplate.class), "", 0);
+    private final LocalDate tomorrow = PickupSlotService.today().plusDays(1);
+
+    @BeforeEach
+    void setUp() {
+        when(capacityRepository.count()).thenReturn(2L);
+        when(capacityRepository.findAll()).thenReturn(List.of(
+                new PickupSlotCapacity(24, "12:00 PM", 2),
+                new PickupSlotCapacity(26, "1:00 PM", 5)));
+        slots.loadCapacities();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private OrderRequest request(String pickupTime) {
+        OrderRequest request = new OrderRequest();
+        request.setPickupTime(pickupTime);
+        request.setPickupDate(tomorrow);
+        return request;
+    }
+
+    private int remaining(int slot) {
+        return slots.availability(tomorrow).stream()
+                .filter(s -> s.getSlot() == slot).findFirst().map(SlotAvailability::getRemaining).orElseThrow();
+    }
+
+    @Test
+    void slotOf_ParsesBothClockFormats() {
+        assertEquals(24, PickupSlotService.slotOf("12:00 PM"));
+        assertEquals(26, PickupSlotService.slotOf("1:00 pm"));
+        assertEquals(27, PickupSlotService.slotOf("13:30"));
+        assertNull(PickupSlotService.slotOf(" "));
+        assertThrows(RuntimeException.class, () -> PickupSlotService.slotOf("noon"));
+    }
+
+    @Test
+    void admit_RejectsOnceSlotIsFull() {
+        slots.admit(request("12:00 PM"));
+        slots.admit(request("12:00 PM"));
+
+        assertThrows(RuntimeException.class, () -> slots.admit(request("12:00 PM")));
+        assertEquals(0, remaining(24));
+        assertEquals(5, remaining(26));
+    }
+
+    @Test
+    void admit_RejectsSlotThatIsNotOffered() {
+        assertThrows(RuntimeException.class, () -> slots.admit(request("9:00 AM")));
+    }
+
+    @Test
+    void rolledBackOrder_GivesPlaceBack() {
+        TransactionSynchronizationManager.initSynchronization();
+        slots.admit(request("12:00 PM"));
+        assertEquals(1, remaining(24));
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertEquals(2, remaining(24));
+    }
+
+    @Test
+    void admit_RejectsSlotThatAlreadyWentByToday() {
+        // Midnight is always the current slot or earlier
+        when(capacityRepository.findAll()).thenReturn(List.of(new PickupSlotCapacity(0, "12:00 AM", 5)));
+        slots.loadCapacities();
+        OrderRequest today = request("12:00 AM");
+        today.setPickupDate(PickupSlotService.today());
+
+        assertThrows(RuntimeException.class, () -> slots.admit(today));
+        slots.admit(request("12:00 AM"));
+    }
+
+    @Test
+    void admit_DefaultsToToday() {
+        OrderRequest request = new OrderRequest();
+        slots.admit(request);
+
+        assertEquals(PickupSlotService.today(), request.getPickupDate());
+    }
+}
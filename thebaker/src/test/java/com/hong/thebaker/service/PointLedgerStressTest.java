@@ -0,0 +1,144 @@
+package com.hong.thebaker.service;
+
+import com.hong.thebaker.entity.Customer;
+import com.hong.thebaker.entity.PointReason;
+import com.hong.thebaker.repository.CustomerRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Many threads moving points on one customer at once, to show the ledger loses
+ * nothing. The throughput comparison against the old read-modify-write is opt-in:
+ *
+ *   ./gradlew test --tests '*PointLedgerStressTest' -Dbenchmark=true
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:pointstress;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+class PointLedgerStressTest {
+
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 250;
+
+    @Autowired
+    private PointLedger pointLedger;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Customer customer(String phone, int points) {
+        Customer customer = new Customer();
+        customer.setName("Stress");
+        customer.setPhone(phone);
+        customer.setPoints(points);
+        return customerRepository.save(customer);
+    }
+
+    @Test
+    void concurrentEarns_AreAllKept() throws Exception {
+        Customer customer = customer("01070000001", 0);
+
+        hammer(() -> transactionTemplate.executeWithoutResult(
+                status -> pointLedger.earn(customer, 1, PointReason.EARN, null)));
+
+        assertEquals(THREADS * PER_THREAD, pointLedger.balance(customer.getId()));
+        assertEquals(THREADS * PER_THREAD, ledgerSum(customer.getId()));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void concurrentEarns_LedgerAgainstReadModifyWrite() throws Exception {
+        Customer ledgerCustomer = customer("01070000004", 0);
+        Customer entityCustomer = customer("01070000002", 0);
+        int expected = THREADS * PER_THREAD;
+
+        long ledgerNanos = hammer(() -> transactionTemplate.executeWithoutResult(
+                status -> pointLedger.earn(ledgerCustomer, 1, PointReason.EARN, null)));
+
+        // What every points mutation used to do: read the balance, add in Java, write it back
+        long entityNanos = hammer(() -> transactionTemplate.executeWithoutResult(status -> {
+            Integer points = jdbcTemplate.queryForObject("SELECT points FROM customer WHERE id = ?",
+                    Integer.class, entityCustomer.getId());
+            jdbcTemplate.update("UPDATE customer SET points = ? WHERE id = ?", points + 1, entityCustomer.getId());
+        }));
+
+        int ledgerBalance = pointLedger.balance(ledgerCustomer.getId());
+        int entityBalance = pointLedger.balance(entityCustomer.getId());
+        System.out.printf("ledger: %d/%d points, %.0f ops/s | read-modify-write: %d/%d points, %.0f ops/s%n",
+                ledgerBalance, expected, expected / (ledgerNanos / 1e9),
+                entityBalance, expected, expected / (entityNanos / 1e9));
+
+        assertEquals(expected, ledgerBalance);
+        assertEquals(expected, ledgerSum(ledgerCustomer.getId()));
+    }
+
+    @Test
+    void concurrentSpends_NeverOverdraw() throws Exception {
+        Customer customer = customer("01070000003", 500);
+        pointLedger.openBalances();
+        AtomicInteger spent = new AtomicInteger();
+
+        hammer(() -> {
+            try {
+                transactionTemplate.executeWithoutResult(status -> pointLedger.spend(customer, 1, null));
+                spent.incrementAndGet();
+            } catch (PointLedger.InsufficientPointsException e) {
+                // Expected once the balance runs out
+            }
+        });
+
+        assertEquals(500, spent.get());
+        assertEquals(0, pointLedger.balance(customer.getId()));
+        assertEquals(0, ledgerSum(customer.getId()));
+        assertThrows(PointLedger.InsufficientPointsException.class,
+                () -> pointLedger.settle(customer, 1, 10, PointReason.EARN, null));
+        assertEquals(0, pointLedger.balance(customer.getId()));
+    }
+
+    private int ledgerSum(Long customerId) {
+        Integer sum = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(delta), 0) FROM point_ledger WHERE customer_id = ?",
+                Integer.class, customerId);
+        return sum == null ? 0 : sum;
+    }
+
+    // Runs the operation PER_THREAD times on each of THREADS threads; returns the wall time
+    private static long hammer(Runnable operation) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                tasks.add(() -> {
+                    for (int i = 0; i < PER_THREAD; i++) operation.run();
+                    return null;
+                });
+            }
+            long start = System.nanoTime();
+            for (Future<Void> f : pool.invokeAll(tasks)) f.get();
+            return System.nanoTime() - start;
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
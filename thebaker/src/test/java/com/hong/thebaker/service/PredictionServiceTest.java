@@ -0,0 +1,134 @@
+package com.hong.thebaker.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PredictionServiceTest {
+
+    private final ModelRegistry registry = new ModelRegistry(false, "./build/no-models", 5, 0);
+    private final TreeForecastService trees = mock(TreeForecastService.class);
+    private final PredictionService service = new PredictionService(registry, trees, 512, 36, 1.0, -10, 35);
+
+    // 2026-10-18 is a Sunday
+    private static final LocalDate SUNDAY = LocalDate.of(2026, 10, 18);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        registry.start();
+    }
+
+    @Test
+    @DisplayName("Batch: scores match the model file by hand (SANDWICH A, rainy Sunday, 20°C)")
+    void predictAll_MatchesModelWeights() {
+        // 12.6 (bias) + 2.57 (Sunday) - 0.62 (rain) + 20 * 0.05 (temp) = 15.55
+        PredictionService.PredictionResult result = service
+                .predictAll(List.of("SANDWICH A"), SUNDAY, "Heavy RAIN", 20.0).get(0);
+
+        assertEquals(16, result.recommended);
+        assertEquals(2.57, result.dayEffect);
+        assertEquals(-0.62, result.rainEffect);
+        assertEquals(1.0, result.tempEffect, 1e-9);
+        assertEquals("Sunday Boost", result.status);
+        assertEquals(14.1, result.avgMade);
+        assertEquals(registry.versions().get(0).getVersion(), result.modelVersion);
+    }
+
+    @Test
+    @DisplayName("Batch: names match with or without spaces, unknown products get No Data")
+    void predictAll_ResolvesNamesLikeSingleLookup() {
+        List<PredictionService.PredictionResult> results = service
+                .predictAll(List.of("SANDWICHA", "Croissant", "SANDWICH A"), SUNDAY, "Sunny", 20.0);
+
+        assertEquals(16, results.get(0).recommended); // no rain: 16.17
+        assertEquals("No Data", results.get(1).status);
+        assertEquals("SANDWICH A", results.get(2).productName);
+        assertEquals(results.get(0).recommended, results.get(2).recommended);
+    }
+
+    @Test
+    @DisplayName("Parity: every product scores the same alone and in the batch")
+    void getPrediction_AgreesWithBatch() {
+        List<PredictionService.PredictionResult> batch =
+                service.predictAll(PredictionService.forecastDate(), "Snow", 3.0);
+
+        assertEquals(58, batch.size());
+        for (PredictionService.PredictionResult expected : batch) {
+            PredictionService.PredictionResult single = service.getPrediction(expected.productName, "Snow", 3.0);
+            assertEquals(expected.recommended, single.recommended, expected.productName);
+            assertEquals(expected.dayEffect, single.dayEffect, expected.productName);
+            assertEquals(expected.status, single.status, expected.productName);
+        }
+    }
+
+    @Test
+    @DisplayName("Cache: nearby temperatures and weather wordings share one entry")
+    void forecast_ServesSameBucketFromCache() {
+        List<PredictionService.PredictionResult> first = service.forecast(List.of("SANDWICH A"), SUNDAY, "Light rain", 19.8);
+        List<PredictionService.PredictionResult> second = service.forecast(List.of("SANDWICH A"), SUNDAY, "Rain", 20.3);
+
+        assertSame(first.get(0), second.get(0));
+        assertEquals(1, service.forecastCacheMisses());
+        assertEquals(1, service.forecastCacheHits());
+        // Scored at the bucket's temperature (20°C): 12.6 + 2.57 - 0.62 + 1.0
+        assertEquals(16, first.get(0).recommended);
+        assertEquals(1.0, first.get(0).tempEffect, 1e-9);
+    }
+
+    @Test
+    @DisplayName("Cache: the shop's spelling of a name is kept, unknown names get No Data")
+    void forecast_KeepsRequestedNames() {
+        List<PredictionService.PredictionResult> results =
+                service.forecast(List.of("SANDWICHA", "Croissant"), SUNDAY, "Sunny", 20.0);
+
+        assertEquals("SANDWICHA", results.get(0).productName);
+        assertEquals(16, results.get(0).recommended);
+        assertEquals("No Data", results.get(1).status);
+    }
+
+    @Test
+    @DisplayName("Precompute: tomorrow's scenarios are filled, so the page render is a hit")
+    void precompute_FillsTomorrow() {
+        service.precompute();
+        long misses = service.forecastCacheMisses();
+
+        service.forecast(List.of("SANDWICH A"), PredictionService.forecastDate(), "Snow", -3.4);
+        service.forecast(List.of("SANDWICH A"), PredictionService.forecastDate(), "Cloudy", 34.6);
+
+        assertEquals(4 * 46, misses);
+        assertEquals(misses, service.forecastCacheMisses());
+    }
+
+    @Test
+    @DisplayName("Cache: the tree model's number rides along, including products only it knows")
+    void forecast_AddsTreeForecasts() {
+        when(trees.isLoaded()).thenReturn(true);
+        when(trees.products()).thenReturn(List.of("SANDWICH A", "CROISSANT"));
+        when(trees.forecastAll(any(), any(), anyString(), anyDouble())).thenAnswer(call -> {
+            List<String> names = call.getArgument(0);
+            double[] out = new double[names.size()];
+            for (int i = 0; i < out.length; i++) out[i] = names.get(i).equals("SANDWICH B") ? Double.NaN : 7.5;
+            return out;
+        });
+
+        List<PredictionService.PredictionResult> results =
+                service.forecast(List.of("SANDWICH A", "SANDWICH B", "CROISSANT"), SUNDAY, "Sunny", 20.0);
+
+        assertEquals(7.5, results.get(0).treeForecast);
+        assertNull(results.get(1).treeForecast);
+        assertEquals("No Data", results.get(2).status);
+        assertEquals(7.5, results.get(2).treeForecast);
+    }
+}
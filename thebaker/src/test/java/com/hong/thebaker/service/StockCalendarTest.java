@@ -0,0 +1,143 @@
+package com.hong.thebaker.service;
+
+import com.hong.thebaker.dto.DayAvailability;
+import com.hong.thebaker.dto.OrderRequest;
+import com.hong.thebaker.entity.Order;
+import com.hong.thebaker.entity.Product;
+import com.hong.thebaker.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stockcalendar;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+class StockCalendarTest {
+
+    @Autowired
+    private StockCalendar stockCalendar;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Product bagel;
+    private LocalDate tomorrow;
+
+    @BeforeEach
+    void setUp() {
+        bagel = new Product("Planned Bagel", new BigDecimal("3500"), 7, "ALL");
+        bagel.setDailyStock(5);
+        bagel = productRepository.save(bagel);
+        stockCalendar.roll();
+        tomorrow = PickupSlotService.today().plusDays(1);
+    }
+
+    @Test
+    @DisplayName("Order for tomorrow draws on tomorrow's bucket, not today's shelf")
+    void createOrder_ForTomorrow_LeavesTodayAlone() {
+        Order order = orderService.createOrder(request(tomorrow, 2));
+
+        assertEquals(3, stockCalendar.available(tomorrow, bagel.getId()));
+        assertEquals(3, bucketRow(tomorrow));
+        assertEquals(7, stockLedger.available(bagel.getId()));
+        assertEquals(7, productRepository.findById(bagel.getId()).orElseThrow().getStockQuantity());
+
+        // An order the bucket can't cover rolls back without touching it
+        assertThrows(RuntimeException.class, () -> orderService.createOrder(request(tomorrow, 4)));
+        assertEquals(3, stockCalendar.available(tomorrow, bagel.getId()));
+        assertEquals(3, bucketRow(tomorrow));
+
+        orderService.cancelOrder(order.getId());
+        assertEquals(5, stockCalendar.available(tomorrow, bagel.getId()));
+        assertEquals(5, bucketRow(tomorrow));
+    }
+
+    @Test
+    @DisplayName("Availability answers every day in the window from memory")
+    void availability_CoversTodayAndFollowingDays() {
+        List<DayAvailability> week = stockCalendar.availability(7);
+
+        assertEquals(7, week.size());
+        assertEquals(PickupSlotService.today(), week.get(0).getDate());
+        assertEquals(7, week.get(0).getAvailable().get(bagel.getId()));
+        for (int i = 1; i < 7; i++) {
+            assertEquals(5, week.get(i).getAvailable().get(bagel.getId()));
+        }
+    }
+
+    @Test
+    @DisplayName("Category days: HARD bread gets a zero bucket on days it isn't baked")
+    void materialize_RespectsBakingDays() {
+        Product baguette = new Product("Planned Baguette", new BigDecimal("4500"), 0, "HARD");
+        baguette.setDailyStock(8);
+        baguette = productRepository.save(baguette);
+        stockCalendar.roll();
+
+        for (int i = 1; i <= 7; i++) {
+            LocalDate date = PickupSlotService.today().plusDays(i);
+            DayOfWeek day = date.getDayOfWeek();
+            boolean baked = day == DayOfWeek.THURSDAY || day == DayOfWeek.FRIDAY || day == DayOfWeek.SATURDAY;
+            assertEquals(baked ? 8 : 0, stockCalendar.available(date, baguette.getId()));
+        }
+    }
+
+    @Test
+    @DisplayName("Rollover: today's bucket becomes the shelf once, then is gone")
+    void roll_PromotesTodaysBucketToShelf() {
+        LocalDate today = PickupSlotService.today();
+        jdbcTemplate.update("INSERT INTO stock_bucket (product_id, stock_date, quantity) VALUES (?, ?, ?)",
+                bagel.getId(), today, 4);
+
+        stockCalendar.roll();
+
+        assertEquals(4, productRepository.findById(bagel.getId()).orElseThrow().getStockQuantity());
+        assertEquals(4, stockLedger.available(bagel.getId()));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM stock_bucket WHERE stock_date <= ?", Integer.class, today));
+    }
+
+    @Test
+    @DisplayName("Dates past the window can't be ordered yet")
+    void createOrder_BeyondHorizon_IsRefused() {
+        LocalDate far = PickupSlotService.today().plusDays(60);
+        assertThrows(RuntimeException.class, () -> orderService.createOrder(request(far, 1)));
+    }
+
+    private int bucketRow(LocalDate date) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM stock_bucket WHERE product_id = ? AND stock_date = ?",
+                Integer.class, bagel.getId(), date);
+    }
+
+    private OrderRequest request(LocalDate pickupDate, int quantity) {
+        OrderRequest.OrderItemRequest item = new OrderRequest.OrderItemRequest();
+        item.setProductId(bagel.getId());
+        item.setQuantity(quantity);
+
+        OrderRequest request = new OrderRequest();
+        request.setPhoneNumber("01055550000");
+        request.setCustomerName("Tester");
+        request.setPickupDate(pickupDate);
+        request.setItems(List.of(item));
+        return request;
+    }
+}
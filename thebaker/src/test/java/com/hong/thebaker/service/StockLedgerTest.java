@@ -0,0 +1,70 @@
+package com.hong.thebaker.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class StockLedgerTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final StockLedger ledger = new StockLedger(jdbcTemplate, mock(ApplicationEventPublisher.class));
+
+    @Test
+    @DisplayName("Concurrent buyers never reserve more than the seeded stock")
+    void reserve_ShouldNotOversell() throws Exception {
+        // 1. GIVEN: 10 units, 32 buyers trying 5 times each
+        ledger.seed(1L, 10);
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        // 2. WHEN
+        for (int i = 0; i < 32; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                int won = 0;
+                for (int j = 0; j < 5; j++) {
+                    if (ledger.reserve(1L, 1)) won++;
+                }
+                return won;
+            }));
+        }
+        start.countDown();
+
+        int sold = 0;
+        for (Future<Integer> result : results) sold += result.get();
+        pool.shutdown();
+        pool.awaitTermination(5, TimeUnit.SECONDS);
+
+        // 3. THEN
+        assertEquals(10, sold);
+        assertEquals(0, ledger.available(1L));
+        assertFalse(ledger.reserve(1L, 1));
+    }
+
+    @Test
+    @DisplayName("Restock writes the cancelled units to the table, then puts them back on the shelf")
+    void restock_ShouldWriteTableAndCounter() {
+        ledger.seed(1L, 10);
+        ledger.reserve(1L, 3);
+
+        ledger.restock(1L, 1);
+
+        verify(jdbcTemplate).update("UPDATE product SET stock_quantity = stock_quantity + ? WHERE id = ?", 1, 1L);
+        assertEquals(8, ledger.available(1L));
+    }
+}
@@ -0,0 +1,100 @@
+package com.hong.thebaker.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The same load against both thread models. Run it once as is and once in
+ * virtual-thread mode, and compare the two lines it prints:
+ *
+ *   ./gradlew test --tests '*ThreadModelBenchmarkTest' -Dbenchmark=true
+ *   ./gradlew test --tests '*ThreadModelBenchmarkTest' -Dbenchmark=true -PjavaVersion=21 -Dspring.threads.virtual.enabled=true
+ *
+ * 400 concurrent calls wait 200 ms each on a slow upstream (an inline Cloudinary
+ * call, a long poll) while a second client times a fast in-memory endpoint. With
+ * Tomcat capped at 50 platform threads the fast calls queue behind the slow ones;
+ * on virtual threads they don't, and the slow batch finishes in about one wait.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:threadbench;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "server.tomcat.threads.max=50"
+})
+@Import(ThreadModelBenchmarkTest.SlowUpstream.class)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ThreadModelBenchmarkTest {
+
+    private static final int SLOW_CALLS = 400;
+    private static final int FAST_CALLS = 50;
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @RestController
+    static class SlowUpstream {
+        @GetMapping("/api/shop/benchmark/slow")
+        String slow() throws InterruptedException {
+            Thread.sleep(200);
+            return Thread.currentThread().toString();
+        }
+    }
+
+    @Test
+    void fastCallsUnderSlowLoad() throws Exception {
+        ExecutorService clientThreads = Executors.newFixedThreadPool(16);
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(clientThreads).build();
+        String slowUrl = "http://localhost:" + port + "/api/shop/benchmark/slow";
+        String fastUrl = "http://localhost:" + port + "/api/orders/slots";
+
+        String model = client.send(get(slowUrl), HttpResponse.BodyHandlers.ofString()).body()
+                .startsWith("VirtualThread") ? "virtual " : "platform";
+
+        long start = System.nanoTime();
+        List<CompletableFuture<HttpResponse<String>>> slow = IntStream.range(0, SLOW_CALLS)
+                .mapToObj(i -> client.sendAsync(get(slowUrl), HttpResponse.BodyHandlers.ofString()))
+                .toList();
+        Thread.sleep(50); // let the slow calls take the server's threads first
+
+        List<Double> fastMillis = new ArrayList<>();
+        for (int i = 0; i < FAST_CALLS; i++) {
+            long t = System.nanoTime();
+            HttpResponse<Void> response = client.send(get(fastUrl), HttpResponse.BodyHandlers.discarding());
+            fastMillis.add((System.nanoTime() - t) / 1e6);
+            assertEquals(200, response.statusCode());
+        }
+        CompletableFuture.allOf(slow.toArray(new CompletableFuture[0])).join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        for (CompletableFuture<HttpResponse<String>> response : slow) {
+            assertEquals(200, response.join().statusCode());
+        }
+        clientThreads.shutdownNow();
+
+        Collections.sort(fastMillis);
+        System.out.printf("%s | %d slow calls in %.2f s (%.0f req/s) | fast call p50 %.1f ms, p99 %.1f ms%n",
+                model, SLOW_CALLS, seconds, SLOW_CALLS / seconds,
+                fastMillis.get(fastMillis.size() / 2), fastMillis.get((int) (fastMillis.size() * 0.99)));
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+}
@@ -0,0 +1,53 @@
+package com.hong.thebaker.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+
+import java.io.BufferedReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The Java scorer against XGBoost itself on every history.csv row.
+ * The fixture in src/test/resources/gbt/parity comes from
+ * thebaker-ai/export_java_fixture.py (needs xgboost); like the other opt-in
+ * tests, this one only runs once that fixture is committed.
+ */
+@EnabledIf("fixtureExported")
+class TreeEnsembleParityTest {
+
+    private static final String FIXTURE = "/gbt/parity/";
+
+    static boolean fixtureExported() {
+        return TreeEnsembleParityTest.class.getResource(FIXTURE + "model.json") != null
+                && TreeEnsembleParityTest.class.getResource(FIXTURE + "expected.csv") != null;
+    }
+
+    @Test
+    void matchesPythonPredictionsOnHistory() throws Exception {
+        URL model = getClass().getResource(FIXTURE + "model.json");
+        TreeFeatures features = new TreeForecastService("unused").load(Path.of(model.toURI()));
+        Path expected = Path.of(getClass().getResource(FIXTURE + "expected.csv").toURI());
+
+        float[] row = new float[features.width()];
+        int rows = 0;
+        try (BufferedReader in = Files.newBufferedReader(expected, StandardCharsets.UTF_8)) {
+            in.readLine(); // product,date,weather,temp_avg,expected
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] f = line.split(",");
+                features.fill(row, 0, features.productCode(f[0]), LocalDate.parse(f[1]), f[2], Double.parseDouble(f[3]));
+                float want = Float.parseFloat(f[4]);
+                assertEquals(want, features.model.predict(row), 1e-4f * Math.max(1f, Math.abs(want)), line);
+                rows++;
+            }
+        }
+        assertTrue(rows > 0);
+    }
+}
@@ -0,0 +1,97 @@
+package com.hong.thebaker.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TreeEnsembleTest {
+
+    private static final float NaN = Float.NaN;
+
+    /*
+     * Three trees in XGBoost's save_model layout, base_score 0.5:
+     *   tree 0: temp_avg < 10 ? 1.0 : (weather in {2} ? -3.0 : 2.0); missing temp goes left, missing weather right
+     *   tree 1: 0.25
+     *   tree 2: 100, but best_iteration = 1 so predict() never reaches it
+     */
+    private static final String MODEL = """
+            {"learner": {
+              "attributes": {"best_iteration": "1"},
+              "feature_names": ["temp_avg", "weather"],
+              "feature_types": ["float", "c"],
+              "gradient_booster": {"name": "gbtree", "model": {"trees": [
+                {"left_children": [1, -1, 3, -1, -1], "right_children": [2, -1, 4, -1, -1],
+                 "split_indices": [0, 0, 1, 0, 0], "split_conditions": [10.0, 1.0, 0.0, 2.0, -3.0],
+                 "default_left": [1, 0, 0, 0, 0], "split_type": [0, 0, 1, 0, 0],
+                 "categories_nodes": [2], "categories_segments": [0], "categories_sizes": [1], "categories": [2]},
+                {"left_children": [-1], "right_children": [-1], "split_indices": [0],
+                 "split_conditions": [0.25], "default_left": [0], "split_type": [0]},
+                {"left_children": [-1], "right_children": [-1], "split_indices": [0],
+                 "split_conditions": [100.0], "default_left": [0], "split_type": [0]}
+              ]}},
+              "learner_model_param": {"base_score": "[5E-1]", "num_feature": "2", "num_target": "1"},
+              "objective": {"name": "reg:squarederror"}
+            }, "version": [2, 1, 0]}
+            """;
+
+    private TreeEnsemble model() throws Exception {
+        return TreeEnsemble.parse(new ObjectMapper().readTree(MODEL));
+    }
+
+    @Test
+    @DisplayName("Scoring: numeric, categorical and missing-value branches like XGBoost")
+    void predict_FollowsXgboostDecisions() throws Exception {
+        TreeEnsemble model = model();
+        assertEquals(2, model.treeCount());
+
+        assertEquals(1.75f, model.predict(new float[]{5, 0}));      // cold: left leaf
+        assertEquals(-2.25f, model.predict(new float[]{15, 2}));    // category 2 is in the set: right
+        assertEquals(2.75f, model.predict(new float[]{15, 0}));     // not in the set: left
+        assertEquals(2.75f, model.predict(new float[]{15, 70}));    // beyond the set's range: left
+        assertEquals(-2.25f, model.predict(new float[]{10, 2}));    // 10 is not < 10
+        assertEquals(1.75f, model.predict(new float[]{NaN, 2}));    // missing temp: default left
+        assertEquals(-2.25f, model.predict(new float[]{15, NaN}));  // missing weather: default right
+
+        float[] out = new float[2];
+        model.predictAll(new float[]{5, 0, 15, 2}, 2, out);
+        assertArrayEquals(new float[]{1.75f, -2.25f}, out);
+    }
+
+    @Test
+    @DisplayName("Features: calendar values as pandas computes them, categories by training code")
+    void fill_EncodesLikeFeaturesPy() throws Exception {
+        String model = MODEL.replace("\"feature_names\": [\"temp_avg\", \"weather\"]",
+                "\"feature_names\": [\"product\", \"weather\", \"day_of_week\", \"is_weekend\", \"week_of_year\", \"sold_lag_1\"]")
+                .replace("\"feature_types\": [\"float\", \"c\"]", "\"feature_types\": [\"c\", \"c\", \"int\", \"int\", \"int\", \"float\"]")
+                .replace("\"num_feature\": \"2\"", "\"num_feature\": \"6\"");
+        TreeFeatures features = new TreeFeatures(TreeEnsemble.parse(new ObjectMapper().readTree(model)),
+                Map.of("product", List.of("BAGEL A", "SANDWICH L"), "weather", List.of("Cloudy", "Snow", "Sunny")));
+
+        float[] row = new float[features.width()];
+        // 2026-10-18 is a Sunday in ISO week 42
+        features.fill(row, 0, features.productCode("SANDWICHL"), LocalDate.of(2026, 10, 18), "snow", 3.0);
+        assertArrayEquals(new float[]{1, 1, 6, 1, 42, NaN}, row);
+        assertEquals(List.of("sold_lag_1"), features.missingFeatures());
+
+        int unknown = features.productCode("Croissant");
+        features.fill(row, 0, unknown, LocalDate.of(2026, 10, 19), "Rain", 3.0);
+        assertTrue(Float.isNaN(row[0]) && Float.isNaN(row[1]));
+        assertFalse(features.covers(unknown));
+    }
+
+    @Test
+    @DisplayName("Parsing: multi-class models and unknown objectives are refused")
+    void parse_RejectsUnsupportedModels() {
+        ObjectMapper mapper = new ObjectMapper();
+        assertThrows(IllegalArgumentException.class, () -> TreeEnsemble.parse(mapper.readTree(
+                MODEL.replace("\"num_target\": \"1\"", "\"num_target\": \"1\", \"num_class\": \"3\""))));
+        assertThrows(IllegalArgumentException.class, () -> TreeEnsemble.parse(mapper.readTree(
+                MODEL.replace("reg:squarederror", "rank:pairwise"))));
+    }
+}